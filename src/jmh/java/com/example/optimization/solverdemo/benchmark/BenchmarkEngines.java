@@ -0,0 +1,65 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.config.SolverConfig;
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.service.*;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 不启动Spring时手工装配的求解服务，线程池和本地求解器环境池在基准结束时关闭
+ */
+final class BenchmarkEngines implements AutoCloseable {
+    final SolverProperties solverProperties = new SolverProperties();
+    final SolverMetrics solverMetrics = new SolverMetrics();
+    final NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool =
+            new SolverConfig().cplexEnvironmentPool(solverProperties);
+    final NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool =
+            new SolverConfig().gurobiEnvironmentPool(solverProperties);
+    final ExactBatchEngine exactBatchEngine = new ExactBatchEngine();
+    final HeuristicBatchSolver heuristicBatchSolver = new HeuristicBatchSolver();
+    final ColumnGenerationBatchEngine columnGenerationBatchEngine =
+            new ColumnGenerationBatchEngine(exactBatchEngine, cplexEnvironmentPool);
+    final CuttingStockBatchSolver cuttingStockBatchSolver =
+            new CuttingStockBatchSolver(columnGenerationBatchEngine, solverMetrics, cplexEnvironmentPool);
+    final CplexBatchSolver cplexBatchSolver = new CplexBatchSolver(columnGenerationBatchEngine,
+            cuttingStockBatchSolver, solverMetrics, cplexEnvironmentPool);
+    final GurobiBatchSolver gurobiBatchSolver = new GurobiBatchSolver(solverMetrics, gurobiEnvironmentPool);
+    final LocalSearchBatchSolver localSearchBatchSolver;
+    final BatchOptimizerService batchOptimizerService;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    BenchmarkEngines() {
+        localSearchBatchSolver = new LocalSearchBatchSolver(solverProperties, executor, exactBatchEngine,
+                heuristicBatchSolver);
+        batchOptimizerService = new BatchOptimizerService(solverProperties, executor, executor, executor,
+                List.of(exactBatchEngine, heuristicBatchSolver, columnGenerationBatchEngine, cuttingStockBatchSolver,
+                        cplexBatchSolver, gurobiBatchSolver, localSearchBatchSolver),
+                exactBatchEngine, heuristicBatchSolver, localSearchBatchSolver, new SolutionCache(solverProperties),
+                solverMetrics);
+    }
+
+    // CPLEX本地库能否加载
+    static boolean cplexAvailable() {
+        try {
+            new IloCplex().end();
+            return true;
+        } catch (Exception | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        cplexEnvironmentPool.close();
+        gurobiEnvironmentPool.close();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.SolveContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPLEX模型构建的耗时: 截止时间设为当前时间，求解器照常借出环境并建模，建模后发现已超时不再求解，测得的是建模的开销。
+ * 需要CPLEX本地库，SolverBenchmarks在本地库不可用时跳过本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CplexModelBenchmark {
+
+    @Param({"50", "200", "500"})
+    private int pieceCount;
+
+    @Param({"POSITIONAL", "COMPACT"})
+    private BatchFormulation formulation;
+
+    private BenchmarkEngines engines;
+    private List<PieceStep> pieces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engines = new BenchmarkEngines();
+        pieces = new ArrayList<>(PieceStepWorkload.generate(42, pieceCount, 1,
+                PieceStepWorkload.ThicknessProfile.UNIFORM));
+        pieces.sort(Comparator.comparing(PieceStep::getThickness));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engines.close();
+    }
+
+    @Benchmark
+    public GroupSolveResult buildModel() {
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .threads(1)
+                .deadline(System.nanoTime())
+                .formulation(formulation)
+                .build();
+        return engines.cplexBatchSolver.solve(new ArrayList<>(pieces), context);
+    }
+}
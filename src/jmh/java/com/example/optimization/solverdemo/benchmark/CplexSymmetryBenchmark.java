@@ -0,0 +1,73 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.SolveContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位置模型开启和关闭对称性破除时求解到最优的耗时; 每次调用的Batch数量和搜索节点数通过AuxCounters输出，
+ * 两种设置的Batch数量应当相同。需要CPLEX本地库，SolverBenchmarks在本地库不可用时跳过本类
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CplexSymmetryBenchmark {
+
+    @Param({"15", "25", "35"})
+    private int pieceCount;
+
+    @Param({"true", "false"})
+    private boolean symmetryBreaking;
+
+    @Param("120")
+    private double timeLimitSeconds;
+
+    private BenchmarkEngines engines;
+    private List<PieceStep> pieces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engines = new BenchmarkEngines();
+        pieces = new ArrayList<>(PieceStepWorkload.generate(42, pieceCount, 1,
+                PieceStepWorkload.ThicknessProfile.CLUSTERED));
+        pieces.sort(Comparator.comparing(PieceStep::getThickness));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engines.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class SearchSize {
+        public long batches;
+        public long nodes;
+    }
+
+    @Benchmark
+    public GroupSolveResult solve(SearchSize size) {
+        // 不使用初始解，只比较模型本身的搜索
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .threads(1)
+                .deadline(System.nanoTime() + (long) (timeLimitSeconds * 1_000_000_000L))
+                .formulation(BatchFormulation.POSITIONAL)
+                .symmetryBreaking(symmetryBreaking)
+                .build();
+        GroupSolveResult result = engines.cplexBatchSolver.solve(new ArrayList<>(pieces), context);
+        size.batches = result.getBatches().size();
+        size.nodes = result.getNodes();
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.service.BatchSolveOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不依赖本地库的求解器在固定时间上限下的整体耗时; 每次调用的Batch数量和gap通过AuxCounters输出，
+ * 便于同时比较速度和方案质量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"exact", "local-search", "heuristic", "portfolio"})
+    private String solver;
+
+    @Param({"50", "500", "5000"})
+    private int pieceCount;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    private PieceStepWorkload.ThicknessProfile profile;
+
+    @Param({"true", "false"})
+    private boolean decompose;
+
+    @Param("2")
+    private double timeLimitSeconds;
+
+    private BenchmarkEngines engines;
+    private List<PieceStep> pieces;
+    private BatchSolveOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engines = new BenchmarkEngines();
+        pieces = PieceStepWorkload.generate(42, pieceCount, 1, profile);
+        options = BatchSolveOptions.builder()
+                .solver(solver)
+                .portfolio(List.of("exact", "local-search"))
+                .timeLimitSeconds(timeLimitSeconds)
+                .decompose(decompose)
+                .useCache(false)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engines.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PlanQuality {
+        public long batches;
+        public double gap;
+    }
+
+    @Benchmark
+    public BatchPlanResult planBatches(PlanQuality quality) {
+        BatchPlanResult result = engines.batchOptimizerService.planBatches(pieces, options);
+        quality.batches = result.getBatches().size();
+        quality.gap = result.getGap() != null ? result.getGap() : Double.NaN;
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generateBatchesHeuristic在不同规模和厚度分布下的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicBenchmark {
+
+    @Param({"50", "500", "5000", "50000"})
+    private int pieceCount;
+
+    @Param({"1", "4"})
+    private int groupCount;
+
+    @Param({"UNIFORM", "CLUSTERED", "THIN_HEAVY"})
+    private PieceStepWorkload.ThicknessProfile profile;
+
+    private BenchmarkEngines engines;
+    private List<PieceStep> pieces;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engines = new BenchmarkEngines();
+        pieces = PieceStepWorkload.generate(42, pieceCount, groupCount, profile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engines.close();
+    }
+
+    @Benchmark
+    public List<Batch> generateBatchesHeuristic() {
+        return engines.batchOptimizerService.generateBatchesHeuristic(pieces);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 可复现的PieceStep工作负载生成器。
+ * <p>
+ * 宽度600-1400(步长100)，重量8-27，厚度取0.05的整数倍，按轮转分配到温度组，
+ * 与生产数据的量级一致; 相同的参数和种子总是生成相同的PieceStep。
+ */
+public final class PieceStepWorkload {
+
+    /**
+     * 厚度分布
+     */
+    public enum ThicknessProfile {
+        // 0.5-1.5均匀分布，约20%为薄件
+        UNIFORM,
+        // 若干相距超过0.3的厚度簇，可以按厚度间隔分解
+        CLUSTERED,
+        // 约一半为薄件(<0.7)，厚件成为瓶颈
+        THIN_HEAVY
+    }
+
+    private PieceStepWorkload() {
+    }
+
+    public static List<PieceStep> generate(long seed, int pieceCount, int groupCount, ThicknessProfile profile) {
+        Random random = new Random(seed);
+        List<PieceStep> pieces = new ArrayList<>(pieceCount);
+        for (int i = 0; i < pieceCount; i++) {
+            double thickness = Math.round(thickness(random, profile) * 20) / 20.0;
+            pieces.add(PieceStep.builder()
+                    .pieceStepId("P" + i)
+                    .weight(8.0 + random.nextInt(20))
+                    .width(600.0 + random.nextInt(9) * 100)
+                    .thickness(thickness)
+                    .temperature("T" + (i % groupCount + 1))
+                    .outerDiameter(200.0 + random.nextInt(400))
+                    .build());
+        }
+        return pieces;
+    }
+
+    private static double thickness(Random random, ThicknessProfile profile) {
+        switch (profile) {
+            case CLUSTERED:
+                // 4个簇: 0.8, 1.5, 2.2, 2.9 附近，簇内跨度0.2
+                return 0.8 + 0.7 * random.nextInt(4) + random.nextDouble() * 0.2;
+            case THIN_HEAVY:
+                return random.nextBoolean() ? 0.5 + random.nextDouble() * 0.2 : 0.7 + random.nextDouble() * 0.4;
+            case UNIFORM:
+            default:
+                return 0.5 + random.nextDouble();
+        }
+    }
+}
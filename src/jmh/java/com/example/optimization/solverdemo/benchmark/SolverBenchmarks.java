@@ -0,0 +1,29 @@
+package com.example.optimization.solverdemo.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准入口: mvn -Pbenchmark test-compile exec:exec [-Djmh.include=正则]
+ * <p>
+ * 找不到CPLEX本地库时跳过依赖它的基准，其余基准照常运行。
+ */
+public final class SolverBenchmarks {
+
+    private SolverBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : ".*");
+        if (!BenchmarkEngines.cplexAvailable()) {
+            System.out.println("CPLEX native library not found, skipping " + CplexModelBenchmark.class.getSimpleName()
+                    + " and " + CplexSymmetryBenchmark.class.getSimpleName());
+            options.exclude(CplexModelBenchmark.class.getSimpleName());
+            options.exclude(CplexSymmetryBenchmark.class.getSimpleName());
+        }
+        new Runner(options.build()).run();
+    }
+}
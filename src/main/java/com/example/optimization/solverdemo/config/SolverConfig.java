@@ -0,0 +1,131 @@
+package com.example.optimization.solverdemo.config;
+
+import com.example.optimization.solverdemo.service.NativeEnvironmentPool;
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(SolverProperties.class)
+@EnableScheduling
+public class SolverConfig {
+
+    // 温度组并行求解使用的有界线程池
+    @Bean
+    public ThreadPoolTaskExecutor batchSolverExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getParallelism());
+        executor.setMaxPoolSize(solverProperties.getParallelism());
+        executor.setThreadNamePrefix("batch-solver-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 组合模式各成员求解器使用的线程池，与温度组线程池分开，避免组任务等待成员任务时互相占满
+    @Bean
+    public ThreadPoolTaskExecutor portfolioExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getPortfolioThreads());
+        executor.setMaxPoolSize(solverProperties.getPortfolioThreads());
+        executor.setThreadNamePrefix("portfolio-solver-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 厚度分解后各子问题使用的线程池，与温度组和组合模式线程池分开
+    @Bean
+    public ThreadPoolTaskExecutor decompositionExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getDecompositionThreads());
+        executor.setMaxPoolSize(solverProperties.getDecompositionThreads());
+        executor.setThreadNamePrefix("decomposition-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 局部搜索工作线程使用的线程池; 其中的任务从不等待其他任务
+    @Bean
+    public ThreadPoolTaskExecutor localSearchExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getLocalSearchThreads());
+        executor.setMaxPoolSize(solverProperties.getLocalSearchThreads());
+        executor.setThreadNamePrefix("local-search-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 异步分批任务使用的有界线程池，队列满时拒绝提交
+    @Bean
+    public ThreadPoolTaskExecutor batchJobExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getJobThreads());
+        executor.setMaxPoolSize(solverProperties.getJobThreads());
+        executor.setQueueCapacity(solverProperties.getJobQueueCapacity());
+        executor.setThreadNamePrefix("batch-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 向SSE订阅者推送任务事件使用的线程池，网络写入不占用求解器回调线程
+    @Bean
+    public ThreadPoolTaskExecutor jobEventExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getJobEventThreads());
+        executor.setMaxPoolSize(solverProperties.getJobEventThreads());
+        executor.setThreadNamePrefix("job-event-");
+        executor.initialize();
+        return executor;
+    }
+
+    // 协调节点调用工作节点使用的线程池，每个线程等待一个子问题的HTTP响应
+    @Bean
+    public ThreadPoolTaskExecutor workerClientExecutor(SolverProperties solverProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(solverProperties.getWorkerThreads());
+        executor.setMaxPoolSize(solverProperties.getWorkerThreads());
+        executor.setThreadNamePrefix("worker-client-");
+        executor.initialize();
+        return executor;
+    }
+
+    // CPLEX实例池: 归还时清空模型、回调和参数，借出前检查实例仍可用
+    @Bean
+    public NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool(SolverProperties solverProperties) {
+        return new NativeEnvironmentPool<>("cplex", solverProperties.getNativeConcurrency(),
+                solverProperties.getNativePoolSize(), IloCplex::new,
+                cplex -> {
+                    cplex.clearModel();
+                    cplex.clearCallbacks();
+                    cplex.setDefaults();
+                    cplex.setOut(System.out);
+                },
+                IloCplex::getVersion,
+                IloCplex::end);
+    }
+
+    // Gurobi环境池: 环境启动时完成许可检查，归还时重置参数
+    @Bean
+    public NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool(SolverProperties solverProperties) {
+        return new NativeEnvironmentPool<>("gurobi", solverProperties.getNativeConcurrency(),
+                solverProperties.getNativePoolSize(),
+                () -> {
+                    GRBEnv env = new GRBEnv(true);
+                    env.set(GRB.IntParam.OutputFlag, 0);
+                    env.start();
+                    return env;
+                },
+                env -> {
+                    env.resetParams();
+                    env.set(GRB.IntParam.OutputFlag, 0);
+                },
+                env -> env.get(GRB.IntParam.OutputFlag),
+                GRBEnv::dispose);
+    }
+}
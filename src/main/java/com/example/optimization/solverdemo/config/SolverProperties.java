@@ -0,0 +1,53 @@
+package com.example.optimization.solverdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "solver")
+public class SolverProperties {
+    // 并行模式下同时求解的温度组数量上限
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // 所有并发温度组共享的求解器线程总数，按并发组数平均分配
+    private int solverThreads = Runtime.getRuntime().availableProcessors();
+    // 组合模式下默认参与竞速的求解器名称
+    private List<String> portfolio = List.of("exact", "local-search", "column-generation", "cplex", "gurobi");
+    // 组合模式成员使用的线程池大小
+    private int portfolioThreads = Runtime.getRuntime().availableProcessors();
+    // 同时运行的异步分批任务数量
+    private int jobThreads = 2;
+    // 等待执行的异步任务数量上限，超过后拒绝提交
+    private int jobQueueCapacity = 100;
+    // 已结束任务的保留时间
+    private Duration jobRetention = Duration.ofHours(1);
+    // 向SSE订阅者推送任务事件的线程池大小; 同一任务的事件按顺序推送
+    private int jobEventThreads = 4;
+    // 增量规划会话的空闲超时
+    private Duration sessionIdleTimeout = Duration.ofHours(12);
+    // 厚度分解后单个子问题的PieceStep数量上限，更大的部分切成窗口求解; 0表示只按厚度间隔分解。
+    // 窗口分解不保证最优，默认不开启
+    private int decompositionWindow = 0;
+    // 并行求解分解后子问题的线程池大小
+    private int decompositionThreads = Runtime.getRuntime().availableProcessors();
+    // 局部搜索的工作线程池大小
+    private int localSearchThreads = Runtime.getRuntime().availableProcessors();
+    // 局部搜索在不限时请求中的运行时间
+    private Duration localSearchTime = Duration.ofSeconds(10);
+    // 温度组求解结果缓存的条目上限，0表示不缓存
+    private long cacheSize = 1000;
+    // 同时运行的本地求解器(CPLEX、Gurobi)求解数量上限，每种求解器分别计算
+    private int nativeConcurrency = Runtime.getRuntime().availableProcessors();
+    // 每种本地求解器保留的空闲环境数量上限
+    private int nativePoolSize = Runtime.getRuntime().availableProcessors();
+    // 分布式求解的工作节点地址(如 http://host:8080)，为空时协调节点在本机求解
+    private List<String> workers = List.of();
+    // 子问题在某个工作节点失败后改发到其他节点的次数，仍失败时在本机求解
+    private int workerRetries = 2;
+    // 等待工作节点返回单个子问题结果的时间上限
+    private Duration workerTimeout = Duration.ofMinutes(30);
+    // 协调节点同时等待工作节点结果的线程数
+    private int workerThreads = 8;
+}
@@ -0,0 +1,82 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.BatchJobView;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.BatchJobService;
+import com.example.optimization.solverdemo.service.BatchSolveOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/batches/jobs")
+public class BatchJobController {
+
+    private final BatchJobService batchJobService;
+
+    @Autowired
+    public BatchJobController(BatchJobService batchJobService) {
+        this.batchJobService = batchJobService;
+    }
+
+    // 提交分批任务，立即返回任务id
+    @PostMapping
+    public ResponseEntity<BatchJobView> submit(@RequestBody List<PieceStep> pieceSteps,
+                                               @RequestParam(required = false) String solver,
+                                               @RequestParam(defaultValue = "POSITIONAL") BatchFormulation formulation,
+                                               @RequestParam(required = false) Double timeLimitSeconds,
+                                               @RequestParam(required = false) Double mipGap,
+                                               @RequestParam(required = false) Double localSearchSeconds,
+                                               @RequestParam(defaultValue = "false") boolean parallel) {
+        BatchSolveOptions options = BatchSolveOptions.builder()
+                .solver(solver)
+                .formulation(formulation)
+                .timeLimitSeconds(timeLimitSeconds)
+                .mipGap(mipGap)
+                .localSearchSeconds(localSearchSeconds)
+                .parallel(parallel)
+                .build();
+        BatchJobView job;
+        try {
+            job = batchJobService.submit(pieceSteps, options);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Job queue is full", e);
+        }
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").build(job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public BatchJobView status(@PathVariable String jobId) {
+        return batchJobService.get(jobId).orElseThrow(() -> notFound(jobId));
+    }
+
+    // 取消任务; 运行中的任务会以取消前的最好解结束
+    @PostMapping("/{jobId}/cancel")
+    public BatchJobView cancel(@PathVariable String jobId) {
+        return batchJobService.cancel(jobId).orElseThrow(() -> notFound(jobId));
+    }
+
+    // 以SSE推送更好的可行解("incumbent")和最终状态("status")
+    @GetMapping(path = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String jobId) {
+        return batchJobService.subscribe(jobId).orElseThrow(() -> notFound(jobId));
+    }
+
+    private static ResponseStatusException notFound(String jobId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job: " + jobId);
+    }
+}
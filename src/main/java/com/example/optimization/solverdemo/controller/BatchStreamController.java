@@ -0,0 +1,62 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.BatchOptimizerService;
+import com.example.optimization.solverdemo.service.BatchSolveOptions;
+import com.example.optimization.solverdemo.service.StreamingBatchService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/batches/stream")
+public class BatchStreamController {
+
+    private final BatchOptimizerService batchOptimizerService;
+    private final StreamingBatchService streamingBatchService;
+
+    @Autowired
+    public BatchStreamController(BatchOptimizerService batchOptimizerService,
+                                 StreamingBatchService streamingBatchService) {
+        this.batchOptimizerService = batchOptimizerService;
+        this.streamingBatchService = streamingBatchService;
+    }
+
+    // 请求体为NDJSON或JSON数组形式的PieceStep，每个温度组求解完成后立即返回一行结果
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> plan(HttpServletRequest request,
+                                                      @RequestParam(required = false) String solver,
+                                                      @RequestParam(defaultValue = "POSITIONAL") BatchFormulation formulation,
+                                                      @RequestParam(required = false) Double timeLimitSeconds,
+                                                      @RequestParam(required = false) Double mipGap,
+                                                      @RequestParam(required = false) Double localSearchSeconds,
+                                                      @RequestParam(defaultValue = "false") boolean parallel,
+                                                      @RequestParam(defaultValue = "false") boolean grouped) throws IOException {
+        // 时间上限按温度组计算
+        BatchSolveOptions options = BatchSolveOptions.builder()
+                .solver(solver)
+                .formulation(formulation)
+                .timeLimitSeconds(timeLimitSeconds)
+                .mipGap(mipGap)
+                .localSearchSeconds(localSearchSeconds)
+                .parallel(parallel)
+                .build();
+        try {
+            batchOptimizerService.validate(options);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> streamingBatchService.plan(in, out, options, grouped);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.BatchOptimizerService;
+import com.example.optimization.solverdemo.service.BatchSolveOptions;
+import com.example.optimization.solverdemo.service.DistributedBatchService;
+import com.example.optimization.solverdemo.service.SolveContext;
+import com.example.optimization.solverdemo.service.SubproblemRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/batches/distributed")
+public class DistributedBatchController {
+
+    private final DistributedBatchService distributedBatchService;
+    private final BatchOptimizerService batchOptimizerService;
+
+    @Autowired
+    public DistributedBatchController(DistributedBatchService distributedBatchService,
+                                      BatchOptimizerService batchOptimizerService) {
+        this.distributedBatchService = distributedBatchService;
+        this.batchOptimizerService = batchOptimizerService;
+    }
+
+    // 协调节点: 把各温度组(及其分解出的部分)分给solver.workers配置的工作节点求解
+    @PostMapping
+    public BatchPlanResult plan(@RequestBody List<PieceStep> pieceSteps,
+                                @RequestParam(required = false) String solver,
+                                @RequestParam(defaultValue = "POSITIONAL") BatchFormulation formulation,
+                                @RequestParam(required = false) Double timeLimitSeconds,
+                                @RequestParam(required = false) Double mipGap,
+                                @RequestParam(defaultValue = "true") boolean decompose) {
+        BatchSolveOptions options = BatchSolveOptions.builder()
+                .solver(solver)
+                .formulation(formulation)
+                .timeLimitSeconds(timeLimitSeconds)
+                .mipGap(mipGap)
+                .decompose(decompose)
+                .build();
+        try {
+            return distributedBatchService.planBatches(pieceSteps, options);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // 工作节点: 求解协调节点发来的一个子问题
+    @PostMapping("/subproblems")
+    public GroupSolveResult solveSubproblem(@RequestBody SubproblemRequest request) {
+        try {
+            return batchOptimizerService.planGroup(request.getTemperature(), request.getPieceSteps(),
+                    request.getOptions(), SolveContext.builder().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
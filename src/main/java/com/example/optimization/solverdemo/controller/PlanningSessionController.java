@@ -0,0 +1,79 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.PieceDelta;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PlanningSessionView;
+import com.example.optimization.solverdemo.service.BatchFormulation;
+import com.example.optimization.solverdemo.service.BatchSolveOptions;
+import com.example.optimization.solverdemo.service.PlanningSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/batches/sessions")
+public class PlanningSessionController {
+
+    private final PlanningSessionService planningSessionService;
+
+    @Autowired
+    public PlanningSessionController(PlanningSessionService planningSessionService) {
+        this.planningSessionService = planningSessionService;
+    }
+
+    // 创建会话并求解初始方案; 求解选项用于之后的每次增量
+    @PostMapping
+    public ResponseEntity<PlanningSessionView> create(@RequestBody List<PieceStep> pieceSteps,
+                                                      @RequestParam(required = false) String solver,
+                                                      @RequestParam(defaultValue = "POSITIONAL") BatchFormulation formulation,
+                                                      @RequestParam(required = false) Double timeLimitSeconds,
+                                                      @RequestParam(required = false) Double mipGap) {
+        BatchSolveOptions options = BatchSolveOptions.builder()
+                .solver(solver)
+                .formulation(formulation)
+                .timeLimitSeconds(timeLimitSeconds)
+                .mipGap(mipGap)
+                .build();
+        PlanningSessionView session;
+        try {
+            session = planningSessionService.create(pieceSteps, options);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return ResponseEntity
+                .created(ServletUriComponentsBuilder.fromCurrentRequest().path("/{sessionId}").build(session.getSessionId()))
+                .body(session);
+    }
+
+    @GetMapping("/{sessionId}")
+    public PlanningSessionView get(@PathVariable String sessionId) {
+        return planningSessionService.get(sessionId).orElseThrow(() -> notFound(sessionId));
+    }
+
+    // 加入新到的PieceStep、移除已处理的PieceStep，只重新求解受影响的部分
+    @PostMapping("/{sessionId}/deltas")
+    public PlanningSessionView applyDelta(@PathVariable String sessionId, @RequestBody PieceDelta delta) {
+        try {
+            return planningSessionService.applyDelta(sessionId, delta).orElseThrow(() -> notFound(sessionId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> close(@PathVariable String sessionId) {
+        if (!planningSessionService.close(sessionId)) {
+            throw notFound(sessionId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseStatusException notFound(String sessionId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown session: " + sessionId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.SolutionCacheStats;
+import com.example.optimization.solverdemo.service.SolutionCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/batches/cache")
+public class SolutionCacheController {
+
+    private final SolutionCache solutionCache;
+
+    @Autowired
+    public SolutionCacheController(SolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    // 命中、未命中和淘汰次数
+    @GetMapping
+    public SolutionCacheStats stats() {
+        return solutionCache.getStats();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        solutionCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
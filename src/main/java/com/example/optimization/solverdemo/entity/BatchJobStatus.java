@@ -0,0 +1,17 @@
+package com.example.optimization.solverdemo.entity;
+
+public enum BatchJobStatus {
+    // 等待线程池执行
+    QUEUED,
+    RUNNING,
+    // 求解完成(结果状态见BatchPlanResult)
+    COMPLETED,
+    // 已取消; 运行中取消时保留取消前的最好解
+    CANCELLED,
+    // 求解过程抛出异常
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 异步分批任务的当前状态
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchJobView {
+    private String jobId;
+    private BatchJobStatus status;
+    private int pieceCount;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    // 运行中为各温度组目前最好的可行解，结束后为最终结果
+    private List<GroupSolveResult> groups;
+    // 失败原因
+    private String error;
+}
@@ -0,0 +1,48 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次分批请求的结果，按温度组顺序保存
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPlanResult {
+    private List<GroupSolveResult> groups;
+
+    public List<Batch> getBatches() {
+        List<Batch> batches = new ArrayList<>();
+        for (GroupSolveResult group : groups) {
+            batches.addAll(group.getBatches());
+        }
+        return batches;
+    }
+
+    // 整体状态取最差的温度组状态
+    public SolveStatus getStatus() {
+        SolveStatus status = SolveStatus.OPTIMAL;
+        for (GroupSolveResult group : groups) {
+            if (group.getStatus().ordinal() > status.ordinal()) {
+                status = group.getStatus();
+            }
+        }
+        return status;
+    }
+
+    // 整体gap取各温度组的最大值
+    public Double getGap() {
+        Double gap = null;
+        for (GroupSolveResult group : groups) {
+            if (group.getGap() != null && (gap == null || group.getGap() > gap)) {
+                gap = group.getGap();
+            }
+        }
+        return gap;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 单个温度组的求解结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class GroupSolveResult {
+    private String temperature;
+    private List<Batch> batches;
+    private SolveStatus status;
+    // Batch数量下界
+    private Integer lowerBound;
+    // 相对gap: (Batch数 - 下界) / Batch数
+    private Double gap;
+    // 搜索节点数或迭代次数
+    private long nodes;
+    // 预处理的诊断报告，未预处理时为null
+    private PresolveReport presolve;
+
+    public boolean isOptimal() {
+        return status == SolveStatus.OPTIMAL;
+    }
+
+    // 由引擎给出的Batch与下界构造结果，gap由两者计算
+    public static GroupSolveResult of(String temperature, List<Batch> batches, SolveStatus status,
+                                      Integer lowerBound, long nodes) {
+        Double gap = null;
+        if (!batches.isEmpty() && lowerBound != null) {
+            gap = Math.max(0.0, (double) (batches.size() - lowerBound) / batches.size());
+        }
+        return new GroupSolveResult(temperature, batches, status, lowerBound, gap, nodes, null);
+    }
+}
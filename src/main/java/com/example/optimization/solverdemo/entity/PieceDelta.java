@@ -0,0 +1,23 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 规划会话的增量: 新到的PieceStep和需要移除的PieceStep id
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PieceDelta {
+    @Builder.Default
+    private List<PieceStep> added = new ArrayList<>();
+    @Builder.Default
+    private List<String> removed = new ArrayList<>();
+}
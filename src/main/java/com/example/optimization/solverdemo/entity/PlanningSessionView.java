@@ -0,0 +1,28 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 规划会话的当前分批方案
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlanningSessionView {
+    private String sessionId;
+    // 每应用一次增量加一
+    private long version;
+    private int pieceCount;
+    // 各温度组的当前方案
+    private List<GroupSolveResult> groups;
+    // 无法分配到任何Batch的PieceStep
+    private List<PieceStep> unassigned;
+    // 最近一次增量中重新求解的PieceStep数量
+    private int lastResolvedPieces;
+}
@@ -0,0 +1,21 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 预处理发现的一组无法分批的PieceStep及原因
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresolveIssue {
+    private PresolveReason reason;
+    private List<String> pieceStepIds;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.example.optimization.solverdemo.entity;
+
+// 预处理判定PieceStep无法分批的原因
+public enum PresolveReason {
+    // 宽度加上同一厚度部分中最窄的另外3个PieceStep及对流板后超过MAX_HEIGHT
+    TOO_WIDE,
+    // 重量加上同一厚度部分中最轻的另外3个PieceStep及对流板后超过MAX_WEIGHT
+    TOO_HEAVY,
+    // 所在厚度部分(相邻厚度差<=MAX_THICKNESS_DIFF)不足MIN_PIECES_PER_BATCH个PieceStep
+    TOO_FEW_PIECES,
+    // 所在厚度部分的PieceStep数量无法拆成每批4~5个(如6、7、11个)
+    PIECE_COUNT,
+    // 所在厚度部分的厚件不足以让每个Batch有两个
+    NOT_ENOUGH_THICK,
+    // 按高度、重量需要的Batch数量超过PieceStep数量或厚件允许的上限
+    CAPACITY
+}
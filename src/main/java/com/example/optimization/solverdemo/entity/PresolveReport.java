@@ -0,0 +1,33 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 温度组预处理的诊断报告
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresolveReport {
+    // 温度组的PieceStep数量
+    private int pieceCount;
+    // 无法分批的PieceStep及原因; 为空时温度组可能有解
+    private List<PresolveIssue> issues;
+    // 已确定的Batch数量(厚度部分恰好只能组成一个Batch)
+    private int fixedBatches;
+    // 交给求解器的PieceStep数量
+    private int remainingPieces;
+    // 交给求解器部分的Batch数量上界与下界
+    private int maxBatches;
+    private int lowerBound;
+
+    public boolean isFeasible() {
+        return issues.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.optimization.solverdemo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 温度组求解结果缓存的命中统计
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolutionCacheStats {
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    // 因容量上限被淘汰的条目数
+    private long evictionCount;
+    private long size;
+}
@@ -0,0 +1,12 @@
+package com.example.optimization.solverdemo.entity;
+
+public enum SolveStatus {
+    // 已证明最优
+    OPTIMAL,
+    // 达到时间或gap上限，返回当前最好解
+    FEASIBLE,
+    // 已证明不存在满足约束的分批
+    INFEASIBLE,
+    // 在上限内没有找到任何解
+    NO_SOLUTION
+}
@@ -0,0 +1,30 @@
+package com.example.optimization.solverdemo.service;
+
+/**
+ * 温度组MIP模型的建模方式
+ */
+public enum BatchFormulation {
+    /**
+     * 原始位置模型: x[i][j][k] 表示PieceStep i 在第j个Batch的第k个位置，
+     * 相邻厚度约束按位置逐对展开，规模约为 O(n²·batches)
+     */
+    POSITIONAL,
+
+    /**
+     * 紧凑模型: a[i][j] 只表示PieceStep i 是否属于第j个Batch，
+     * 利用组内已按厚度排序的特点用后缀和变量聚合厚度窗口约束，规模约为 O(n·batches)
+     */
+    COMPACT,
+
+    /**
+     * 集合划分模型: 每个变量对应一个合法Batch，由列生成按需产生，
+     * LP界很紧，可对上千件的温度组给出已证明最优的结果
+     */
+    SET_PARTITIONING,
+
+    /**
+     * 类型聚合模型: 相同的PieceStep合并为类型，整数变量表示每种合法模式(各类型件数)的Batch数量，
+     * 规模只与类型数和模式数有关，适合大量重复PieceStep的温度组
+     */
+    AGGREGATED
+}
@@ -0,0 +1,146 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.BatchJobStatus;
+import com.example.optimization.solverdemo.entity.BatchJobView;
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * 一个异步分批任务的状态。所有状态变更都在对象锁内进行，
+ * 保证订阅者不会错过任务结束或新的更好解。
+ */
+final class BatchJob {
+    private final String id;
+    private final int pieceCount;
+    private final Instant submittedAt = Instant.now();
+    // 任务级上下文: 取消它即取消所有温度组
+    private final SolveContext context;
+    // 各温度组目前最好的可行解，按首次报告的顺序
+    private final Map<String, GroupSolveResult> incumbents = new LinkedHashMap<>();
+    private final List<SseEmitter> emitters = new ArrayList<>();
+    // 最后一个已安排的事件推送; 新的推送接在其后执行，保证订阅者按顺序收到事件
+    private CompletableFuture<Void> events = CompletableFuture.completedFuture(null);
+
+    private BatchJobStatus status = BatchJobStatus.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private BatchPlanResult result;
+    private String error;
+
+    BatchJob(String id, int pieceCount, BiConsumer<BatchJob, GroupSolveResult> incumbentHandler) {
+        this.id = id;
+        this.pieceCount = pieceCount;
+        this.context = SolveContext.builder()
+                .incumbentListener(incumbent -> incumbentHandler.accept(this, incumbent))
+                .build();
+    }
+
+    String getId() {
+        return id;
+    }
+
+    SolveContext getContext() {
+        return context;
+    }
+
+    synchronized BatchJobStatus getStatus() {
+        return status;
+    }
+
+    synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    // 排队中被取消的任务不再启动
+    synchronized boolean start() {
+        if (status != BatchJobStatus.QUEUED) {
+            return false;
+        }
+        status = BatchJobStatus.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    // 记录比当前更少Batch的解，返回是否有改进
+    synchronized boolean offerIncumbent(GroupSolveResult incumbent) {
+        if (status.isFinished()) {
+            return false;
+        }
+        GroupSolveResult current = incumbents.get(incumbent.getTemperature());
+        if (current != null && current.getBatches().size() <= incumbent.getBatches().size()) {
+            return false;
+        }
+        incumbents.put(incumbent.getTemperature(), incumbent);
+        return true;
+    }
+
+    synchronized void complete(BatchPlanResult result) {
+        this.result = result;
+        finish(context.isCancelled() ? BatchJobStatus.CANCELLED : BatchJobStatus.COMPLETED);
+    }
+
+    synchronized void fail(Throwable e) {
+        this.error = e.toString();
+        finish(BatchJobStatus.FAILED);
+    }
+
+    // 排队中直接结束，运行中通知求解器尽快返回当前最好解
+    synchronized void cancel() {
+        if (status == BatchJobStatus.QUEUED) {
+            finish(BatchJobStatus.CANCELLED);
+        }
+        context.cancel();
+    }
+
+    private void finish(BatchJobStatus finalStatus) {
+        status = finalStatus;
+        finishedAt = Instant.now();
+    }
+
+    synchronized List<SseEmitter> getEmitters() {
+        return new ArrayList<>(emitters);
+    }
+
+    synchronized void addEmitter(SseEmitter emitter) {
+        emitters.add(emitter);
+    }
+
+    synchronized void removeEmitter(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    // 在executor中推送事件，排在此前安排的推送之后; 调用方持有锁时安排的顺序即推送顺序
+    synchronized void dispatch(Runnable send, Executor executor) {
+        events = events.thenRunAsync(send, executor).exceptionally(e -> {
+            System.err.println("Batch job " + id + " event failed: " + e);
+            return null;
+        });
+    }
+
+    synchronized List<GroupSolveResult> getIncumbents() {
+        return new ArrayList<>(incumbents.values());
+    }
+
+    synchronized BatchJobView view() {
+        return BatchJobView.builder()
+                .jobId(id)
+                .status(status)
+                .pieceCount(pieceCount)
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .groups(result != null ? result.getGroups() : new ArrayList<>(incumbents.values()))
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.BatchJobView;
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步分批任务: 提交后立即返回任务id，在有界线程池中求解，
+ * 可以查询状态、取消，或通过SSE订阅各温度组更好的可行解。
+ * <p>
+ * 求解器回调只在任务锁内记录更好的解并安排推送，SSE写入在单独的线程池中执行，
+ * 慢客户端不会阻塞求解器或其他读取任务状态的请求。结束超过保留期的任务定时清理。
+ */
+@Service
+public class BatchJobService {
+    // SSE连接超时(毫秒)
+    private static final long SSE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final SolverProperties solverProperties;
+    private final Executor batchJobExecutor;
+    private final Executor jobEventExecutor;
+    private final BatchOptimizerService batchOptimizerService;
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BatchJobService(SolverProperties solverProperties,
+                           @Qualifier("batchJobExecutor") Executor batchJobExecutor,
+                           @Qualifier("jobEventExecutor") Executor jobEventExecutor,
+                           BatchOptimizerService batchOptimizerService) {
+        this.solverProperties = solverProperties;
+        this.batchJobExecutor = batchJobExecutor;
+        this.jobEventExecutor = jobEventExecutor;
+        this.batchOptimizerService = batchOptimizerService;
+    }
+
+    /**
+     * 提交任务; 线程池队列已满时抛出TaskRejectedException，求解器或组合成员名称未知时抛出IllegalArgumentException
+     */
+    public BatchJobView submit(List<PieceStep> pieceSteps, BatchSolveOptions options) {
+        batchOptimizerService.validate(options);
+        String id = UUID.randomUUID().toString();
+        BatchJob job = new BatchJob(id, pieceSteps.size(), this::onIncumbent);
+
+        jobs.put(id, job);
+        try {
+            batchJobExecutor.execute(() -> run(job, pieceSteps, options));
+        } catch (RuntimeException e) {
+            jobs.remove(id);
+            throw e;
+        }
+        return job.view();
+    }
+
+    public Optional<BatchJobView> get(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BatchJob::view);
+    }
+
+    public Optional<BatchJobView> cancel(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        synchronized (job) {
+            job.cancel();
+            if (job.getStatus().isFinished()) {
+                closeEmitters(job);
+            }
+        }
+        return Optional.of(job.view());
+    }
+
+    /**
+     * 订阅任务事件: 先推送各温度组当前最好解("incumbent")，之后每有改进推送一次，
+     * 任务结束时推送最终状态("status")并关闭连接
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        // 连接尚未交给MVC，这里的send只写入缓冲区，可以在锁内进行
+        synchronized (job) {
+            if (job.getStatus().isFinished()) {
+                send(job, emitter, "status", job.view());
+                emitter.complete();
+                return Optional.of(emitter);
+            }
+            for (GroupSolveResult incumbent : job.getIncumbents()) {
+                send(job, emitter, "incumbent", incumbent);
+            }
+            job.addEmitter(emitter);
+        }
+        emitter.onCompletion(() -> job.removeEmitter(emitter));
+        emitter.onTimeout(() -> job.removeEmitter(emitter));
+        emitter.onError(e -> job.removeEmitter(emitter));
+        return Optional.of(emitter);
+    }
+
+    private void run(BatchJob job, List<PieceStep> pieceSteps, BatchSolveOptions options) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            BatchPlanResult result = batchOptimizerService.planBatches(pieceSteps, options, job.getContext());
+            synchronized (job) {
+                job.complete(result);
+                closeEmitters(job);
+            }
+        } catch (RuntimeException | LinkageError e) {
+            System.err.println("Batch job " + job.getId() + " failed: " + e);
+            synchronized (job) {
+                job.fail(e);
+                closeEmitters(job);
+            }
+        }
+    }
+
+    // 求解器线程回调: 只推送比该温度组已有解更好的解，推送在事件线程池中进行
+    private void onIncumbent(BatchJob job, GroupSolveResult incumbent) {
+        synchronized (job) {
+            if (job.offerIncumbent(incumbent)) {
+                List<SseEmitter> emitters = job.getEmitters();
+                job.dispatch(() -> {
+                    for (SseEmitter emitter : emitters) {
+                        send(job, emitter, "incumbent", incumbent);
+                    }
+                }, jobEventExecutor);
+            }
+        }
+    }
+
+    // 须在任务锁内调用: 取下所有订阅，在之前的推送完成后推送最终状态并关闭连接
+    private void closeEmitters(BatchJob job) {
+        BatchJobView view = job.view();
+        List<SseEmitter> emitters = job.getEmitters();
+        emitters.forEach(job::removeEmitter);
+        job.dispatch(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(job, emitter, "status", view);
+                emitter.complete();
+            }
+        }, jobEventExecutor);
+    }
+
+    // 客户端已断开时移除该订阅
+    private static void send(BatchJob job, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            job.removeEmitter(emitter);
+        }
+    }
+
+    // 定时清理结束时间超过保留期的任务，空闲时也会释放结果
+    @Scheduled(fixedDelayString = "${solver.job-eviction-interval:PT1M}")
+    void evictExpired() {
+        Instant cutoff = Instant.now().minus(solverProperties.getJobRetention());
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
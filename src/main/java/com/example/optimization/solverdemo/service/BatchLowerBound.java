@@ -0,0 +1,71 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.List;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 温度组Batch数量的组合下界，不依赖求解器。
+ * <p>
+ * 相邻厚度差超过MAX_THICKNESS_DIFF处的两侧不能同在一个Batch，下界按这些部分分别计算后求和。
+ * 每个部分取以下下界的最大值:
+ * <ul>
+ *     <li>数量: ceil(n / MAX_PIECES_PER_BATCH)</li>
+ *     <li>高度: 每个PieceStep连同一块对流板占用 width + CONVECTION_PLATE_HEIGHT，
+ *     Batch容量为 MAX_HEIGHT + CONVECTION_PLATE_HEIGHT(最后一块对流板不计)，按装箱的连续松弛取上整</li>
+ *     <li>重量: 同高度，使用 weight + CONVECTION_PLATE_WEIGHT 和 MAX_WEIGHT + CONVECTION_PLATE_WEIGHT</li>
+ *     <li>厚件: 每个Batch至少两个厚度>=MIN_THICKNESS_FIRST_TWO，薄件每个Batch最多 MAX_PIECES_PER_BATCH - 2 个</li>
+ * </ul>
+ * 方案的Batch数量达到下界即为已证明最优，各引擎据此提前结束搜索并计算gap。
+ */
+public final class BatchLowerBound {
+    private static final double HEIGHT_CAPACITY = MAX_HEIGHT + CONVECTION_PLATE_HEIGHT;
+    private static final double WEIGHT_CAPACITY = MAX_WEIGHT + CONVECTION_PLATE_WEIGHT;
+    private static final double EPS = 1e-9;
+
+    private BatchLowerBound() {
+    }
+
+    public static int of(List<PieceStep> pieceSteps) {
+        return of(PieceColumns.of(pieceSteps).sortedByThickness());
+    }
+
+    // sorted须按厚度升序排列
+    public static int of(PieceColumns sorted) {
+        int bound = 0;
+        int start = 0;
+        for (int i = 1; i <= sorted.size(); i++) {
+            if (i == sorted.size() || !isCompatible(sorted.thickness(i - 1), sorted.thickness(i))) {
+                bound += componentBound(sorted, start, i);
+                start = i;
+            }
+        }
+        return bound;
+    }
+
+    // 厚度连续的一个部分[from, to)的下界
+    private static int componentBound(PieceColumns sorted, int from, int to) {
+        int n = to - from;
+        double height = 0;
+        double weight = 0;
+        int thin = 0;
+        for (int i = from; i < to; i++) {
+            height += sorted.width(i) + CONVECTION_PLATE_HEIGHT;
+            weight += sorted.weight(i) + CONVECTION_PLATE_WEIGHT;
+            if (!isThick(sorted.thickness(i))) {
+                thin++;
+            }
+        }
+        int byCount = ceilDiv(n, MAX_PIECES_PER_BATCH);
+        int byHeight = (int) Math.ceil(height / HEIGHT_CAPACITY - EPS);
+        int byWeight = (int) Math.ceil(weight / WEIGHT_CAPACITY - EPS);
+        int byThin = ceilDiv(thin, MAX_PIECES_PER_BATCH - 2);
+        return Math.max(Math.max(byCount, byThin), Math.max(byHeight, byWeight));
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -1,417 +1,392 @@
 package com.example.optimization.solverdemo.service;
 
+import com.example.optimization.solverdemo.config.SolverProperties;
 import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
 import com.example.optimization.solverdemo.entity.PieceStep;
-import ilog.concert.IloException;
-import ilog.concert.IloIntVar;
-import ilog.concert.IloLinearNumExpr;
-import ilog.concert.IloNumExpr;
-import ilog.cplex.IloCplex;
+import com.example.optimization.solverdemo.entity.SolutionCacheStats;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
 
 @Service
 public class BatchOptimizerService {
-    // 配置参数(可调整)
-    private static final int MAX_HEIGHT = 5500;
-    private static final int MAX_WEIGHT = 120;
-    private static final int CONVECTION_PLATE_HEIGHT = 70;
-    private static final int CONVECTION_PLATE_WEIGHT = 1;
-    private static final double MIN_THICKNESS_FIRST_TWO = 0.7;
-    private static final double MAX_THICKNESS_DIFF = 0.3;
-    private static final int MIN_PIECES_PER_BATCH = 4;
-    private static final int MAX_PIECES_PER_BATCH = 5;
+    private final SolverProperties solverProperties;
+    private final Executor batchSolverExecutor;
+    private final Executor portfolioExecutor;
+    private final Executor decompositionExecutor;
+    private final ExactBatchEngine exactBatchEngine;
+    private final HeuristicBatchSolver heuristicBatchSolver;
+    private final LocalSearchBatchSolver localSearchBatchSolver;
+    private final SolutionCache solutionCache;
+    private final SolverMetrics solverMetrics;
+    // 按名称注册的求解器
+    private final Map<String, BatchSolver> solvers = new LinkedHashMap<>();
+
+    @Autowired
+    public BatchOptimizerService(SolverProperties solverProperties,
+                                 @Qualifier("batchSolverExecutor") Executor batchSolverExecutor,
+                                 @Qualifier("portfolioExecutor") Executor portfolioExecutor,
+                                 @Qualifier("decompositionExecutor") Executor decompositionExecutor,
+                                 List<BatchSolver> batchSolvers,
+                                 ExactBatchEngine exactBatchEngine,
+                                 HeuristicBatchSolver heuristicBatchSolver,
+                                 LocalSearchBatchSolver localSearchBatchSolver,
+                                 SolutionCache solutionCache,
+                                 SolverMetrics solverMetrics) {
+        this.solverProperties = solverProperties;
+        this.batchSolverExecutor = batchSolverExecutor;
+        this.portfolioExecutor = portfolioExecutor;
+        this.decompositionExecutor = decompositionExecutor;
+        this.exactBatchEngine = exactBatchEngine;
+        this.heuristicBatchSolver = heuristicBatchSolver;
+        this.localSearchBatchSolver = localSearchBatchSolver;
+        this.solutionCache = solutionCache;
+        this.solverMetrics = solverMetrics;
+        for (BatchSolver solver : batchSolvers) {
+            if (solvers.putIfAbsent(solver.getName(), solver) != null) {
+                throw new IllegalStateException("Duplicate solver name: " + solver.getName());
+            }
+        }
+    }
 
-    public List<Batch> generateOptimalBatches(List<PieceStep> allPieceSteps) {
-        // 按温度分组
-        Map<String, List<PieceStep>> pieceStepsByTemp = allPieceSteps.stream()
-                .collect(Collectors.groupingBy(PieceStep::getTemperature));
+    // 已注册的求解器名称，另外可以使用组合模式"portfolio"
+    public Set<String> getSolverNames() {
+        return Collections.unmodifiableSet(solvers.keySet());
+    }
 
-        List<Batch> allBatches = new ArrayList<>();
+    public List<Batch> generateOptimalBatches(List<PieceStep> allPieceSteps) {
+        return generateOptimalBatches(allPieceSteps, BatchFormulation.POSITIONAL);
+    }
 
-        // 对每个温度组分别优化
-        for (Map.Entry<String, List<PieceStep>> entry : pieceStepsByTemp.entrySet()) {
-            String temperature = entry.getKey();
-            List<PieceStep> pieceSteps = entry.getValue();
+    public List<Batch> generateOptimalBatches(List<PieceStep> allPieceSteps, BatchFormulation formulation) {
+        return generateOptimalBatches(allPieceSteps, BatchSolveOptions.builder().formulation(formulation).build());
+    }
 
-            // 按照厚度对PieceStep进行排序（用于后续处理）
-            pieceSteps.sort(Comparator.comparing(PieceStep::getThickness));
+    /**
+     * 只返回所有温度组的Batch; 无法分批(INFEASIBLE)或未找到解的温度组不贡献Batch。
+     * 需要每组的状态和预处理诊断报告时使用{@link #planBatches(List, BatchSolveOptions)}
+     */
+    public List<Batch> generateOptimalBatches(List<PieceStep> allPieceSteps, BatchSolveOptions options) {
+        return planBatches(allPieceSteps, options).getBatches();
+    }
 
-            // 用CPLEX求解该温度组的最优分配
-            List<Batch> batches = optimizeBatchesForTemperatureGroup(pieceSteps, temperature);
-            allBatches.addAll(batches);
-        }
+    /**
+     * 求解并返回每个温度组的状态、下界和gap。到达请求的时间或gap上限时返回当前最好解，
+     * 启发式解(或调用方给出的初始解)作为MIP start传给求解器。
+     * 相同实例已证明最优或无解时直接返回缓存结果，缓存中只有可行解时用作初始解。
+     */
+    public BatchPlanResult planBatches(List<PieceStep> allPieceSteps, BatchSolveOptions options) {
+        return planBatches(allPieceSteps, options, SolveContext.builder().build());
+    }
 
-        return allBatches;
+    /**
+     * 在parent的取消状态、截止时间和解回调下求解: parent.cancel()使所有温度组尽快返回当前最好解，
+     * 各温度组求解过程中找到的可行解(包括完整的初始解)都会报告给parent的incumbentListener。
+     */
+    public BatchPlanResult planBatches(List<PieceStep> allPieceSteps, BatchSolveOptions options, SolveContext parent) {
+        BatchSolver solver = requestSolver(options);
+
+        // 按温度分组，组内按厚度排序
+        Map<String, List<PieceStep>> pieceStepsByTemp = groupByTemperature(allPieceSteps);
+
+        // 并行时将求解器线程平均分给同时运行的温度组，串行时使用CPLEX默认值
+        int threads = options.isParallel() ? threadsPerGroup(pieceStepsByTemp.size()) : 0;
+        long deadline = Math.min(deadlineOf(options), parent.getDeadline());
+
+        return solverMetrics.observe("solver.request", solver.getName(), null, () -> {
+            // 温度组可能在其他线程求解，显式传递父Observation
+            Observation request = solverMetrics.currentObservation();
+            // 对每个温度组分别优化
+            return new BatchPlanResult(solveGroups(pieceStepsByTemp, options.isParallel(), (temperature, pieceSteps) ->
+                    solverMetrics.observe("solver.group", solver.getName(), request,
+                            () -> solveGroup(solver, temperature, pieceSteps, options, parent, threads, deadline),
+                            GroupSolveResult::getStatus)));
+        }, BatchPlanResult::getStatus);
     }
 
-    private List<Batch> optimizeBatchesForTemperatureGroup(List<PieceStep> pieceSteps, String temperature) {
-        // 结果集
-        List<Batch> result = new ArrayList<>();
+    /**
+     * 单独求解一个温度组，供流式接口在每组输入完整时调用: pieceSteps不要求按厚度排序，
+     * 时间上限按组计算。求解器名称未知时抛出IllegalArgumentException。
+     */
+    public GroupSolveResult planGroup(String temperature, List<PieceStep> pieceSteps, BatchSolveOptions options,
+                                      SolveContext parent) {
+        BatchSolver solver = requestSolver(options);
+        List<PieceStep> sorted = PieceColumns.of(pieceSteps).sortedByThickness().pieceSteps();
+        // 并行时最多solver.parallelism个温度组同时求解
+        int threads = options.isParallel() ? threadsPerGroup(Integer.MAX_VALUE) : 0;
+        long deadline = Math.min(deadlineOf(options), parent.getDeadline());
+        return solverMetrics.observe("solver.group", solver.getName(), null,
+                () -> solveGroup(solver, temperature, sorted, options, parent, threads, deadline),
+                GroupSolveResult::getStatus);
+    }
 
-        try {
-            // 创建CPLEX实例
-            IloCplex cplex = new IloCplex();
+    // 检查求解选项，求解器名称未知时抛出IllegalArgumentException
+    public void validate(BatchSolveOptions options) {
+        solverFor(options);
+    }
 
-            int n = pieceSteps.size(); // PieceStep数量
-            int maxBatches = (int) Math.ceil((double) n / MIN_PIECES_PER_BATCH); // 最大可能的Batch数量
+    // 先按厚度分解温度组，子问题并行求解
+    private BatchSolver requestSolver(BatchSolveOptions options) {
+        return options.isDecompose()
+                ? new DecomposingBatchSolver(solverFor(options), decompositionExecutor,
+                solverProperties.getDecompositionWindow())
+                : solverFor(options);
+    }
 
-            // 决策变量: x[i][j][k] = 1 表示pieceSteps[i]被分配到第j个Batch的第k个位置
-            IloIntVar[][][] x = new IloIntVar[n][maxBatches][MAX_PIECES_PER_BATCH];
+    // 求解单个温度组: 先预处理，无法分批时立即返回; 否则求解简化实例并加上预处理确定的Batch
+    private GroupSolveResult solveGroup(BatchSolver solver, String temperature, List<PieceStep> pieceSteps,
+                                        BatchSolveOptions options, SolveContext parent, int threads, long deadline) {
+        if (!options.isPresolve()) {
+            return solveInstance(solver, temperature, pieceSteps, options, parent, threads, deadline, null);
+        }
+        // 诊断报告只通过结果的presolve字段返回
+        BatchPresolve presolve = BatchPresolve.of(PieceColumns.of(pieceSteps));
+        if (!presolve.isFeasible() && !options.isDropUnplaceable()) {
+            GroupSolveResult infeasible = presolve.infeasible(temperature);
+            solverMetrics.recordGroup(solver.getName(), SolverMetrics.SOURCE_PRESOLVE, pieceSteps.size(), infeasible);
+            return infeasible;
+        }
+        List<PieceStep> reduced = presolve.reduced();
+        if (reduced.isEmpty()) {
+            GroupSolveResult fixed = presolve.complete(
+                    GroupSolveResult.of(temperature, new ArrayList<>(), SolveStatus.OPTIMAL, 0, 0));
+            solverMetrics.recordGroup(solver.getName(), SolverMetrics.SOURCE_PRESOLVE, pieceSteps.size(), fixed);
+            return fixed;
+        }
+        return presolve.complete(solveInstance(solver, temperature, reduced, options, parent, threads, deadline,
+                presolve));
+    }
 
-            // 初始化决策变量
-            for (int i = 0; i < n; i++) {
-                for (int j = 0; j < maxBatches; j++) {
-                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                        x[i][j][k] = cplex.boolVar("x_" + i + "_" + j + "_" + k);
-                    }
-                }
+    // 求解(简化后的)温度组: 已证明的缓存结果直接返回，否则以初始解(或更好的缓存可行解)为起点求解
+    private GroupSolveResult solveInstance(BatchSolver solver, String temperature, List<PieceStep> pieceSteps,
+                                           BatchSolveOptions options, SolveContext parent, int threads, long deadline,
+                                           BatchPresolve presolve) {
+        try (SolveContext context = parent.child()) {
+            context.setTemperature(temperature);
+            context.setThreads(threads);
+            context.setDeadline(deadline);
+            context.setMipGap(options.getMipGap());
+            context.setIncumbent(incumbentFor(pieceSteps, options));
+            context.setFormulation(options.getFormulation());
+            context.setSymmetryBreaking(options.isSymmetryBreaking());
+            context.setModelNames(options.isModelNames());
+            // 报告的可行解加上预处理确定的Batch，使监听方看到整组的方案
+            Consumer<GroupSolveResult> listener = context.getIncumbentListener();
+            if (presolve != null && listener != null && !presolve.fixed().isEmpty()) {
+                context.setIncumbentListener(partial -> listener.accept(presolve.complete(partial)));
             }
 
-            // 辅助变量: y[j] = 1 表示使用第j个Batch
-            IloIntVar[] y = new IloIntVar[maxBatches];
-            for (int j = 0; j < maxBatches; j++) {
-                y[j] = cplex.boolVar("y_" + j);
+            GroupSolveResult cached = options.isUseCache()
+                    ? solutionCache.lookup(solver.getName(), temperature, pieceSteps).orElse(null)
+                    : null;
+            if (cached != null && cached.isOptimal()) {
+                context.reportIncumbent(cached.getBatches());
+                solverMetrics.recordGroup(solver.getName(), SolverMetrics.SOURCE_CACHE, pieceSteps.size(), cached);
+                return cached;
             }
-
-            // 约束1: 每个PieceStep只能分配到一个Batch的一个位置
-            for (int i = 0; i < n; i++) {
-                IloLinearNumExpr expr = cplex.linearNumExpr();
-                for (int j = 0; j < maxBatches; j++) {
-                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                        expr.addTerm(1, x[i][j][k]);
-                    }
-                }
-                cplex.addEq(expr, 1);
+            if (cached != null && cached.getStatus() == SolveStatus.INFEASIBLE) {
+                solverMetrics.recordGroup(solver.getName(), SolverMetrics.SOURCE_CACHE, pieceSteps.size(), cached);
+                return cached;
             }
-
-            // 约束2: 每个Batch位置至多分配一个PieceStep
-            for (int j = 0; j < maxBatches; j++) {
-                for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                    IloLinearNumExpr expr = cplex.linearNumExpr();
-                    for (int i = 0; i < n; i++) {
-                        expr.addTerm(1, x[i][j][k]);
-                    }
-                    cplex.addLe(expr, 1);
-                }
+            // 缓存中的可行解比初始解更好时代替初始解
+            if (cached != null && covers(cached.getBatches(), pieceSteps)
+                    && (!covers(context.getIncumbent(), pieceSteps)
+                    || cached.getBatches().size() < context.getIncumbent().size())) {
+                context.setIncumbent(cached.getBatches());
             }
-
-            // 约束3: 每个Batch分配到的PieceStep数量为4或5
-            for (int j = 0; j < maxBatches; j++) {
-                IloLinearNumExpr expr = cplex.linearNumExpr();
-                for (int i = 0; i < n; i++) {
-                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                        expr.addTerm(1, x[i][j][k]);
-                    }
-                }
-                // 如果Batch被使用(y[j]=1)，则必须包含4-5个PieceStep
-                cplex.addLe(expr, cplex.prod(MAX_PIECES_PER_BATCH, y[j]));
-                cplex.addGe(expr, cplex.prod(MIN_PIECES_PER_BATCH, y[j]));
+            if (covers(context.getIncumbent(), pieceSteps)) {
+                context.reportIncumbent(context.getIncumbent());
             }
 
-            // 约束4: Batch高度约束
-            for (int j = 0; j < maxBatches; j++) {
-                IloLinearNumExpr pieceWidthSum = cplex.linearNumExpr();
-                IloLinearNumExpr pieceCount = cplex.linearNumExpr();
+            GroupSolveResult solved = solver.solve(pieceSteps, context);
+            // 求解器没有改进初始解时返回的就是初始解
+            boolean fallback = !solved.isOptimal() && !solved.getBatches().isEmpty()
+                    && solved.getBatches().equals(context.getIncumbent());
+            solverMetrics.recordGroup(solver.getName(),
+                    fallback ? SolverMetrics.SOURCE_FALLBACK : SolverMetrics.SOURCE_SOLVER, pieceSteps.size(), solved);
 
-                for (int i = 0; i < n; i++) {
-                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                        pieceWidthSum.addTerm(pieceSteps.get(i).getWidth(), x[i][j][k]);
-                        pieceCount.addTerm(1, x[i][j][k]);
-                    }
-                }
+            GroupSolveResult result = improve(pieceSteps, solved, options, context);
+            if (options.isUseCache()) {
+                solutionCache.store(solver.getName(), pieceSteps, result);
+            }
+            return result;
+        }
+    }
 
-                // 对流板总高度 = (pieceCount - 1) * CONVECTION_PLATE_HEIGHT
-                IloNumExpr convectionHeight = cplex.diff(pieceCount, 1);
-                convectionHeight = cplex.prod(CONVECTION_PLATE_HEIGHT, convectionHeight);
+    public SolutionCacheStats getCacheStats() {
+        return solutionCache.getStats();
+    }
+
+    // 可行但未证明最优时，用局部搜索在options.localSearchSeconds内继续改进
+    private GroupSolveResult improve(List<PieceStep> pieceSteps, GroupSolveResult result, BatchSolveOptions options,
+                                     SolveContext context) {
+        if (options.getLocalSearchSeconds() == null || result.getStatus() != SolveStatus.FEASIBLE
+                || context.isCancelled()) {
+            return result;
+        }
+        context.setDeadline(System.nanoTime() + (long) (options.getLocalSearchSeconds() * 1_000_000_000L));
+        GroupSolveResult improved = localSearchBatchSolver.improve(pieceSteps, result.getBatches(),
+                result.getLowerBound(), context);
+        if (improved.getStatus() == SolveStatus.NO_SOLUTION || improved.getBatches().size() > result.getBatches().size()) {
+            return result;
+        }
+        return improved.toBuilder().nodes(result.getNodes() + improved.getNodes()).build();
+    }
 
-                // 总高度 = pieceWidthSum + convectionHeight
-                IloNumExpr totalHeight = cplex.sum(pieceWidthSum, convectionHeight);
+    // 纯Java精确求解，不依赖CPLEX本地库
+    public List<Batch> generateBatchesExact(List<PieceStep> allPieceSteps, BatchSolveOptions options) {
+        Map<String, List<PieceStep>> pieceStepsByTemp = groupByTemperature(allPieceSteps);
+        long deadline = deadlineOf(options);
+
+        return new BatchPlanResult(solveGroups(pieceStepsByTemp, options.isParallel(), (temperature, pieceSteps) -> {
+            SolveContext context = SolveContext.builder()
+                    .temperature(temperature)
+                    .deadline(deadline)
+                    .incumbent(incumbentFor(pieceSteps, options))
+                    .build();
+            return exactBatchEngine.solve(pieceSteps, context);
+        })).getBatches();
+    }
 
-                // 总高度不超过MAX_HEIGHT
-                cplex.addLe(totalHeight, MAX_HEIGHT);
+    // 按名称选择求解器; 未指定时集合划分模型使用列生成，类型聚合模型使用下料模型，其余模型使用CPLEX
+    private BatchSolver solverFor(BatchSolveOptions options) {
+        String name = options.getSolver();
+        if (name == null) {
+            name = switch (options.getFormulation()) {
+                case SET_PARTITIONING -> ColumnGenerationBatchEngine.NAME;
+                case AGGREGATED -> CuttingStockBatchSolver.NAME;
+                default -> CplexBatchSolver.NAME;
+            };
+        }
+        if (PortfolioBatchSolver.NAME.equals(name)) {
+            List<String> names = options.getPortfolio() != null ? options.getPortfolio() : solverProperties.getPortfolio();
+            List<BatchSolver> members = new ArrayList<>();
+            for (String member : names) {
+                members.add(registeredSolver(member));
             }
+            return new PortfolioBatchSolver(members, portfolioExecutor);
+        }
+        return registeredSolver(name);
+    }
 
-            // 约束5: Batch重量约束
-            for (int j = 0; j < maxBatches; j++) {
-                IloLinearNumExpr pieceWeightSum = cplex.linearNumExpr();
-                IloLinearNumExpr pieceCount = cplex.linearNumExpr();
+    private BatchSolver registeredSolver(String name) {
+        BatchSolver solver = solvers.get(name);
+        if (solver == null) {
+            throw new IllegalArgumentException("Unknown solver: " + name + ", available: " + solvers.keySet());
+        }
+        return solver;
+    }
 
-                for (int i = 0; i < n; i++) {
-                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                        pieceWeightSum.addTerm(pieceSteps.get(i).getWeight(), x[i][j][k]);
-                        pieceCount.addTerm(1, x[i][j][k]);
-                    }
-                }
+    // 按温度分组并按厚度升序排列，保留温度在输入中首次出现的顺序，使串行和并行的输出顺序一致;
+    // 各组是列式存储的只读视图(见PieceColumns)
+    private Map<String, List<PieceStep>> groupByTemperature(List<PieceStep> allPieceSteps) {
+        Map<String, List<PieceStep>> pieceStepsByTemp = new LinkedHashMap<>();
+        PieceColumns.of(allPieceSteps).byTemperature().forEach((temperature, columns) ->
+                pieceStepsByTemp.put(temperature, columns.sortedByThickness().pieceSteps()));
+        return pieceStepsByTemp;
+    }
 
-                // 对流板总重量 = (pieceCount - 1) * CONVECTION_PLATE_WEIGHT
-                IloNumExpr convectionWeight = cplex.diff(pieceCount, 1);
-                convectionWeight = cplex.prod(CONVECTION_PLATE_WEIGHT, convectionWeight);
+    private int threadsPerGroup(int groupCount) {
+        int concurrentGroups = Math.max(1, Math.min(solverProperties.getParallelism(), groupCount));
+        return Math.max(1, solverProperties.getSolverThreads() / concurrentGroups);
+    }
 
-                // 总重量 = pieceWeightSum + convectionWeight
-                IloNumExpr totalWeight = cplex.sum(pieceWeightSum, convectionWeight);
+    private static long deadlineOf(BatchSolveOptions options) {
+        return options.getTimeLimitSeconds() == null
+                ? Long.MAX_VALUE
+                : System.nanoTime() + (long) (options.getTimeLimitSeconds() * 1_000_000_000L);
+    }
 
-                // 总重量不超过MAX_WEIGHT
-                cplex.addLe(totalWeight, MAX_WEIGHT);
-            }
+    // 该温度组的初始解: 调用方给出的incumbent中属于本组的合法Batch，否则为启发式解
+    private List<Batch> incumbentFor(List<PieceStep> pieceSteps, BatchSolveOptions options) {
+        List<Batch> candidates;
+        if (options.getIncumbent() != null) {
+            candidates = options.getIncumbent();
+        } else if (options.isWarmStart()) {
+            candidates = heuristicBatchSolver.batchesFor(pieceSteps);
+        } else {
+            return List.of();
+        }
 
-            // 约束6: 每个Batch前两个PieceStep的thickness >= 0.7
-            for (int j = 0; j < maxBatches; j++) {
-                for (int k = 0; k < 2; k++) { // 只考虑前两个位置
-                    for (int i = 0; i < n; i++) {
-                        if (pieceSteps.get(i).getThickness() < MIN_THICKNESS_FIRST_TWO) {
-                            // 如果thickness < 0.7，则不能放在前两个位置
-                            cplex.addEq(x[i][j][k], 0);
-                        }
-                    }
+        Map<String, PieceStep> byId = new HashMap<>();
+        for (PieceStep piece : pieceSteps) {
+            byId.put(piece.getPieceStepId(), piece);
+        }
+        // 只保留完全属于本组、互不重叠且满足约束的Batch，并映射到本组的PieceStep对象
+        List<Batch> incumbent = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        for (Batch batch : candidates) {
+            List<PieceStep> batchPieces = new ArrayList<>();
+            for (PieceStep piece : batch.getPieceSteps()) {
+                PieceStep own = byId.get(piece.getPieceStepId());
+                if (own == null || used.contains(own.getPieceStepId())) {
+                    batchPieces = null;
+                    break;
                 }
+                batchPieces.add(own);
             }
-
-            // 约束7: 相邻PieceStep的thickness差值 <= 0.3
-            for (int j = 0; j < maxBatches; j++) {
-                for (int k = 0; k < MAX_PIECES_PER_BATCH - 1; k++) { // 相邻位置
-                    for (int i1 = 0; i1 < n; i1++) {
-                        for (int i2 = 0; i2 < n; i2++) {
-                            double thicknessDiff = Math.abs(pieceSteps.get(i1).getThickness() - pieceSteps.get(i2).getThickness());
-                            if (thicknessDiff > MAX_THICKNESS_DIFF) {
-                                // 如果thickness差值 > 0.3，则不能放在相邻位置
-                                IloNumExpr sum = cplex.sum(x[i1][j][k], x[i2][j][k + 1]);
-                                cplex.addLe(sum, 1);
-                            }
-                        }
-                    }
-                }
+            if (batchPieces == null || !isValidBatch(batchPieces)) {
+                continue;
             }
+            batchPieces.forEach(piece -> used.add(piece.getPieceStepId()));
+            incumbent.add(toBatch(batch.getBatchId(), batchPieces));
+        }
+        return incumbent;
+    }
 
-            // 目标函数: 最小化使用的Batch数量
-            IloLinearNumExpr objective = cplex.linearNumExpr();
-            for (int j = 0; j < maxBatches; j++) {
-                objective.addTerm(1, y[j]);
-            }
-            cplex.addMinimize(objective);
-
-            // 求解模型
-            if (cplex.solve()) {
-                System.out.println("Solution status: " + cplex.getStatus());
-                System.out.println("Objective value: " + cplex.getObjValue());
-
-                // 构造结果
-                for (int j = 0; j < maxBatches; j++) {
-                    if (cplex.getValue(y[j]) > 0.5) { // 批次j被使用
-                        List<PieceStep> batchPieces = new ArrayList<>();
-                        double batchHeight = 0;
-                        double batchWeight = 0;
-                        int pieceCount = 0;
-
-                        // 找出该批次的所有PieceStep并按位置排序
-                        Map<Integer, PieceStep> positionMap = new HashMap<>();
-                        for (int i = 0; i < n; i++) {
-                            for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                                if (cplex.getValue(x[i][j][k]) > 0.5) {
-                                    positionMap.put(k, pieceSteps.get(i));
-                                    pieceCount++;
-                                    batchWeight += pieceSteps.get(i).getWeight();
-                                    batchHeight += pieceSteps.get(i).getWidth();
-                                }
-                            }
-                        }
-
-                        // 按位置添加到批次
-                        for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
-                            if (positionMap.containsKey(k)) {
-                                batchPieces.add(positionMap.get(k));
-                            }
-                        }
-
-                        // 计算对流板的贡献
-                        batchHeight += (pieceCount - 1) * CONVECTION_PLATE_HEIGHT;
-                        batchWeight += (pieceCount - 1) * CONVECTION_PLATE_WEIGHT;
-
-                        // 创建Batch
-                        Batch batch = Batch.builder()
-                                .batchId("Batch_" + j)
-                                .pieceSteps(batchPieces)
-                                .height(batchHeight)
-                                .weight(batchWeight)
-                                .build();
-
-                        result.add(batch);
-                    }
-                }
-            } else {
-                System.out.println("No solution found.");
-            }
+    private static boolean covers(List<Batch> batches, List<PieceStep> pieceSteps) {
+        return !batches.isEmpty()
+                && batches.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() == pieceSteps.size();
+    }
 
-            cplex.end();
+    // 逐组求解并按分组顺序返回结果; 并行时各组提交到有界线程池
+    private <T> List<T> solveGroups(Map<String, List<PieceStep>> pieceStepsByTemp, boolean parallel,
+                                    BiFunction<String, List<PieceStep>, T> groupSolver) {
+        List<T> results = new ArrayList<>();
 
-        } catch (IloException e) {
-            System.err.println("CPLEX Error: " + e);
+        if (!parallel) {
+            for (Map.Entry<String, List<PieceStep>> entry : pieceStepsByTemp.entrySet()) {
+                results.add(groupSolver.apply(entry.getKey(), entry.getValue()));
+            }
+            return results;
         }
 
-        return result;
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Map.Entry<String, List<PieceStep>> entry : pieceStepsByTemp.entrySet()) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> groupSolver.apply(entry.getKey(), entry.getValue()), batchSolverExecutor));
+        }
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
     }
 
     // 启发式算法方法作为CPLEX的替代或补充
     public List<Batch> generateBatchesHeuristic(List<PieceStep> allPieceSteps) {
-        // 按温度分组
-        Map<String, List<PieceStep>> pieceStepsByTemp = allPieceSteps.stream()
-                .collect(Collectors.groupingBy(PieceStep::getTemperature));
+        return generateBatchesHeuristic(allPieceSteps, BatchSolveOptions.builder().build());
+    }
 
-        List<Batch> allBatches = new ArrayList<>();
+    public List<Batch> generateBatchesHeuristic(List<PieceStep> allPieceSteps, BatchSolveOptions options) {
+        // 按温度分组
+        Map<String, List<PieceStep>> pieceStepsByTemp = groupByTemperature(allPieceSteps);
 
         // 对每个温度组分别优化
-        for (Map.Entry<String, List<PieceStep>> entry : pieceStepsByTemp.entrySet()) {
-            String temperature = entry.getKey();
-            List<PieceStep> pieceSteps = entry.getValue();
-
-            // 将PieceStep按厚度排序
-            List<PieceStep> sortedPieces = new ArrayList<>(pieceSteps);
-            sortedPieces.sort(Comparator.comparing(PieceStep::getThickness));
-
-            List<Batch> batches = new ArrayList<>();
-            List<PieceStep> currentBatch = new ArrayList<>();
-            double currentHeight = 0;
-            double currentWeight = 0;
-
-            // 厚度>=0.7的PieceStep（用于前两个位置）
-            List<PieceStep> thickPieces = sortedPieces.stream()
-                    .filter(p -> p.getThickness() >= MIN_THICKNESS_FIRST_TWO)
-                    .collect(Collectors.toList());
-
-            // 剩余的PieceStep
-            List<PieceStep> remainingPieces = sortedPieces.stream()
-                    .filter(p -> p.getThickness() < MIN_THICKNESS_FIRST_TWO)
-                    .collect(Collectors.toList());
-
-            // 先处理厚度足够的PieceStep
-            int batchCounter = 1;
-            while (!thickPieces.isEmpty() || !remainingPieces.isEmpty()) {
-                currentBatch = new ArrayList<>();
-                currentHeight = 0;
-                currentWeight = 0;
-
-                // 先添加两个厚度>=0.7的PieceStep
-                for (int i = 0; i < 2; i++) {
-                    if (thickPieces.isEmpty()) break;
-
-                    PieceStep piece = thickPieces.remove(0);
-                    currentBatch.add(piece);
-                    currentHeight += piece.getWidth();
-                    currentWeight += piece.getWeight();
-
-                    // 第一个添加后需要考虑对流板
-                    if (i == 0) {
-                        currentHeight += CONVECTION_PLATE_HEIGHT;
-                        currentWeight += CONVECTION_PLATE_WEIGHT;
-                    }
-                }
-
-                // 如果厚PieceStep不足2个，则无法形成有效的Batch
-                if (currentBatch.size() < 2 && thickPieces.isEmpty()) {
-                    // 将剩余的厚度不足的PieceStep添加到最后一个Batch中，如果可能的话
-                    if (!batches.isEmpty() && !remainingPieces.isEmpty()) {
-                        Batch lastBatch = batches.get(batches.size() - 1);
-
-                        // 尝试添加剩余的PieceStep到最后一个Batch
-                        while (!remainingPieces.isEmpty() &&
-                                lastBatch.getPieceSteps().size() < MAX_PIECES_PER_BATCH) {
-                            PieceStep piece = remainingPieces.remove(0);
-
-                            // 检查厚度差值约束
-                            PieceStep lastPiece = lastBatch.getPieceSteps().get(lastBatch.getPieceSteps().size() - 1);
-                            if (Math.abs(lastPiece.getThickness() - piece.getThickness()) <= MAX_THICKNESS_DIFF) {
-                                lastBatch.getPieceSteps().add(piece);
-                                lastBatch.setHeight(lastBatch.getHeight() + piece.getWidth() + CONVECTION_PLATE_HEIGHT);
-                                lastBatch.setWeight(lastBatch.getWeight() + piece.getWeight() + CONVECTION_PLATE_WEIGHT);
-                            }
-                        }
-                    }
-
-                    // 如果还有剩余的PieceStep，则无法满足约束
-                    if (!remainingPieces.isEmpty() || !thickPieces.isEmpty()) {
-                        System.out.println("Warning: Some PieceSteps cannot be allocated due to thickness constraints.");
-                    }
-
-                    break;
-                }
-
-                // 然后添加其他PieceStep，考虑厚度差值约束
-                List<PieceStep> availablePieces = new ArrayList<>(remainingPieces);
-                availablePieces.addAll(thickPieces);
-
-                // 添加额外的PieceStep，直到达到4-5个
-                while (currentBatch.size() < MAX_PIECES_PER_BATCH && !availablePieces.isEmpty()) {
-                    PieceStep lastPiece = currentBatch.get(currentBatch.size() - 1);
-
-                    // 找出满足厚度差值约束的PieceStep
-                    List<PieceStep> validPieces = availablePieces.stream()
-                            .filter(p -> Math.abs(p.getThickness() - lastPiece.getThickness()) <= MAX_THICKNESS_DIFF)
-                            .collect(Collectors.toList());
-
-                    if (validPieces.isEmpty()) break;
-
-                    // 选择厚度最接近的PieceStep
-                    PieceStep nextPiece = validPieces.stream()
-                            .min(Comparator.comparingDouble(p ->
-                                    Math.abs(p.getThickness() - lastPiece.getThickness())))
-                            .orElse(null);
-
-                    if (nextPiece == null) break;
-
-                    // 检查添加后是否超过高度和重量限制
-                    double newHeight = currentHeight + nextPiece.getWidth() + CONVECTION_PLATE_HEIGHT;
-                    double newWeight = currentWeight + nextPiece.getWeight() + CONVECTION_PLATE_WEIGHT;
-
-                    if (newHeight <= MAX_HEIGHT && newWeight <= MAX_WEIGHT) {
-                        currentBatch.add(nextPiece);
-                        currentHeight = newHeight;
-                        currentWeight = newWeight;
-
-                        // 从可用列表中移除已使用的PieceStep
-                        availablePieces.remove(nextPiece);
-                        if (thickPieces.contains(nextPiece)) {
-                            thickPieces.remove(nextPiece);
-                        } else {
-                            remainingPieces.remove(nextPiece);
-                        }
-                    } else {
-                        break;
-                    }
-                }
-
-                // 检查批次是否满足条件(4-5个PieceStep)
-                if (currentBatch.size() >= MIN_PIECES_PER_BATCH && currentBatch.size() <= MAX_PIECES_PER_BATCH) {
-                    Batch batch = Batch.builder()
-                            .batchId("Batch_" + batchCounter++)
-                            .pieceSteps(currentBatch)
-                            .height(currentHeight)
-                            .weight(currentWeight)
-                            .build();
-
-                    batches.add(batch);
-                } else {
-                    // 如果当前批次不满足条件，将PieceStep放回可用列表
-                    for (PieceStep piece : currentBatch) {
-                        if (piece.getThickness() >= MIN_THICKNESS_FIRST_TWO) {
-                            thickPieces.add(piece);
-                        } else {
-                            remainingPieces.add(piece);
-                        }
-                    }
-
-                    // 如果无法形成新的批次，跳出循环
-                    if (batches.isEmpty()) {
-                        System.out.println("Warning: Cannot form valid batches with given constraints.");
-                        break;
-                    }
-                }
-            }
-
-            allBatches.addAll(batches);
-        }
-
+        List<Batch> allBatches = new ArrayList<>();
+        solveGroups(pieceStepsByTemp, options.isParallel(), (temperature, pieceSteps) -> heuristicBatchSolver.batchesFor(pieceSteps))
+                .forEach(allBatches::addAll);
         return allBatches;
     }
 }
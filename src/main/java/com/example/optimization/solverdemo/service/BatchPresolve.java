@@ -0,0 +1,286 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PresolveIssue;
+import com.example.optimization.solverdemo.entity.PresolveReason;
+import com.example.optimization.solverdemo.entity.PresolveReport;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 温度组求解前的预处理，只依赖批次规则，耗时与PieceStep数量近似线性。
+ * <p>
+ * 同一Batch中的PieceStep按厚度排序后相邻差值都不超过MAX_THICKNESS_DIFF，因此都在同一个厚度部分内:
+ * <ul>
+ *     <li>与部分内最窄(最轻)的另外3个PieceStep组成4件的Batch仍超高(超重)的PieceStep无法分批，
+ *     去掉后部分可能断开，重复检查直到不再变化</li>
+ *     <li>每个部分的Batch数量不超过 floor(n/4) 和 floor(厚件数/2)，小于组合下界时整个部分无法分批</li>
+ *     <li>只有4~5个PieceStep的部分只能组成一个Batch，满足约束时直接确定，不交给求解器</li>
+ * </ul>
+ * 有无法分批的PieceStep时温度组无解，报告列出这些PieceStep及原因; 其余PieceStep组成简化实例交给求解器，
+ * 求解结果经{@link #complete(GroupSolveResult)}加上已确定的Batch。
+ */
+public final class BatchPresolve {
+    private final List<PieceStep> reduced;
+    private final List<Batch> fixed;
+    private final PresolveReport report;
+
+    private BatchPresolve(List<PieceStep> reduced, List<Batch> fixed, PresolveReport report) {
+        this.reduced = reduced;
+        this.fixed = fixed;
+        this.report = report;
+    }
+
+    // sorted须按厚度升序排列
+    public static BatchPresolve of(PieceColumns sorted) {
+        int n = sorted.size();
+        boolean[] dropped = new boolean[n];
+        List<PresolveIssue> issues = new ArrayList<>();
+
+        // 单件检查: 去掉PieceStep后厚度部分可能断开，最窄、最轻的同伴随之变化
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int[] component : components(sorted, dropped)) {
+                changed |= dropOversized(sorted, component, dropped, issues);
+            }
+        }
+
+        // 部分检查: Batch数量上界不小于下界; 只能组成一个Batch的部分直接确定
+        List<PieceStep> reduced = new ArrayList<>();
+        List<Batch> fixed = new ArrayList<>();
+        int maxBatches = 0;
+        int lowerBound = 0;
+        for (int[] component : components(sorted, dropped)) {
+            PieceColumns part = part(sorted, component);
+            int count = component.length;
+            int thick = thickCount(part);
+            int upper = Math.min(count / MIN_PIECES_PER_BATCH, thick / 2);
+            int bound = BatchLowerBound.of(part);
+            PresolveReason reason = null;
+            String message = null;
+            if (count < MIN_PIECES_PER_BATCH) {
+                reason = PresolveReason.TOO_FEW_PIECES;
+                message = count == 1
+                        ? "No thickness-compatible piece within " + MAX_THICKNESS_DIFF
+                        : "Only " + count + " thickness-compatible pieces";
+            } else if (count / MIN_PIECES_PER_BATCH < ceilDiv(count, MAX_PIECES_PER_BATCH)) {
+                reason = PresolveReason.PIECE_COUNT;
+                message = count + " pieces cannot be split into batches of "
+                        + MIN_PIECES_PER_BATCH + "-" + MAX_PIECES_PER_BATCH;
+            } else if (thick / 2 < ceilDiv(count, MAX_PIECES_PER_BATCH)) {
+                reason = PresolveReason.NOT_ENOUGH_THICK;
+                message = "Only " + thick + " pieces with thickness >= " + MIN_THICKNESS_FIRST_TWO
+                        + " for at least " + ceilDiv(count, MAX_PIECES_PER_BATCH) + " batches";
+            } else if (upper < bound) {
+                reason = PresolveReason.CAPACITY;
+                message = "Height and weight need at least " + bound + " batches, at most " + upper + " possible";
+            } else if (count <= MAX_PIECES_PER_BATCH) {
+                // 只能组成一个Batch: 按厚度降序摆放
+                int[] members = new int[count];
+                for (int k = 0; k < count; k++) {
+                    members[k] = component[count - 1 - k];
+                }
+                if (sorted.isValidBatch(members)) {
+                    fixed.add(sorted.toBatch("Batch_" + fixed.size(), members));
+                    continue;
+                }
+                // 数量、厚件与下界的检查已排除其余情况，这里只可能是高度或重量的舍入误差
+                reason = PresolveReason.CAPACITY;
+                message = "The only possible batch exceeds height or weight";
+            }
+            if (reason != null) {
+                issues.add(issue(sorted, component, reason, message));
+                continue;
+            }
+            for (int i : component) {
+                reduced.add(sorted.piece(i));
+            }
+            maxBatches += upper;
+            lowerBound += bound;
+        }
+
+        PresolveReport report = PresolveReport.builder()
+                .pieceCount(n)
+                .issues(issues)
+                .fixedBatches(fixed.size())
+                .remainingPieces(reduced.size())
+                .maxBatches(maxBatches)
+                .lowerBound(lowerBound)
+                .build();
+        return new BatchPresolve(reduced, fixed, report);
+    }
+
+    /**
+     * Batch数量上界: 每个厚度部分不超过 floor(n/4) 和 floor(厚件数/2)，任一可行方案(包括初始解)都满足。
+     * 模型据此确定Batch变量的数量，比 ceil(n/4) 更紧
+     */
+    public static int maxBatches(PieceColumns pieces) {
+        PieceColumns sorted = pieces.sortedByThickness();
+        int maxBatches = 0;
+        for (int[] component : components(sorted, new boolean[sorted.size()])) {
+            maxBatches += Math.min(component.length / MIN_PIECES_PER_BATCH, thickCount(part(sorted, component)) / 2);
+        }
+        return maxBatches;
+    }
+
+    public boolean isFeasible() {
+        return report.isFeasible();
+    }
+
+    // 交给求解器的PieceStep，按厚度升序
+    public List<PieceStep> reduced() {
+        return reduced;
+    }
+
+    public List<Batch> fixed() {
+        return fixed;
+    }
+
+    public PresolveReport report() {
+        return report;
+    }
+
+    // 无法分批时的结果: 已证明无解，附带报告
+    public GroupSolveResult infeasible(String temperature) {
+        return GroupSolveResult.of(temperature, new ArrayList<>(), SolveStatus.INFEASIBLE, null, 0)
+                .toBuilder().presolve(report).build();
+    }
+
+    /**
+     * 简化实例的结果加上已确定的Batch并重新编号，下界加上确定的Batch数量。
+     * 已确定的Batch是唯一选择，简化实例最优时整组最优
+     */
+    public GroupSolveResult complete(GroupSolveResult result) {
+        if (result.getStatus() == SolveStatus.INFEASIBLE
+                || (result.getStatus() == SolveStatus.NO_SOLUTION && !reduced.isEmpty())) {
+            return result.toBuilder().presolve(report).build();
+        }
+        List<Batch> batches = new ArrayList<>();
+        for (Batch batch : fixed) {
+            batches.add(toBatch("Batch_" + batches.size(), batch.getPieceSteps()));
+        }
+        for (Batch batch : result.getBatches()) {
+            batches.add(toBatch("Batch_" + batches.size(), batch.getPieceSteps()));
+        }
+        Integer lowerBound = result.getLowerBound() != null ? result.getLowerBound() + fixed.size() : null;
+        SolveStatus status = reduced.isEmpty() ? SolveStatus.OPTIMAL : result.getStatus();
+        return GroupSolveResult.of(result.getTemperature(), batches, status, lowerBound, result.getNodes())
+                .toBuilder().presolve(report).build();
+    }
+
+    // 未去掉的PieceStep按相邻厚度差超过MAX_THICKNESS_DIFF的位置切分，每个部分为升序下标
+    private static List<int[]> components(PieceColumns sorted, boolean[] dropped) {
+        List<int[]> components = new ArrayList<>();
+        int[] current = new int[sorted.size()];
+        int size = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (dropped[i]) {
+                continue;
+            }
+            if (size > 0 && !isCompatible(sorted.thickness(current[size - 1]), sorted.thickness(i))) {
+                components.add(Arrays.copyOf(current, size));
+                size = 0;
+            }
+            current[size++] = i;
+        }
+        if (size > 0) {
+            components.add(Arrays.copyOf(current, size));
+        }
+        return components;
+    }
+
+    // 部分中的PieceStep; 中间有去掉的PieceStep时不再连续，需要复制
+    private static PieceColumns part(PieceColumns sorted, int[] component) {
+        int first = component[0];
+        int last = component[component.length - 1];
+        if (last - first + 1 == component.length) {
+            return sorted.slice(first, last + 1);
+        }
+        List<PieceStep> pieces = new ArrayList<>(component.length);
+        for (int i : component) {
+            pieces.add(sorted.piece(i));
+        }
+        return PieceColumns.of(pieces);
+    }
+
+    // 去掉与部分内最窄(最轻)的另外3个PieceStep组成的Batch仍超限的PieceStep; 有去掉时返回true
+    private static boolean dropOversized(PieceColumns sorted, int[] component, boolean[] dropped,
+                                         List<PresolveIssue> issues) {
+        if (component.length < MIN_PIECES_PER_BATCH) {
+            return false;
+        }
+        double[] widths = new double[component.length];
+        double[] weights = new double[component.length];
+        for (int c = 0; c < component.length; c++) {
+            widths[c] = sorted.width(component[c]);
+            weights[c] = sorted.weight(component[c]);
+        }
+        Arrays.sort(widths);
+        Arrays.sort(weights);
+        boolean changed = false;
+        for (int i : component) {
+            double height = sorted.width(i) + othersSmallest(widths, sorted.width(i))
+                    + (MIN_PIECES_PER_BATCH - 1) * CONVECTION_PLATE_HEIGHT;
+            double weight = sorted.weight(i) + othersSmallest(weights, sorted.weight(i))
+                    + (MIN_PIECES_PER_BATCH - 1) * CONVECTION_PLATE_WEIGHT;
+            if (height > MAX_HEIGHT) {
+                issues.add(issue(sorted, new int[]{i}, PresolveReason.TOO_WIDE,
+                        "Smallest batch is " + height + " high, max " + MAX_HEIGHT));
+            } else if (weight > MAX_WEIGHT) {
+                issues.add(issue(sorted, new int[]{i}, PresolveReason.TOO_HEAVY,
+                        "Lightest batch weighs " + weight + ", max " + MAX_WEIGHT));
+            } else {
+                continue;
+            }
+            dropped[i] = true;
+            changed = true;
+        }
+        return changed;
+    }
+
+    // 升序的values中除去一个取值为own的元素后，最小的MIN_PIECES_PER_BATCH - 1个之和
+    private static double othersSmallest(double[] values, double own) {
+        double sum = 0;
+        int taken = 0;
+        boolean skipped = false;
+        for (int v = 0; v < values.length && taken < MIN_PIECES_PER_BATCH - 1; v++) {
+            if (!skipped && values[v] == own) {
+                skipped = true;
+                continue;
+            }
+            sum += values[v];
+            taken++;
+        }
+        return sum;
+    }
+
+    private static int thickCount(PieceColumns part) {
+        int thick = 0;
+        for (int i = 0; i < part.size(); i++) {
+            if (isThick(part.thickness(i))) {
+                thick++;
+            }
+        }
+        return thick;
+    }
+
+    private static PresolveIssue issue(PieceColumns sorted, int[] members, PresolveReason reason, String message) {
+        List<String> ids = new ArrayList<>(members.length);
+        for (int i : members) {
+            ids.add(sorted.piece(i).getPieceStepId());
+        }
+        return new PresolveIssue(reason, ids, message);
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
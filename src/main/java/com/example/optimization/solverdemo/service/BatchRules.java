@@ -0,0 +1,74 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.List;
+
+/**
+ * 所有求解引擎共享的Batch约束参数与校验
+ */
+public final class BatchRules {
+    // 配置参数(可调整)
+    public static final int MAX_HEIGHT = 5500;
+    public static final int MAX_WEIGHT = 120;
+    public static final int CONVECTION_PLATE_HEIGHT = 70;
+    public static final int CONVECTION_PLATE_WEIGHT = 1;
+    public static final double MIN_THICKNESS_FIRST_TWO = 0.7;
+    public static final double MAX_THICKNESS_DIFF = 0.3;
+    public static final int MIN_PIECES_PER_BATCH = 4;
+    public static final int MAX_PIECES_PER_BATCH = 5;
+
+    private BatchRules() {
+    }
+
+    public static boolean isThick(double thickness) {
+        return thickness >= MIN_THICKNESS_FIRST_TWO;
+    }
+
+    // 两个PieceStep能否放在相邻位置
+    public static boolean isCompatible(double thickness1, double thickness2) {
+        return Math.abs(thickness1 - thickness2) <= MAX_THICKNESS_DIFF;
+    }
+
+    // 按给定摆放顺序校验一个Batch是否满足全部约束
+    public static boolean isValidBatch(List<PieceStep> batchPieces) {
+        int size = batchPieces.size();
+        if (size < MIN_PIECES_PER_BATCH || size > MAX_PIECES_PER_BATCH) {
+            return false;
+        }
+        double height = (size - 1) * CONVECTION_PLATE_HEIGHT;
+        double weight = (size - 1) * CONVECTION_PLATE_WEIGHT;
+        for (int k = 0; k < size; k++) {
+            PieceStep piece = batchPieces.get(k);
+            height += piece.getWidth();
+            weight += piece.getWeight();
+            if (k < 2 && !isThick(piece.getThickness())) {
+                return false;
+            }
+            if (k > 0 && !isCompatible(batchPieces.get(k - 1).getThickness(), piece.getThickness())) {
+                return false;
+            }
+        }
+        return height <= MAX_HEIGHT && weight <= MAX_WEIGHT;
+    }
+
+    // 根据已摆放好的PieceStep构造Batch，高度和重量计入对流板
+    public static Batch toBatch(String batchId, List<PieceStep> batchPieces) {
+        double batchHeight = 0;
+        double batchWeight = 0;
+        for (PieceStep piece : batchPieces) {
+            batchHeight += piece.getWidth();
+            batchWeight += piece.getWeight();
+        }
+        batchHeight += (batchPieces.size() - 1) * CONVECTION_PLATE_HEIGHT;
+        batchWeight += (batchPieces.size() - 1) * CONVECTION_PLATE_WEIGHT;
+
+        return Batch.builder()
+                .batchId(batchId)
+                .pieceSteps(batchPieces)
+                .height(batchHeight)
+                .weight(batchWeight)
+                .build();
+    }
+}
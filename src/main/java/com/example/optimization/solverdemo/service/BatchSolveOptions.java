@@ -0,0 +1,54 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 单次请求的求解选项
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class BatchSolveOptions {
+    @Builder.Default
+    private BatchFormulation formulation = BatchFormulation.POSITIONAL;
+    // 求解器名称(见BatchSolver#getName)，null时按formulation选择CPLEX或列生成; "portfolio"为组合模式
+    private String solver;
+    // 组合模式参与竞速的求解器，null表示使用solver.portfolio配置
+    private List<String> portfolio;
+    // 是否并行求解各温度组
+    @Builder.Default
+    private boolean parallel = false;
+    // 整个请求的求解时间上限(秒)，null表示不限; 到达上限时返回当前最好解
+    private Double timeLimitSeconds;
+    // 相对MIP gap上限，null表示使用求解器默认值
+    private Double mipGap;
+    // 是否用启发式解作为MIP初始解
+    @Builder.Default
+    private boolean warmStart = true;
+    // 调用方提供的初始解，优先于启发式解
+    private List<Batch> incumbent;
+    // 求解得到可行但未证明最优的方案后，用局部搜索继续改进的时间(秒)，null表示不改进
+    private Double localSearchSeconds;
+    // 是否先按厚度把温度组分解成子问题(见DecomposingBatchSolver)
+    @Builder.Default
+    private boolean decompose = true;
+    // 位置模型是否添加对称性破除约束; 默认关闭，保持原有模型，可用CplexSymmetryBenchmark对比后开启
+    private boolean symmetryBreaking;
+    // 是否为CPLEX/Gurobi模型的变量命名，便于导出模型排查问题; 大规模模型中名称占用大量内存
+    private boolean modelNames;
+    // 是否在求解前预处理温度组(见BatchPresolve)，无法分批的温度组立即返回INFEASIBLE及诊断报告
+    @Builder.Default
+    private boolean presolve = true;
+    // 预处理发现无法分批的PieceStep时，是否去掉它们继续求解其余部分; 结果的状态只针对其余部分
+    private boolean dropUnplaceable;
+    // 是否使用温度组求解结果缓存; 缓存按求解器名称区分，不会用一个求解器的结果回答指定其他求解器的请求
+    @Builder.Default
+    private boolean useCache = true;
+}
@@ -0,0 +1,24 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.List;
+
+/**
+ * 单个温度组的求解器。
+ * <p>
+ * 实现注册为Spring Bean后即可通过 {@link BatchSolveOptions#getSolver()} 按名称选用，
+ * 也可以作为 {@link PortfolioBatchSolver} 的成员并发竞速。实现需要遵守
+ * {@link SolveContext} 中的截止时间、gap上限和取消请求，被取消时返回当前最好解。
+ */
+public interface BatchSolver {
+
+    // 求解器名称，在所有实现中唯一
+    String getName();
+
+    /**
+     * @param pieceSteps 同一温度组的PieceStep，已按厚度升序排列
+     */
+    GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context);
+}
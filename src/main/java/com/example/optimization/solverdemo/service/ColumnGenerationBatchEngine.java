@@ -0,0 +1,318 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import ilog.concert.*;
+import ilog.cplex.IloCplex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 集合划分 + 列生成引擎。
+ * <p>
+ * 主问题: min sum(z[p]) s.t. 每个PieceStep恰好被一个列(合法Batch)覆盖。
+ * 列由定价子问题按需生成: 在按厚度排序的温度组上枚举相邻差值<=0.3的4~5件链，
+ * 最大化对偶值之和; 不存在负约简成本的列时LP最优。随后在已生成的列上求解整数模型，
+ * 若整数解等于ceil(LP)即为已证明最优。
+ */
+@Component
+public class ColumnGenerationBatchEngine implements BatchSolver {
+    public static final String NAME = "column-generation";
+
+    // 每轮定价最多加入的列数
+    private static final int MAX_COLUMNS_PER_ROUND = 200;
+    private static final double EPS = 1e-6;
+    // 未给定时间上限时，初始解搜索的时间(秒)
+    private static final double WARM_START_SECONDS = 1.0;
+
+    private final ExactBatchEngine exactBatchEngine;
+    private final NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool;
+
+    @Autowired
+    public ColumnGenerationBatchEngine(ExactBatchEngine exactBatchEngine,
+                                       NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool) {
+        this.exactBatchEngine = exactBatchEngine;
+        this.cplexEnvironmentPool = cplexEnvironmentPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        PieceColumns table = PieceColumns.of(pieceSteps).sortedByThickness();
+        List<PieceStep> sorted = table.pieceSteps();
+        int n = sorted.size();
+
+        // 用分支定界引擎快速得到初始列和组合下界
+        double warmStartSeconds = context.hasDeadline() ? context.remainingSeconds() * 0.1 : WARM_START_SECONDS;
+        GroupSolveResult warmStart = exactBatchEngine.solve(sorted, context.toBuilder()
+                .deadline(System.nanoTime() + (long) (warmStartSeconds * 1_000_000_000L))
+                .build());
+        if (warmStart.getStatus() == SolveStatus.OPTIMAL || warmStart.getStatus() == SolveStatus.INFEASIBLE) {
+            return warmStart;
+        }
+
+        Map<PieceStep, Integer> indexOf = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            indexOf.put(sorted.get(i), i);
+        }
+        List<int[]> initialColumns = new ArrayList<>();
+        for (Batch batch : warmStart.getBatches()) {
+            initialColumns.add(batch.getPieceSteps().stream().mapToInt(indexOf::get).sorted().toArray());
+        }
+
+        Pricing pricing = new Pricing(table);
+        List<Batch> result = new ArrayList<>();
+        SolveStatus status = SolveStatus.NO_SOLUTION;
+        int lowerBound = warmStart.getLowerBound();
+        long iterations = 0;
+
+        try (NativeEnvironmentPool<IloCplex, IloException>.Lease lease = cplexEnvironmentPool.lease(context)) {
+            if (lease == null) {
+                // 等待CPLEX实例时已取消或超时，返回初始解
+                return GroupSolveResult.of(context.getTemperature(), warmStart.getBatches(),
+                        warmStart.getBatches().isEmpty() ? SolveStatus.NO_SOLUTION : SolveStatus.FEASIBLE,
+                        lowerBound, iterations);
+            }
+            IloCplex cplex = lease.get();
+            cplex.setOut(null);
+            if (context.getThreads() > 0) {
+                cplex.setParam(IloCplex.Param.Threads, context.getThreads());
+            }
+            if (context.getMipGap() != null) {
+                cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, context.getMipGap());
+            }
+
+            IloObjective objective = cplex.addMinimize();
+            IloRange[] rows = new IloRange[n];
+            for (int i = 0; i < n; i++) {
+                rows[i] = cplex.addRange(1, 1, "cover_" + i);
+            }
+
+            // 人工变量保证主问题始终可行，代价大于任何可行方案
+            IloNumVar[] artificial = new IloNumVar[n];
+            for (int i = 0; i < n; i++) {
+                artificial[i] = cplex.numVar(cplex.column(objective, n + 1).and(cplex.column(rows[i], 1)),
+                        0, Double.MAX_VALUE, "art_" + i);
+            }
+
+            List<int[]> columns = new ArrayList<>();
+            List<IloNumVar> columnVars = new ArrayList<>();
+            Set<List<Integer>> known = new HashSet<>();
+            for (int[] column : initialColumns) {
+                addColumn(cplex, objective, rows, column, columns, columnVars, known);
+            }
+
+            // 列生成
+            boolean converged = false;
+            double lpValue = 0;
+            while (!context.shouldStop()) {
+                iterations++;
+                if (!CplexBatchSolver.solveCancellable(cplex, context)) {
+                    break;
+                }
+                lpValue = cplex.getObjValue();
+                double[] duals = cplex.getDuals(rows);
+                List<int[]> newColumns = pricing.price(duals);
+                int added = 0;
+                for (int[] column : newColumns) {
+                    if (addColumn(cplex, objective, rows, column, columns, columnVars, known)) {
+                        added++;
+                    }
+                }
+                if (added == 0) {
+                    converged = true;
+                    break;
+                }
+            }
+            if (converged) {
+                // 收敛时仍需人工变量，说明不存在可行划分
+                for (IloNumVar var : artificial) {
+                    if (cplex.getValue(var) > EPS) {
+                        return GroupSolveResult.of(context.getTemperature(), result, SolveStatus.INFEASIBLE,
+                                lowerBound, iterations);
+                    }
+                }
+                lowerBound = Math.max(lowerBound, (int) Math.ceil(lpValue - EPS));
+            }
+
+            // 在已生成的列上求解整数模型
+            for (IloNumVar var : artificial) {
+                var.setUB(0);
+            }
+            IloNumVar[] vars = columnVars.toArray(new IloNumVar[0]);
+            cplex.add(cplex.conversion(vars, IloNumVarType.Bool));
+            if (context.hasDeadline()) {
+                cplex.setParam(IloCplex.Param.TimeLimit, Math.max(1, context.remainingSeconds()));
+            }
+            if (!initialColumns.isEmpty()) {
+                double[] values = new double[vars.length];
+                Arrays.fill(values, 0, initialColumns.size(), 1);
+                cplex.addMIPStart(vars, values);
+            }
+
+            if (CplexBatchSolver.solveCancellable(cplex, context)) {
+                for (int p = 0; p < vars.length; p++) {
+                    if (cplex.getValue(vars[p]) > 0.5) {
+                        int[] column = columns.get(p);
+                        List<PieceStep> batchPieces = new ArrayList<>();
+                        // 按厚度降序摆放，前两个即为最厚的两个
+                        for (int k = column.length - 1; k >= 0; k--) {
+                            batchPieces.add(sorted.get(column[k]));
+                        }
+                        result.add(toBatch("Batch_" + result.size(), batchPieces));
+                    }
+                }
+                status = converged && result.size() <= lowerBound ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+            } else if (!warmStart.getBatches().isEmpty()) {
+                // 整数模型在剩余时间内没有解时退回初始解
+                result.addAll(warmStart.getBatches());
+                status = SolveStatus.FEASIBLE;
+            } else {
+                System.out.println("No solution found.");
+            }
+
+
+        } catch (IloException e) {
+            System.err.println("CPLEX Error: " + e);
+        }
+
+        return GroupSolveResult.of(context.getTemperature(), result, status, lowerBound, iterations);
+    }
+
+    private static boolean addColumn(IloCplex cplex, IloObjective objective, IloRange[] rows, int[] column,
+                                     List<int[]> columns, List<IloNumVar> columnVars, Set<List<Integer>> known)
+            throws IloException {
+        List<Integer> key = new ArrayList<>(column.length);
+        for (int i : column) {
+            key.add(i);
+        }
+        if (!known.add(key)) {
+            return false;
+        }
+        IloColumn ilo = cplex.column(objective, 1);
+        for (int i : column) {
+            ilo = ilo.and(cplex.column(rows[i], 1));
+        }
+        columns.add(column);
+        columnVars.add(cplex.numVar(ilo, 0, Double.MAX_VALUE, "z_" + columns.size()));
+        return true;
+    }
+
+    /**
+     * 定价子问题: 在厚度升序的PieceStep上找对偶值之和大于1的合法链(即负约简成本的列)。
+     * 先忽略高度、重量和厚件约束，用 f[j][r] = 从j开始r件链的最大对偶值和 作为上界剪枝。
+     */
+    private static final class Pricing {
+        private static final double HEIGHT_CAPACITY = MAX_HEIGHT + CONVECTION_PLATE_HEIGHT;
+        private static final double WEIGHT_CAPACITY = MAX_WEIGHT + CONVECTION_PLATE_WEIGHT;
+
+        private final int n;
+        private final double[] height;
+        private final double[] weight;
+        private final boolean[] thick;
+        private final int[] hi;
+        private final double[][] f;
+
+        private double[] duals;
+        private PriorityQueue<Candidate> found;
+        private final int[] chain = new int[MAX_PIECES_PER_BATCH];
+
+        Pricing(PieceColumns sorted) {
+            this.n = sorted.size();
+            this.height = new double[n];
+            this.weight = new double[n];
+            this.thick = new boolean[n];
+            this.hi = new int[n];
+            double[] thickness = new double[n];
+            for (int i = 0; i < n; i++) {
+                thickness[i] = sorted.thickness(i);
+                height[i] = sorted.width(i) + CONVECTION_PLATE_HEIGHT;
+                weight[i] = sorted.weight(i) + CONVECTION_PLATE_WEIGHT;
+                thick[i] = isThick(thickness[i]);
+            }
+            for (int i = 0, h = 0; i < n; i++) {
+                h = Math.max(h, i);
+                while (h < n && isCompatible(thickness[i], thickness[h])) {
+                    h++;
+                }
+                hi[i] = h;
+            }
+            this.f = new double[n][MAX_PIECES_PER_BATCH + 1];
+        }
+
+        List<int[]> price(double[] duals) {
+            this.duals = duals;
+            for (int j = n - 1; j >= 0; j--) {
+                f[j][0] = 0;
+                f[j][1] = duals[j];
+                for (int r = 2; r <= MAX_PIECES_PER_BATCH; r++) {
+                    double best = Double.NEGATIVE_INFINITY;
+                    for (int m = j + 1; m < hi[j]; m++) {
+                        best = Math.max(best, f[m][r - 1]);
+                    }
+                    f[j][r] = duals[j] + best;
+                }
+            }
+
+            found = new PriorityQueue<>(Comparator.comparingDouble(Candidate::value));
+            for (int i = 0; i < n; i++) {
+                if (Math.max(f[i][MIN_PIECES_PER_BATCH], f[i][MAX_PIECES_PER_BATCH]) > threshold()) {
+                    chain[0] = i;
+                    extend(1, duals[i], height[i], weight[i], thick[i] ? 1 : 0);
+                }
+            }
+
+            List<int[]> columns = new ArrayList<>();
+            for (Candidate candidate : found) {
+                columns.add(candidate.column());
+            }
+            return columns;
+        }
+
+        // 列的对偶值和必须超过该值才值得加入
+        private double threshold() {
+            return found.size() < MAX_COLUMNS_PER_ROUND ? 1 + EPS : Math.max(1 + EPS, found.peek().value());
+        }
+
+        private void extend(int size, double value, double h, double w, int thickCount) {
+            if (size >= MIN_PIECES_PER_BATCH && thickCount >= 2 && value > threshold()) {
+                found.add(new Candidate(Arrays.copyOf(chain, size), value));
+                if (found.size() > MAX_COLUMNS_PER_ROUND) {
+                    found.poll();
+                }
+            }
+            if (size == MAX_PIECES_PER_BATCH) {
+                return;
+            }
+            int last = chain[size - 1];
+            for (int m = last + 1; m < hi[last]; m++) {
+                if (h + height[m] > HEIGHT_CAPACITY || w + weight[m] > WEIGHT_CAPACITY) {
+                    continue;
+                }
+                // 剩余部分的最优对偶值和上界
+                double bound = value + f[m][MAX_PIECES_PER_BATCH - size];
+                if (size < MIN_PIECES_PER_BATCH) {
+                    bound = Math.max(bound, value + f[m][MIN_PIECES_PER_BATCH - size]);
+                }
+                if (bound <= threshold()) {
+                    continue;
+                }
+                chain[size] = m;
+                extend(size + 1, value + duals[m], h + height[m], w + weight[m], thickCount + (thick[m] ? 1 : 0));
+            }
+        }
+    }
+
+    private record Candidate(int[] column, double value) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 紧凑模型(见{@link BatchFormulation#COMPACT})的变量布局与约束矩阵，CPLEX与Gurobi共用。
+ * <p>
+ * 所有变量放在一个数组中: 先是a[i][j](pieceSteps[i]被分配到第j个Batch)，按i、j展开;
+ * 然后是y[j](使用第j个Batch); 最后是后缀和s[i][j] = a[i][j] + s[i+1][j]。
+ * a与y为0-1变量，s为[0, 5]内的连续变量。
+ */
+record CompactModel(int pieces, int batches) {
+
+    int a(int i, int j) {
+        return i * batches + j;
+    }
+
+    int y(int j) {
+        return pieces * batches + j;
+    }
+
+    int s(int i, int j) {
+        return pieces * batches + batches + i * batches + j;
+    }
+
+    // 0-1变量(a与y)的数量，即第一个s变量的下标
+    int binaries() {
+        return s(0, 0);
+    }
+
+    int size() {
+        return s(pieces, 0);
+    }
+
+    /**
+     * 约束矩阵(不含目标割)，columns须按厚度升序排列
+     */
+    SparseRows rows(PieceColumns columns) {
+        int n = pieces;
+
+        // lo[i]: 第一个厚度严格大于pieceSteps[i]的下标; hi[i]: 第一个与pieceSteps[i]厚度差值>0.3的下标
+        int[] lo = new int[n];
+        int[] hi = new int[n];
+        for (int i = 0, l = 0, h = 0; i < n; i++) {
+            double thickness = columns.thickness(i);
+            l = Math.max(l, i);
+            while (l < n && columns.thickness(l) <= thickness) {
+                l++;
+            }
+            h = Math.max(h, l);
+            while (h < n && columns.thickness(h) - thickness <= MAX_THICKNESS_DIFF) {
+                h++;
+            }
+            lo[i] = l;
+            hi[i] = h;
+        }
+
+        SparseRows rows = new SparseRows(n + batches * (2 * n + 5), n * batches * 9);
+
+        // 约束1: 每个PieceStep只能分配到一个Batch
+        for (int i = 0; i < n; i++) {
+            rows.eq(1);
+            for (int j = 0; j < batches; j++) {
+                rows.add(a(i, j), 1);
+            }
+        }
+
+        for (int j = 0; j < batches; j++) {
+            // 后缀和: s[i] - a[i] - s[i+1] = 0，s[n] = 0
+            for (int i = 0; i < n; i++) {
+                rows.eq(0).add(s(i, j), 1).add(a(i, j), -1);
+                if (i + 1 < n) {
+                    rows.add(s(i + 1, j), -1);
+                }
+            }
+
+            // 约束2: 每个Batch分配到的PieceStep数量为4或5 (s[0]即Batch内PieceStep数量)
+            rows.le(0).add(s(0, j), 1).add(y(j), -MAX_PIECES_PER_BATCH);
+            rows.ge(0).add(s(0, j), 1).add(y(j), -MIN_PIECES_PER_BATCH);
+
+            // 约束3/4: 高度与重量，对流板数量 = PieceStep数量 - 1，只在Batch被使用时扣除
+            rows.le(MAX_HEIGHT);
+            for (int i = 0; i < n; i++) {
+                rows.add(a(i, j), columns.width(i) + CONVECTION_PLATE_HEIGHT);
+            }
+            rows.add(y(j), -CONVECTION_PLATE_HEIGHT);
+            rows.le(MAX_WEIGHT);
+            for (int i = 0; i < n; i++) {
+                rows.add(a(i, j), columns.weight(i) + CONVECTION_PLATE_WEIGHT);
+            }
+            rows.add(y(j), -CONVECTION_PLATE_WEIGHT);
+
+            // 约束5: 至少两个thickness >= 0.7的PieceStep
+            rows.ge(0);
+            for (int i = 0; i < n; i++) {
+                if (isThick(columns.thickness(i))) {
+                    rows.add(a(i, j), 1);
+                }
+            }
+            rows.add(y(j), -2);
+
+            // 约束6: 厚度窗口，若pieceSteps[i]在Batch中且Batch中有厚度超过t+0.3的PieceStep，
+            // 则(t, t+0.3]内至少还有一个: 5*a[i] + s[hi] - 5*(s[lo] - s[hi]) <= 5
+            for (int i = 0; i < n; i++) {
+                if (hi[i] >= n) {
+                    continue;
+                }
+                rows.le(MAX_PIECES_PER_BATCH).add(a(i, j), MAX_PIECES_PER_BATCH);
+                if (lo[i] < hi[i]) {
+                    rows.add(s(hi[i], j), MAX_PIECES_PER_BATCH + 1).add(s(lo[i], j), -MAX_PIECES_PER_BATCH);
+                } else {
+                    // 窗口内没有其他PieceStep(s[lo] = s[hi])，两项合并
+                    rows.add(s(hi[i], j), 1);
+                }
+            }
+        }
+        return rows;
+    }
+
+    // 变量取值还原为Batch: 按厚度降序摆放，前两个即为最厚的两个
+    List<Batch> batches(double[] values, List<PieceStep> pieceSteps) {
+        List<Batch> result = new ArrayList<>();
+        for (int j = 0; j < batches; j++) {
+            if (values[y(j)] > 0.5) {
+                List<PieceStep> batchPieces = new ArrayList<>();
+                for (int i = pieces - 1; i >= 0; i--) {
+                    if (values[a(i, j)] > 0.5) {
+                        batchPieces.add(pieceSteps.get(i));
+                    }
+                }
+                result.add(toBatch("Batch_" + j, batchPieces));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,532 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import ilog.concert.IloException;
+import ilog.concert.IloIntVar;
+import ilog.concert.IloNumVar;
+import ilog.cplex.IloCplex;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 基于CPLEX的求解器，按 {@link SolveContext#getFormulation()} 选择位置模型或紧凑模型，
+ * 集合划分模型委托给列生成引擎，类型聚合模型委托给下料模型求解器。
+ */
+@Component
+public class CplexBatchSolver implements BatchSolver {
+    public static final String NAME = "cplex";
+
+    private final ColumnGenerationBatchEngine columnGenerationBatchEngine;
+    private final CuttingStockBatchSolver cuttingStockBatchSolver;
+    private final SolverMetrics solverMetrics;
+    private final NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool;
+
+    @Autowired
+    public CplexBatchSolver(ColumnGenerationBatchEngine columnGenerationBatchEngine,
+                            CuttingStockBatchSolver cuttingStockBatchSolver, SolverMetrics solverMetrics,
+                            NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool) {
+        this.columnGenerationBatchEngine = columnGenerationBatchEngine;
+        this.cuttingStockBatchSolver = cuttingStockBatchSolver;
+        this.solverMetrics = solverMetrics;
+        this.cplexEnvironmentPool = cplexEnvironmentPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        // 用CPLEX求解该温度组的最优分配
+        switch (context.getFormulation()) {
+            case COMPACT:
+                return optimizeBatchesCompact(pieceSteps, context);
+            case SET_PARTITIONING:
+                return columnGenerationBatchEngine.solve(pieceSteps, context);
+            case AGGREGATED:
+                return cuttingStockBatchSolver.solve(pieceSteps, context);
+            default:
+                return optimizeBatchesForTemperatureGroup(pieceSteps, context);
+        }
+    }
+
+    // 应用线程数、剩余时间和gap上限
+    static void applyLimits(IloCplex cplex, SolveContext context) throws IloException {
+        if (context.getThreads() > 0) {
+            cplex.setParam(IloCplex.Param.Threads, context.getThreads());
+        }
+        if (context.hasDeadline()) {
+            cplex.setParam(IloCplex.Param.TimeLimit, context.remainingSeconds());
+        }
+        if (context.getMipGap() != null) {
+            cplex.setParam(IloCplex.Param.MIP.Tolerances.MIPGap, context.getMipGap());
+        }
+    }
+
+    // 初始解中取值为1的变量作为(部分)MIP start，其余变量由CPLEX补全
+    private static void addMipStart(IloCplex cplex, List<IloNumVar> ones) throws IloException {
+        if (ones.isEmpty()) {
+            return;
+        }
+        double[] values = new double[ones.size()];
+        Arrays.fill(values, 1);
+        cplex.addMIPStart(ones.toArray(new IloNumVar[0]), values);
+    }
+
+    private static Map<PieceStep, Integer> indexOf(List<PieceStep> pieceSteps) {
+        Map<PieceStep, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < pieceSteps.size(); i++) {
+            index.put(pieceSteps.get(i), i);
+        }
+        return index;
+    }
+
+    // 根据CPLEX的求解状态构造结果; 没有解但初始解覆盖全部PieceStep时退回初始解
+    // 下界取CPLEX的最好界与组合下界中较大者，Batch数量达到下界即为最优
+    static GroupSolveResult toGroupResult(IloCplex cplex, boolean solved, List<Batch> batches,
+                                                  List<PieceStep> pieceSteps, int bound,
+                                                  SolveContext context) throws IloException {
+        if (solved) {
+            int lowerBound = Math.max(bound, (int) Math.ceil(cplex.getBestObjValue() - 1e-6));
+            boolean optimal = batches.size() <= lowerBound;
+            return GroupSolveResult.of(context.getTemperature(), batches,
+                    optimal ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE, lowerBound, cplex.getNnodes64());
+        }
+        if (cplex.getStatus() == IloCplex.Status.Infeasible) {
+            return GroupSolveResult.of(context.getTemperature(), batches, SolveStatus.INFEASIBLE, null,
+                    cplex.getNnodes64());
+        }
+        return context.fallbackResult(pieceSteps.size());
+    }
+
+    // 求解并响应取消请求: 取消时通过Aborter中止，CPLEX返回当前最好解
+    static boolean solveCancellable(IloCplex cplex, SolveContext context) throws IloException {
+        IloCplex.Aborter aborter = new IloCplex.Aborter();
+        cplex.use(aborter);
+        Runnable abort = aborter::abort;
+        context.onCancel(abort);
+        try {
+            return cplex.solve();
+        } finally {
+            context.removeCancelListener(abort);
+        }
+    }
+
+    private GroupSolveResult optimizeBatchesForTemperatureGroup(List<PieceStep> pieceSteps, SolveContext context) {
+        // 结果集
+        List<Batch> result = new ArrayList<>();
+        GroupSolveResult groupResult = null;
+        // 当前阶段(建模、求解)的Observation
+        Observation phase = solverMetrics.start("solver.model.build", NAME, null);
+
+        // 从池中借出CPLEX实例，返回时清空模型和参数
+        try (NativeEnvironmentPool<IloCplex, IloException>.Lease lease = cplexEnvironmentPool.lease(context)) {
+            if (lease == null) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            IloCplex cplex = lease.get();
+            applyLimits(cplex, context);
+
+            PieceColumns columns = PieceColumns.of(pieceSteps);
+            int n = pieceSteps.size(); // PieceStep数量
+            int maxBatches = BatchPresolve.maxBatches(columns); // 最大可能的Batch数量(见BatchPresolve)
+            Positional layout = new Positional(n, maxBatches);
+            boolean symmetryBreaking = context.isSymmetryBreaking();
+
+            // 决策变量: x[i][j][k] = 1 表示pieceSteps[i]被分配到第j个Batch的第k个位置;
+            // 辅助变量: y[j] = 1 表示使用第j个Batch。全部放在一个数组中，约束矩阵的列即为数组下标
+            int[] lb = new int[layout.size()];
+            int[] ub = new int[layout.size()];
+            Arrays.fill(ub, 1);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < maxBatches; j++) {
+                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
+                        // 约束6: 每个Batch前两个PieceStep的thickness >= 0.7，较薄的PieceStep不能放在前两个位置
+                        // 对称性破除: PieceStep i只能放在前i+1个Batch中
+                        if ((k < 2 && columns.thickness(i) < MIN_THICKNESS_FIRST_TWO) || (symmetryBreaking && j > i)) {
+                            ub[layout.x(i, j, k)] = 0;
+                        }
+                    }
+                }
+            }
+            IloIntVar[] vars = cplex.intVarArray(layout.size(), lb, ub);
+            if (context.isModelNames()) {
+                setNames(vars, 0, SparseRows.names("x", n, maxBatches, MAX_PIECES_PER_BATCH));
+                setNames(vars, layout.y(0), SparseRows.names("y", maxBatches));
+            }
+
+            SparseRows rows = new SparseRows(n + maxBatches * (2 * MAX_PIECES_PER_BATCH + 4),
+                    layout.size() * 6);
+
+            // 约束1: 每个PieceStep只能分配到一个Batch的一个位置
+            for (int i = 0; i < n; i++) {
+                rows.eq(1);
+                for (int j = 0; j < maxBatches; j++) {
+                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
+                        rows.add(layout.x(i, j, k), 1);
+                    }
+                }
+            }
+
+            // 约束2: 每个Batch位置至多分配一个PieceStep
+            for (int j = 0; j < maxBatches; j++) {
+                for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
+                    rows.le(1);
+                    for (int i = 0; i < n; i++) {
+                        rows.add(layout.x(i, j, k), 1);
+                    }
+                }
+            }
+
+            for (int j = 0; j < maxBatches; j++) {
+                // 约束3: 如果Batch被使用(y[j]=1)，则必须包含4-5个PieceStep
+                rows.le(0);
+                addBatchTerms(rows, layout, j, i -> 1);
+                rows.add(layout.y(j), -MAX_PIECES_PER_BATCH);
+                rows.ge(0);
+                addBatchTerms(rows, layout, j, i -> 1);
+                rows.add(layout.y(j), -MIN_PIECES_PER_BATCH);
+
+                // 约束4/5: 高度与重量，对流板数量 = PieceStep数量 - 1:
+                // sum((width + 70) * x) - 70 <= MAX_HEIGHT，重量同理
+                rows.le(MAX_HEIGHT + CONVECTION_PLATE_HEIGHT);
+                addBatchTerms(rows, layout, j, i -> columns.width(i) + CONVECTION_PLATE_HEIGHT);
+                rows.le(MAX_WEIGHT + CONVECTION_PLATE_WEIGHT);
+                addBatchTerms(rows, layout, j, i -> columns.weight(i) + CONVECTION_PLATE_WEIGHT);
+            }
+
+            // 约束7: 相邻PieceStep的thickness差值 <= 0.3，不能放在相邻位置; 已固定为0的变量不需要该约束
+            for (int j = 0; j < maxBatches; j++) {
+                for (int k = 0; k < MAX_PIECES_PER_BATCH - 1; k++) { // 相邻位置
+                    for (int i1 = 0; i1 < n; i1++) {
+                        if (ub[layout.x(i1, j, k)] == 0) {
+                            continue;
+                        }
+                        for (int i2 = 0; i2 < n; i2++) {
+                            double thicknessDiff = Math.abs(columns.thickness(i1) - columns.thickness(i2));
+                            if (thicknessDiff > MAX_THICKNESS_DIFF && ub[layout.x(i2, j, k + 1)] != 0) {
+                                rows.le(1).add(layout.x(i1, j, k), 1).add(layout.x(i2, j, k + 1), 1);
+                            }
+                        }
+                    }
+                }
+            }
+
+            // 对称性破除: 每组等价解只保留一个
+            if (symmetryBreaking) {
+                addSymmetryBreaking(rows, layout, ub);
+            }
+
+            // 目标函数: 最小化使用的Batch数量
+            double[] ones = new double[maxBatches];
+            Arrays.fill(ones, 1);
+            IloNumVar[] y = Arrays.copyOfRange(vars, layout.y(0), layout.size(), IloNumVar[].class);
+            cplex.addMinimize(cplex.scalProd(ones, y));
+            // 组合下界作为目标割: 初始界即为该下界，找到达到下界的解时CPLEX立即证明最优并停止
+            int bound = BatchLowerBound.of(columns.sortedByThickness());
+            rows.ge(bound);
+            for (int j = 0; j < maxBatches; j++) {
+                rows.add(layout.y(j), 1);
+            }
+            rows.addTo(cplex, vars);
+
+            // 初始解作为MIP start: 按对称性破除约束的规范顺序排列后，第j个Batch的第k个PieceStep对应x[i][j][k]
+            List<int[]> incumbent = canonicalBatches(context.getIncumbent(), indexOf(pieceSteps));
+            List<IloNumVar> start = new ArrayList<>();
+            for (int j = 0; j < incumbent.size() && j < maxBatches; j++) {
+                int[] members = incumbent.get(j);
+                for (int k = 0; k < members.length; k++) {
+                    start.add(vars[layout.x(members[k], j, k)]);
+                }
+                start.add(vars[layout.y(j)]);
+            }
+            addMipStart(cplex, start);
+
+            solverMetrics.recordModel(NAME, context.getFormulation(), cplex.getNcols(), cplex.getNrows());
+            // 建模期间已取消或超过截止时间时不再求解
+            if (context.shouldStop()) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            phase.stop();
+            phase = solverMetrics.start("solver.model.solve", NAME, null);
+
+            // 求解模型
+            Decoder decoder = values -> positionalBatches(values, layout, pieceSteps);
+            reportIncumbents(cplex, context, vars, decoder);
+            boolean solved = solveCancellable(cplex, context);
+            if (solved) {
+                System.out.println("Solution status: " + cplex.getStatus());
+                System.out.println("Objective value: " + cplex.getObjValue());
+
+                // 构造结果: 一次取回全部变量的取值
+                result.addAll(decoder.decode(cplex.getValues(vars)));
+            } else {
+                System.out.println("No solution found.");
+            }
+            groupResult = toGroupResult(cplex, solved, result, pieceSteps, bound, context);
+
+        } catch (IloException e) {
+            phase.error(e);
+            System.err.println("CPLEX Error: " + e);
+        } finally {
+            phase.stop();
+        }
+
+        return groupResult != null ? groupResult : context.fallbackResult(pieceSteps.size());
+    }
+
+    // 第j个Batch中所有位置的变量 x[i][j][k] 加入当前行，系数为coefficient(i)
+    private static void addBatchTerms(SparseRows rows, Positional layout, int j, IntToDoubleFunction coefficient) {
+        for (int i = 0; i < layout.pieces(); i++) {
+            double value = coefficient.applyAsDouble(i);
+            for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
+                rows.add(layout.x(i, j, k), value);
+            }
+        }
+    }
+
+    private static void setNames(IloNumVar[] vars, int offset, String[] names) {
+        for (int v = 0; v < names.length; v++) {
+            vars[offset + v].setName(names[v]);
+        }
+    }
+
+    /**
+     * 位置模型的变量布局: x[i][j][k]按i、j、k展开，之后是y[j]
+     */
+    private record Positional(int pieces, int batches) {
+        int x(int i, int j, int k) {
+            return (i * batches + j) * MAX_PIECES_PER_BATCH + k;
+        }
+
+        int y(int j) {
+            return pieces * batches * MAX_PIECES_PER_BATCH + j;
+        }
+
+        int size() {
+            return y(batches);
+        }
+    }
+
+    /**
+     * 位置模型的对称性破除约束，要求pieceSteps已按厚度升序排列:
+     * <ul>
+     *     <li>先使用编号小的Batch: y[j] >= y[j+1]</li>
+     *     <li>PieceStep i只能放在前i+1个Batch中(Batch按其中编号最小的PieceStep排序时成立)，建模时已固定上界</li>
+     *     <li>位置连续: 位置k+1有PieceStep时位置k也有</li>
+     *     <li>Batch内按厚度降序摆放: 位置k+1的PieceStep编号不大于位置k的</li>
+     * </ul>
+     * 按厚度降序摆放的Batch满足"前两个>=0.7"和"相邻差值<=0.3"当且仅当这组PieceStep能组成合法Batch
+     * (见紧凑模型的说明)，因此任一可行解都有一个满足这些约束的等价解，最优Batch数量不变。
+     * 约束的非零元数量与变量数同阶，上界为0的变量不写入。
+     */
+    private static void addSymmetryBreaking(SparseRows rows, Positional layout, int[] ub) {
+        int n = layout.pieces();
+        int maxBatches = layout.batches();
+        for (int j = 0; j + 1 < maxBatches; j++) {
+            rows.ge(0).add(layout.y(j), 1).add(layout.y(j + 1), -1);
+        }
+        for (int j = 0; j < maxBatches; j++) {
+            for (int k = 0; k + 1 < MAX_PIECES_PER_BATCH; k++) {
+                rows.ge(0);
+                for (int i = 0; i < n; i++) {
+                    addIfFree(rows, ub, layout.x(i, j, k), 1);
+                    addIfFree(rows, ub, layout.x(i, j, k + 1), -1);
+                }
+                // 位置k+1为空时左边为0; 否则由位置连续可知位置k有PieceStep，两者编号之差非负
+                rows.ge(0);
+                for (int i = 0; i < n; i++) {
+                    addIfFree(rows, ub, layout.x(i, j, k), i);
+                    addIfFree(rows, ub, layout.x(i, j, k + 1), -i);
+                }
+            }
+        }
+    }
+
+    private static void addIfFree(SparseRows rows, int[] ub, int column, double value) {
+        if (ub[column] != 0 && value != 0) {
+            rows.add(column, value);
+        }
+    }
+
+    // 初始解的规范形式: Batch内PieceStep下标降序，Batch按最小下标升序，满足对称性破除约束
+    private static List<int[]> canonicalBatches(List<Batch> batches, Map<PieceStep, Integer> index) {
+        List<int[]> canonical = new ArrayList<>();
+        for (Batch batch : batches) {
+            int[] members = batch.getPieceSteps().stream().mapToInt(index::get).sorted().toArray();
+            for (int a = 0, b = members.length - 1; a < b; a++, b--) {
+                int swap = members[a];
+                members[a] = members[b];
+                members[b] = swap;
+            }
+            canonical.add(members);
+        }
+        canonical.sort(Comparator.comparingInt(members -> members[members.length - 1]));
+        return canonical;
+    }
+
+    /**
+     * 紧凑模型: 要求pieceSteps已按厚度升序排列。
+     * <p>
+     * 一个Batch的厚度约束可以不依赖位置来表达: 只要Batch内至少有两个厚度>=0.7的PieceStep，
+     * 且按厚度排序后相邻差值都<=0.3，按厚度降序摆放即同时满足"前两个>=0.7"和"相邻差值<=0.3"；
+     * 反之若排序后存在>0.3的间隙，任何摆放顺序都无法跨过该间隙。因此只需约束
+     * "Batch内每个PieceStep若不是最厚的，则在(t, t+0.3]内必须还有同Batch的PieceStep"。
+     * 借助后缀和变量 s[i][j] = sum(a[m][j], m>=i)，每条约束只有常数个非零元。
+     */
+    private GroupSolveResult optimizeBatchesCompact(List<PieceStep> pieceSteps, SolveContext context) {
+        List<Batch> result = new ArrayList<>();
+        GroupSolveResult groupResult = null;
+        // 当前阶段(建模、求解)的Observation
+        Observation phase = solverMetrics.start("solver.model.build", NAME, null);
+
+        try (NativeEnvironmentPool<IloCplex, IloException>.Lease lease = cplexEnvironmentPool.lease(context)) {
+            if (lease == null) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            IloCplex cplex = lease.get();
+            applyLimits(cplex, context);
+
+            PieceColumns columns = PieceColumns.of(pieceSteps);
+            int n = pieceSteps.size();
+            int maxBatches = BatchPresolve.maxBatches(columns);
+            CompactModel layout = new CompactModel(n, maxBatches);
+
+            // 决策变量: a[i][j] = 1 表示pieceSteps[i]被分配到第j个Batch; y[j] = 1 表示使用第j个Batch;
+            // 后缀和变量 s[i][j] = a[i][j] + s[i+1][j]。全部放在一个数组中，约束矩阵的列即为数组下标
+            IloNumVar[] vars = new IloNumVar[layout.size()];
+            System.arraycopy(cplex.boolVarArray(layout.binaries()), 0, vars, 0, layout.binaries());
+            System.arraycopy(cplex.numVarArray(n * maxBatches, 0, MAX_PIECES_PER_BATCH), 0,
+                    vars, layout.binaries(), n * maxBatches);
+            if (context.isModelNames()) {
+                setNames(vars, 0, SparseRows.names("a", n, maxBatches));
+                setNames(vars, layout.y(0), SparseRows.names("y", maxBatches));
+                setNames(vars, layout.binaries(), SparseRows.names("s", n, maxBatches));
+            }
+
+            SparseRows rows = layout.rows(columns);
+
+            // 目标函数: 最小化使用的Batch数量
+            double[] ones = new double[maxBatches];
+            Arrays.fill(ones, 1);
+            cplex.addMinimize(cplex.scalProd(ones, Arrays.copyOfRange(vars, layout.y(0), layout.binaries())));
+            // 组合下界作为目标割: 初始界即为该下界，找到达到下界的解时CPLEX立即证明最优并停止
+            int bound = BatchLowerBound.of(columns.sortedByThickness());
+            rows.ge(bound);
+            for (int j = 0; j < maxBatches; j++) {
+                rows.add(layout.y(j), 1);
+            }
+            rows.addTo(cplex, vars);
+
+            // 初始解作为MIP start
+            Map<PieceStep, Integer> index = indexOf(pieceSteps);
+            List<Batch> incumbent = context.getIncumbent();
+            List<IloNumVar> start = new ArrayList<>();
+            for (int j = 0; j < incumbent.size() && j < maxBatches; j++) {
+                for (PieceStep piece : incumbent.get(j).getPieceSteps()) {
+                    start.add(vars[layout.a(index.get(piece), j)]);
+                }
+                start.add(vars[layout.y(j)]);
+            }
+            addMipStart(cplex, start);
+
+            solverMetrics.recordModel(NAME, context.getFormulation(), cplex.getNcols(), cplex.getNrows());
+            // 建模期间已取消或超过截止时间时不再求解
+            if (context.shouldStop()) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            phase.stop();
+            phase = solverMetrics.start("solver.model.solve", NAME, null);
+
+            Decoder decoder = values -> layout.batches(values, pieceSteps);
+            reportIncumbents(cplex, context, vars, decoder);
+            boolean solved = solveCancellable(cplex, context);
+            if (solved) {
+                System.out.println("Solution status: " + cplex.getStatus());
+                System.out.println("Objective value: " + cplex.getObjValue());
+
+                result.addAll(decoder.decode(cplex.getValues(vars)));
+            } else {
+                System.out.println("No solution found.");
+            }
+            groupResult = toGroupResult(cplex, solved, result, pieceSteps, bound, context);
+
+        } catch (IloException e) {
+            phase.error(e);
+            System.err.println("CPLEX Error: " + e);
+        } finally {
+            phase.stop();
+        }
+
+        return groupResult != null ? groupResult : context.fallbackResult(pieceSteps.size());
+    }
+
+    // 位置模型的解: 按位置顺序取出每个被使用Batch中的PieceStep
+    private static List<Batch> positionalBatches(double[] values, Positional layout, List<PieceStep> pieceSteps) {
+        int n = layout.pieces();
+        List<Batch> result = new ArrayList<>();
+        for (int j = 0; j < layout.batches(); j++) {
+            if (values[layout.y(j)] > 0.5) { // 批次j被使用
+                // 找出该批次的所有PieceStep并按位置排序
+                PieceStep[] positions = new PieceStep[MAX_PIECES_PER_BATCH];
+                for (int i = 0; i < n; i++) {
+                    for (int k = 0; k < MAX_PIECES_PER_BATCH; k++) {
+                        if (values[layout.x(i, j, k)] > 0.5) {
+                            positions[k] = pieceSteps.get(i);
+                        }
+                    }
+                }
+                List<PieceStep> batchPieces = new ArrayList<>();
+                for (PieceStep piece : positions) {
+                    if (piece != null) {
+                        batchPieces.add(piece);
+                    }
+                }
+                // 高度、重量计入对流板
+                result.add(toBatch("Batch_" + j, batchPieces));
+            }
+        }
+        return result;
+    }
+
+    // 需要时在每个新的整数解处回调，把解报告给context
+    private static void reportIncumbents(IloCplex cplex, SolveContext context, IloNumVar[] vars, Decoder decoder)
+            throws IloException {
+        if (context.getIncumbentListener() != null) {
+            cplex.use(new IncumbentReporter(context, vars, decoder));
+        }
+    }
+
+    // 将变量取值(按模型变量数组的下标)还原为Batch列表
+    @FunctionalInterface
+    private interface Decoder {
+        List<Batch> decode(double[] values);
+    }
+
+    private static final class IncumbentReporter extends IloCplex.IncumbentCallback {
+        private final SolveContext context;
+        private final IloNumVar[] vars;
+        private final Decoder decoder;
+
+        IncumbentReporter(SolveContext context, IloNumVar[] vars, Decoder decoder) {
+            this.context = context;
+            this.vars = vars;
+            this.decoder = decoder;
+        }
+
+        @Override
+        protected void main() throws IloException {
+            context.reportIncumbent(decoder.decode(getValues(vars)));
+        }
+    }
+}
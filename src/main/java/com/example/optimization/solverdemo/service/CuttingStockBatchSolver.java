@@ -0,0 +1,246 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import ilog.concert.IloException;
+import ilog.concert.IloIntVar;
+import ilog.concert.IloLinearNumExpr;
+import ilog.concert.IloNumVar;
+import ilog.cplex.IloCplex;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 类型聚合模型(下料问题形式)。
+ * <p>
+ * 重量、宽度、厚度都相同的PieceStep合并为一个类型(见{@link PieceTypes})，枚举所有合法模式
+ * (各类型件数组成的4~5件多重集合)，整数变量z[p]表示按模式p组成的Batch数量:
+ * min sum(z[p]) s.t. 每个类型t: sum(a[t][p] * z[p]) = count[t]。
+ * 变量数只与类型数和模式数有关，与PieceStep数量无关; 求解后按类型依次分配具体的PieceStep。
+ * 模式数超过{@link #MAX_PATTERNS}(类型太多、重复太少)时委托给列生成引擎。
+ */
+@Component
+public class CuttingStockBatchSolver implements BatchSolver {
+    public static final String NAME = "cutting-stock";
+
+    // 枚举模式数量上限
+    static final int MAX_PATTERNS = 20_000;
+    private static final double HEIGHT_CAPACITY = MAX_HEIGHT + CONVECTION_PLATE_HEIGHT;
+    private static final double WEIGHT_CAPACITY = MAX_WEIGHT + CONVECTION_PLATE_WEIGHT;
+
+    private final ColumnGenerationBatchEngine columnGenerationBatchEngine;
+    private final SolverMetrics solverMetrics;
+    private final NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool;
+
+    @Autowired
+    public CuttingStockBatchSolver(ColumnGenerationBatchEngine columnGenerationBatchEngine,
+                                   SolverMetrics solverMetrics,
+                                   NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool) {
+        this.columnGenerationBatchEngine = columnGenerationBatchEngine;
+        this.solverMetrics = solverMetrics;
+        this.cplexEnvironmentPool = cplexEnvironmentPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        PieceColumns sorted = PieceColumns.of(pieceSteps).sortedByThickness();
+        PieceTypes types = PieceTypes.of(sorted);
+        List<int[]> patterns = patterns(types, MAX_PATTERNS);
+        if (patterns == null) {
+            // 模式过多时改用列生成
+            return columnGenerationBatchEngine.solve(sorted.pieceSteps(), context);
+        }
+        if (patterns.isEmpty()) {
+            // 没有任何合法Batch
+            return GroupSolveResult.of(context.getTemperature(), new ArrayList<>(), SolveStatus.INFEASIBLE, null, 0);
+        }
+
+        List<Batch> result = new ArrayList<>();
+        GroupSolveResult groupResult = null;
+        // 当前阶段(建模、求解)的Observation
+        Observation phase = solverMetrics.start("solver.model.build", NAME, null);
+
+        try (NativeEnvironmentPool<IloCplex, IloException>.Lease lease = cplexEnvironmentPool.lease(context)) {
+            if (lease == null) {
+                return context.fallbackResult(sorted.size());
+            }
+            IloCplex cplex = lease.get();
+            CplexBatchSolver.applyLimits(cplex, context);
+
+            // 决策变量: z[p] = 按模式p组成的Batch数量，上界由模式中各类型的件数决定
+            IloIntVar[] z = new IloIntVar[patterns.size()];
+            IloLinearNumExpr[] rows = new IloLinearNumExpr[types.size()];
+            for (int t = 0; t < types.size(); t++) {
+                rows[t] = cplex.linearNumExpr();
+            }
+            for (int p = 0; p < patterns.size(); p++) {
+                int[] pattern = patterns.get(p);
+                int upper = Integer.MAX_VALUE;
+                for (int start = 0, end; start < pattern.length; start = end) {
+                    // 模式中类型不减，同一类型的件连续出现
+                    end = start + 1;
+                    while (end < pattern.length && pattern[end] == pattern[start]) {
+                        end++;
+                    }
+                    upper = Math.min(upper, types.count(pattern[start]) / (end - start));
+                }
+                z[p] = cplex.intVar(0, upper, "z_" + p);
+                for (int start = 0, end; start < pattern.length; start = end) {
+                    end = start + 1;
+                    while (end < pattern.length && pattern[end] == pattern[start]) {
+                        end++;
+                    }
+                    rows[pattern[start]].addTerm(end - start, z[p]);
+                }
+            }
+            // 每个类型的PieceStep恰好全部分配
+            for (int t = 0; t < types.size(); t++) {
+                cplex.addEq(rows[t], types.count(t));
+            }
+
+            // 目标函数: 最小化使用的Batch数量，组合下界作为目标割
+            IloLinearNumExpr objective = cplex.linearNumExpr();
+            for (IloIntVar var : z) {
+                objective.addTerm(1, var);
+            }
+            cplex.addMinimize(objective);
+            int bound = BatchLowerBound.of(sorted);
+            cplex.addGe(objective, bound);
+
+            addMipStart(cplex, z, patterns, types, context.getIncumbent());
+
+            solverMetrics.recordModel(NAME, BatchFormulation.AGGREGATED, cplex.getNcols(), cplex.getNrows());
+            phase.stop();
+            phase = solverMetrics.start("solver.model.solve", NAME, null);
+
+            boolean solved = CplexBatchSolver.solveCancellable(cplex, context);
+            if (solved) {
+                List<int[]> batchTypes = new ArrayList<>();
+                for (int p = 0; p < z.length; p++) {
+                    long copies = Math.round(cplex.getValue(z[p]));
+                    for (long c = 0; c < copies; c++) {
+                        batchTypes.add(patterns.get(p));
+                    }
+                }
+                result.addAll(types.expand(batchTypes));
+            } else {
+                System.out.println("No solution found.");
+            }
+            groupResult = CplexBatchSolver.toGroupResult(cplex, solved, result, sorted.pieceSteps(), bound, context);
+
+        } catch (IloException e) {
+            phase.error(e);
+            System.err.println("CPLEX Error: " + e);
+        } finally {
+            phase.stop();
+        }
+
+        return groupResult != null ? groupResult : context.fallbackResult(sorted.size());
+    }
+
+    /**
+     * 枚举所有合法模式，每个模式列出各件的类型(不减); 超过limit个时返回null。
+     * 相邻两件厚度兼容，每个类型的件数不超过该类型的PieceStep数量，高度、重量计入对流板，且至少两件为厚件。
+     */
+    static List<int[]> patterns(PieceTypes types, int limit) {
+        List<int[]> patterns = new ArrayList<>();
+        int[] chosen = new int[MAX_PIECES_PER_BATCH];
+        return extend(types, limit, patterns, chosen, 0, 0, 0, 0, 0) ? patterns : null;
+    }
+
+    // 从chosen中最后一件的类型开始继续选取; 超过上限时返回false
+    private static boolean extend(PieceTypes types, int limit, List<int[]> patterns, int[] chosen, int size,
+                                  int run, double height, double weight, int thick) {
+        if (size >= MIN_PIECES_PER_BATCH && thick >= 2) {
+            if (patterns.size() >= limit) {
+                return false;
+            }
+            patterns.add(Arrays.copyOf(chosen, size));
+        }
+        if (size == MAX_PIECES_PER_BATCH) {
+            return true;
+        }
+        int last = size > 0 ? chosen[size - 1] : -1;
+        for (int u = Math.max(last, 0); u < types.size(); u++) {
+            // 类型按厚度升序，一旦不兼容，之后的类型更厚，同样不兼容
+            if (last >= 0 && !isCompatible(types.thickness(last), types.thickness(u))) {
+                break;
+            }
+            // run: 模式末尾与last相同类型的件数
+            int uses = u == last ? run + 1 : 1;
+            double h = height + types.width(u) + CONVECTION_PLATE_HEIGHT;
+            double w = weight + types.weight(u) + CONVECTION_PLATE_WEIGHT;
+            if (uses > types.count(u) || h > HEIGHT_CAPACITY || w > WEIGHT_CAPACITY) {
+                continue;
+            }
+            chosen[size] = u;
+            if (!extend(types, limit, patterns, chosen, size + 1, uses, h, w,
+                    thick + (isThick(types.thickness(u)) ? 1 : 0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 把初始解中的合法Batch映射到模式，作为(部分)MIP start
+    private static void addMipStart(IloCplex cplex, IloIntVar[] z, List<int[]> patterns, PieceTypes types,
+                                    List<Batch> incumbent) throws IloException {
+        if (incumbent.isEmpty()) {
+            return;
+        }
+        Map<List<Integer>, Integer> patternIndex = new HashMap<>();
+        for (int p = 0; p < patterns.size(); p++) {
+            patternIndex.put(Arrays.stream(patterns.get(p)).boxed().toList(), p);
+        }
+        Map<PieceStep, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < types.pieces().size(); i++) {
+            index.put(types.pieces().piece(i), i);
+        }
+        int[] typeOf = types.typeOf();
+
+        Map<Integer, Integer> copies = new LinkedHashMap<>();
+        for (Batch batch : incumbent) {
+            List<Integer> pattern = new ArrayList<>();
+            for (PieceStep piece : batch.getPieceSteps()) {
+                Integer i = index.get(piece);
+                if (i == null) {
+                    pattern = null;
+                    break;
+                }
+                pattern.add(typeOf[i]);
+            }
+            if (pattern == null) {
+                continue;
+            }
+            Collections.sort(pattern);
+            Integer p = patternIndex.get(pattern);
+            if (p != null) {
+                copies.merge(p, 1, Integer::sum);
+            }
+        }
+        if (copies.isEmpty()) {
+            return;
+        }
+        IloNumVar[] vars = new IloNumVar[copies.size()];
+        double[] values = new double[copies.size()];
+        int s = 0;
+        for (Map.Entry<Integer, Integer> entry : copies.entrySet()) {
+            vars[s] = z[entry.getKey()];
+            values[s] = entry.getValue();
+            s++;
+        }
+        cplex.addMIPStart(vars, values);
+    }
+}
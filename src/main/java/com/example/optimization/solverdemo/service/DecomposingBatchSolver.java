@@ -0,0 +1,344 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 按厚度分解温度组后交给delegate求解。
+ * <p>
+ * 排序后相邻厚度差超过{@link BatchRules#MAX_THICKNESS_DIFF}的位置把温度组分成互不相关的部分，
+ * 任何合法Batch都不能跨越这样的间隔，因此这一步分解是精确的: 各部分的最优解合起来即为整组的最优解，
+ * 下界可以相加，任何一部分无解则整组无解。
+ * <p>
+ * 超过windowSize的部分再切成厚度窗口(在名义切点附近选厚度间隔最大的位置)，并行求解后拼接，
+ * 最后依次重新求解每个窗口边界两侧{@link #BOUNDARY_MARGIN}内的Batch和窗口未能分配的PieceStep。
+ * 窗口分解不保证最优，这些部分只用组合下界{@link BatchLowerBound}判断最优性。
+ */
+public class DecomposingBatchSolver implements BatchSolver {
+    // 边界修复时释放的Batch与边界的厚度距离
+    static final double BOUNDARY_MARGIN = MAX_THICKNESS_DIFF;
+    // 切点可以偏离名义位置的比例
+    private static final double CUT_TOLERANCE = 0.1;
+    // 有窗口需要边界修复时，窗口求解使用的剩余时间比例
+    private static final double WINDOW_TIME_SHARE = 0.8;
+
+    private final BatchSolver delegate;
+    private final Executor executor;
+    private final int windowSize;
+
+    /**
+     * @param windowSize 单个子问题的PieceStep数量上限，0表示只按厚度间隔分解
+     */
+    public DecomposingBatchSolver(BatchSolver delegate, Executor executor, int windowSize) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        List<List<List<PieceStep>>> components = new ArrayList<>();
+        List<List<PieceStep>> parts = new ArrayList<>();
+        for (List<PieceStep> component : components(pieceSteps)) {
+            List<List<PieceStep>> windows = windows(component);
+            components.add(windows);
+            parts.addAll(windows);
+        }
+        if (parts.size() == 1) {
+            return delegate.solve(pieceSteps, context);
+        }
+        boolean windowed = components.size() < parts.size();
+
+        // 各子问题并行求解，线程平均分配; 需要边界修复时给修复留出时间
+        int partThreads = context.getThreads() > 0 ? Math.max(1, context.getThreads() / parts.size()) : 0;
+        long partDeadline = windowed && context.hasDeadline()
+                ? System.nanoTime() + (long) ((context.getDeadline() - System.nanoTime()) * WINDOW_TIME_SHARE)
+                : context.getDeadline();
+        IncumbentStitcher stitcher = context.getIncumbentListener() != null
+                ? new IncumbentStitcher(context, parts)
+                : null;
+        List<SolveContext> children = new ArrayList<>();
+        List<CompletableFuture<GroupSolveResult>> futures = new ArrayList<>();
+        for (int p = 0; p < parts.size(); p++) {
+            SolveContext child = context.child();
+            child.setThreads(partThreads);
+            child.setDeadline(partDeadline);
+            child.setIncumbent(restrict(context.getIncumbent(), parts.get(p)));
+            int part = p;
+            child.setIncumbentListener(stitcher != null ? result -> stitcher.offer(part, result.getBatches()) : null);
+            children.add(child);
+        }
+
+        List<GroupSolveResult> componentResults = new ArrayList<>();
+        try {
+            // 第一个子问题在当前线程求解，线程池较小时也至少有两个子问题同时推进
+            for (int p = 1; p < parts.size(); p++) {
+                List<PieceStep> own = parts.get(p);
+                SolveContext child = children.get(p);
+                futures.add(CompletableFuture.supplyAsync(() -> delegate.solve(own, child), executor));
+            }
+            futures.add(0, CompletableFuture.completedFuture(delegate.solve(parts.get(0), children.get(0))));
+
+            int next = 0;
+            for (List<List<PieceStep>> windows : components) {
+                List<GroupSolveResult> windowResults = new ArrayList<>();
+                for (int w = 0; w < windows.size(); w++) {
+                    windowResults.add(join(futures.get(next++)));
+                }
+                componentResults.add(windows.size() == 1
+                        ? windowResults.get(0)
+                        : stitch(windows, windowResults, context));
+            }
+        } catch (RuntimeException | Error e) {
+            // 某个子问题失败时停止其余子问题
+            children.forEach(SolveContext::cancel);
+            throw e;
+        } finally {
+            children.forEach(SolveContext::close);
+        }
+        return combine(pieceSteps, componentResults, context);
+    }
+
+    // 按相邻厚度差超过MAX_THICKNESS_DIFF的位置切分(pieceSteps已按厚度升序排列)
+    static List<List<PieceStep>> components(List<PieceStep> pieceSteps) {
+        PieceColumns columns = PieceColumns.of(pieceSteps);
+        List<List<PieceStep>> components = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= columns.size(); i++) {
+            if (i == columns.size() || !isCompatible(columns.thickness(i - 1), columns.thickness(i))) {
+                components.add(columns.slice(start, i).pieceSteps());
+                start = i;
+            }
+        }
+        return components;
+    }
+
+    // 把一个部分切成大小相近的窗口，切点选在名义位置附近厚度间隔最大处
+    private List<List<PieceStep>> windows(List<PieceStep> component) {
+        int n = component.size();
+        if (windowSize <= 0 || n <= windowSize) {
+            return List.of(component);
+        }
+        PieceColumns columns = PieceColumns.of(component);
+        int count = (n + windowSize - 1) / windowSize;
+        int tolerance = (int) (n / count * CUT_TOLERANCE);
+        List<List<PieceStep>> windows = new ArrayList<>();
+        int start = 0;
+        for (int w = 1; w < count; w++) {
+            int nominal = (int) ((long) n * w / count);
+            int cut = nominal;
+            double widest = -1;
+            for (int i = Math.max(start + 1, nominal - tolerance); i <= Math.min(n - 1, nominal + tolerance); i++) {
+                double gap = columns.thickness(i) - columns.thickness(i - 1);
+                if (gap > widest) {
+                    widest = gap;
+                    cut = i;
+                }
+            }
+            windows.add(columns.slice(start, cut).pieceSteps());
+            start = cut;
+        }
+        windows.add(columns.slice(start, n).pieceSteps());
+        return windows;
+    }
+
+    /**
+     * 拼接窗口的结果并依次修复每个边界: 边界两侧的窗口中未分配的PieceStep，
+     * 加上厚度范围与[边界 - margin, 边界 + margin]及这些PieceStep的厚度相交的Batch，一起重新求解;
+     * 修复结果覆盖全部PieceStep且分配了新的PieceStep或减少了Batch时采用
+     */
+    private GroupSolveResult stitch(List<List<PieceStep>> windows, List<GroupSolveResult> windowResults,
+                                    SolveContext context) {
+        List<Batch> batches = new ArrayList<>();
+        List<List<PieceStep>> free = new ArrayList<>();
+        long nodes = 0;
+        for (int w = 0; w < windows.size(); w++) {
+            GroupSolveResult result = windowResults.get(w);
+            nodes += result.getNodes();
+            List<Batch> windowBatches = covers(result, windows.get(w).size()) ? result.getBatches() : List.of();
+            batches.addAll(windowBatches);
+            free.add(uncovered(windows.get(w), windowBatches));
+        }
+
+        for (int w = 0; w + 1 < windows.size(); w++) {
+            List<PieceStep> boundaryFree = new ArrayList<>(free.get(w));
+            boundaryFree.addAll(free.get(w + 1));
+            double boundary = (last(windows.get(w)).getThickness() + windows.get(w + 1).get(0).getThickness()) / 2;
+            double lo = boundary - BOUNDARY_MARGIN;
+            double hi = boundary + BOUNDARY_MARGIN;
+            for (PieceStep piece : boundaryFree) {
+                lo = Math.min(lo, piece.getThickness() - BOUNDARY_MARGIN);
+                hi = Math.max(hi, piece.getThickness() + BOUNDARY_MARGIN);
+            }
+
+            List<Batch> released = new ArrayList<>();
+            List<PieceStep> subPieces = new ArrayList<>(boundaryFree);
+            for (Batch batch : batches) {
+                DoubleSummaryStatistics range = batch.getPieceSteps().stream()
+                        .mapToDouble(PieceStep::getThickness).summaryStatistics();
+                if (range.getMax() >= lo && range.getMin() <= hi) {
+                    released.add(batch);
+                    subPieces.addAll(batch.getPieceSteps());
+                }
+            }
+            if (subPieces.isEmpty()) {
+                continue;
+            }
+            subPieces.sort(Comparator.comparing(PieceStep::getThickness));
+
+            GroupSolveResult repaired;
+            try (SolveContext repairContext = context.child()) {
+                repairContext.setIncumbent(released);
+                repairContext.setIncumbentListener(null);
+                repaired = delegate.solve(subPieces, repairContext);
+            }
+            nodes += repaired.getNodes();
+            if (covers(repaired, subPieces.size())
+                    && (!boundaryFree.isEmpty() || repaired.getBatches().size() < released.size())) {
+                batches.removeAll(released);
+                batches.addAll(repaired.getBatches());
+                free.set(w, new ArrayList<>());
+                free.set(w + 1, new ArrayList<>());
+            }
+        }
+
+        int lowerBound = BatchLowerBound.of(windows.stream().flatMap(List::stream).toList());
+        if (free.stream().anyMatch(pieces -> !pieces.isEmpty())) {
+            return GroupSolveResult.of(context.getTemperature(), batches, SolveStatus.NO_SOLUTION, lowerBound, nodes);
+        }
+        SolveStatus status = batches.size() <= lowerBound ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+        return GroupSolveResult.of(context.getTemperature(), batches, status, lowerBound, nodes);
+    }
+
+    // 合并各部分的结果: 任一部分无解则整组无解，下界相加
+    static GroupSolveResult combine(List<PieceStep> pieceSteps, List<GroupSolveResult> results,
+                                            SolveContext context) {
+        List<Batch> batches = new ArrayList<>();
+        Integer lowerBound = 0;
+        long nodes = 0;
+        boolean optimal = true;
+        boolean complete = true;
+        for (GroupSolveResult result : results) {
+            nodes += result.getNodes();
+            if (result.getStatus() == SolveStatus.INFEASIBLE) {
+                return GroupSolveResult.of(context.getTemperature(), new ArrayList<>(), SolveStatus.INFEASIBLE,
+                        null, nodes);
+            }
+            complete &= result.getStatus() == SolveStatus.OPTIMAL || result.getStatus() == SolveStatus.FEASIBLE;
+            optimal &= result.isOptimal();
+            lowerBound = lowerBound == null || result.getLowerBound() == null
+                    ? null
+                    : lowerBound + result.getLowerBound();
+            batches.addAll(result.getBatches());
+        }
+        if (!complete) {
+            GroupSolveResult fallback = context.fallbackResult(pieceSteps.size());
+            return fallback.toBuilder().nodes(nodes).build();
+        }
+        SolveStatus status = optimal || (lowerBound != null && batches.size() <= lowerBound)
+                ? SolveStatus.OPTIMAL
+                : SolveStatus.FEASIBLE;
+        return GroupSolveResult.of(context.getTemperature(), renumber(batches), status, lowerBound, nodes);
+    }
+
+    // 初始解中完全属于该子问题的Batch
+    private static List<Batch> restrict(List<Batch> incumbent, List<PieceStep> part) {
+        Set<PieceStep> members = Collections.newSetFromMap(new IdentityHashMap<>());
+        members.addAll(part);
+        List<Batch> restricted = new ArrayList<>();
+        for (Batch batch : incumbent) {
+            if (batch.getPieceSteps().stream().allMatch(members::contains)) {
+                restricted.add(batch);
+            }
+        }
+        return restricted;
+    }
+
+    private static List<PieceStep> uncovered(List<PieceStep> pieces, List<Batch> batches) {
+        Set<PieceStep> covered = Collections.newSetFromMap(new IdentityHashMap<>());
+        batches.forEach(batch -> covered.addAll(batch.getPieceSteps()));
+        List<PieceStep> uncovered = new ArrayList<>();
+        for (PieceStep piece : pieces) {
+            if (!covered.contains(piece)) {
+                uncovered.add(piece);
+            }
+        }
+        return uncovered;
+    }
+
+    private static boolean covers(GroupSolveResult result, int pieceCount) {
+        boolean feasible = result.getStatus() == SolveStatus.OPTIMAL || result.getStatus() == SolveStatus.FEASIBLE;
+        return feasible && result.getBatches().stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() == pieceCount;
+    }
+
+    // 各子问题的Batch id会重复，合并后重新编号
+    private static List<Batch> renumber(List<Batch> batches) {
+        List<Batch> renumbered = new ArrayList<>();
+        for (Batch batch : batches) {
+            renumbered.add(toBatch("Batch_" + renumbered.size(), batch.getPieceSteps()));
+        }
+        return renumbered;
+    }
+
+    private static PieceStep last(List<PieceStep> pieces) {
+        return pieces.get(pieces.size() - 1);
+    }
+
+    // 子问题失败时按原样抛出，与不分解时一致
+    private static GroupSolveResult join(CompletableFuture<GroupSolveResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 合并子问题报告的可行解: 每个子问题都有完整方案后，把各子问题当前最好的方案拼成整组的可行解报告出去
+     */
+    private static final class IncumbentStitcher {
+        private final SolveContext context;
+        private final List<List<Batch>> best = new ArrayList<>();
+
+        IncumbentStitcher(SolveContext context, List<List<PieceStep>> parts) {
+            this.context = context;
+            for (List<PieceStep> part : parts) {
+                List<Batch> restricted = restrict(context.getIncumbent(), part);
+                int covered = restricted.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum();
+                best.add(covered == part.size() ? restricted : null);
+            }
+        }
+
+        synchronized void offer(int part, List<Batch> batches) {
+            if (best.get(part) != null && best.get(part).size() <= batches.size()) {
+                return;
+            }
+            best.set(part, batches);
+            if (best.stream().allMatch(Objects::nonNull)) {
+                List<Batch> combined = new ArrayList<>();
+                best.forEach(combined::addAll);
+                context.reportIncumbent(renumber(combined));
+            }
+        }
+    }
+}
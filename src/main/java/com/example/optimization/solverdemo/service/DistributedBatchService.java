@@ -0,0 +1,291 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PresolveIssue;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 分布式求解的协调节点。
+ * <p>
+ * 请求按温度分组，decompose为true时再按厚度间隔切成互不相关的部分(见{@link DecomposingBatchSolver})，
+ * 每个部分作为子问题通过HTTP发给工作节点(同一应用的其他实例，见{@code POST /api/batches/distributed/subproblems})。
+ * 子问题按估计的模型规模从大到小分配，每次选择已分配未完成的规模之和最小的节点;
+ * 某个节点失败(连接失败、超时、返回错误或结果不完整)时改发到尚未尝试过的节点，
+ * 重试次数用完或没有其他节点时在本机求解; 本机求解使用温度组线程池，不占用等待HTTP响应的线程。
+ * 同一温度组各部分的结果按分解的规则合并。
+ */
+@Service
+public class DistributedBatchService {
+    static final String SUBPROBLEM_PATH = "/api/batches/distributed/subproblems";
+
+    private final SolverProperties solverProperties;
+    private final Executor workerClientExecutor;
+    private final Executor batchSolverExecutor;
+    private final BatchOptimizerService batchOptimizerService;
+    private final RestClient restClient;
+
+    @Autowired
+    public DistributedBatchService(SolverProperties solverProperties,
+                                   @Qualifier("workerClientExecutor") Executor workerClientExecutor,
+                                   @Qualifier("batchSolverExecutor") Executor batchSolverExecutor,
+                                   BatchOptimizerService batchOptimizerService,
+                                   RestClient.Builder restClientBuilder) {
+        this.solverProperties = solverProperties;
+        this.workerClientExecutor = workerClientExecutor;
+        this.batchSolverExecutor = batchSolverExecutor;
+        this.batchOptimizerService = batchOptimizerService;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+        requestFactory.setReadTimeout(solverProperties.getWorkerTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    // 使用solver.workers配置的工作节点
+    public BatchPlanResult planBatches(List<PieceStep> allPieceSteps, BatchSolveOptions options) {
+        return planBatches(allPieceSteps, options, solverProperties.getWorkers());
+    }
+
+    /**
+     * 把请求分给workers求解，按温度在输入中首次出现的顺序返回各组结果。
+     * 求解器名称未知时抛出IllegalArgumentException。
+     */
+    public BatchPlanResult planBatches(List<PieceStep> allPieceSteps, BatchSolveOptions options, List<String> workers) {
+        batchOptimizerService.validate(options);
+        Dispatcher dispatcher = new Dispatcher(workers, options);
+
+        // 按温度分组，组内按厚度排序，再按厚度间隔切分
+        Map<String, List<PieceStep>> groups = new LinkedHashMap<>();
+        Map<String, List<Subproblem>> parts = new LinkedHashMap<>();
+        List<Subproblem> subproblems = new ArrayList<>();
+        PieceColumns.of(allPieceSteps).byTemperature().forEach((temperature, columns) -> {
+            List<PieceStep> sorted = columns.sortedByThickness().pieceSteps();
+            groups.put(temperature, sorted);
+            List<List<PieceStep>> components = options.isDecompose()
+                    ? DecomposingBatchSolver.components(sorted)
+                    : List.of(sorted);
+            for (List<PieceStep> component : components) {
+                Subproblem subproblem = new Subproblem(temperature, component,
+                        estimatedSize(component.size(), options.getFormulation()));
+                parts.computeIfAbsent(temperature, t -> new ArrayList<>()).add(subproblem);
+                subproblems.add(subproblem);
+            }
+        });
+
+        // 从大到小分配，使各节点的负载接近
+        subproblems.sort(Comparator.comparingLong(Subproblem::size).reversed());
+        for (Subproblem subproblem : subproblems) {
+            subproblem.result = dispatcher.submit(subproblem);
+        }
+
+        List<GroupSolveResult> results = new ArrayList<>();
+        for (Map.Entry<String, List<Subproblem>> entry : parts.entrySet()) {
+            List<GroupSolveResult> partResults = new ArrayList<>();
+            for (Subproblem subproblem : entry.getValue()) {
+                partResults.add(join(subproblem.result));
+            }
+            results.add(partResults.size() == 1
+                    ? partResults.get(0)
+                    : DecomposingBatchSolver.combine(groups.get(entry.getKey()), partResults,
+                    SolveContext.builder().temperature(entry.getKey()).build()));
+        }
+        return new BatchPlanResult(results);
+    }
+
+    /**
+     * 估计的模型规模(变量数量级): 位置模型约为 n·batches·5，紧凑模型约为 n·batches，
+     * 其余模型(列生成、类型聚合、纯Java引擎)按n计
+     */
+    static long estimatedSize(int pieceCount, BatchFormulation formulation) {
+        long batches = (pieceCount + MIN_PIECES_PER_BATCH - 1) / MIN_PIECES_PER_BATCH;
+        return switch (formulation) {
+            case POSITIONAL -> pieceCount * batches * MAX_PIECES_PER_BATCH;
+            case COMPACT -> pieceCount * batches;
+            default -> pieceCount;
+        };
+    }
+
+    // 在本机求解子问题
+    private GroupSolveResult solveLocally(Subproblem subproblem, BatchSolveOptions options) {
+        return batchOptimizerService.planGroup(subproblem.temperature(), subproblem.pieceSteps(), options,
+                SolveContext.builder().build());
+    }
+
+    /**
+     * 在工作节点求解子问题，结果中的PieceStep映射回本地对象。
+     * 以下情况视为本次尝试失败并抛出异常以便重试: 返回未知或重复的PieceStep，
+     * 漏掉PieceStep(预处理报告中无法分批而被去掉的除外)，Batch不满足BatchRules，
+     * 状态不是INFEASIBLE却没有任何Batch，或下界超过返回的Batch数量。
+     * 状态按下界(工作节点的下界与本地组合下界中较大者)重新判定
+     */
+    private GroupSolveResult solveRemotely(String worker, Subproblem subproblem, BatchSolveOptions options) {
+        GroupSolveResult result = restClient.post()
+                .uri(worker + SUBPROBLEM_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new SubproblemRequest(subproblem.temperature(), subproblem.pieceSteps(), options))
+                .retrieve()
+                .body(GroupSolveResult.class);
+        if (result == null || result.getStatus() == null) {
+            throw new IllegalStateException("Empty response from " + worker);
+        }
+        if (result.getStatus() == SolveStatus.INFEASIBLE) {
+            return result.toBuilder().temperature(subproblem.temperature()).batches(new ArrayList<>()).build();
+        }
+        if (result.getBatches() == null || result.getBatches().isEmpty()) {
+            throw new IllegalStateException(worker + " returned " + result.getStatus() + " without batches");
+        }
+        Map<String, PieceStep> byId = new HashMap<>();
+        for (PieceStep piece : subproblem.pieceSteps()) {
+            byId.put(piece.getPieceStepId(), piece);
+        }
+        List<Batch> batches = new ArrayList<>();
+        for (Batch batch : result.getBatches()) {
+            List<PieceStep> batchPieces = new ArrayList<>();
+            for (PieceStep piece : batch.getPieceSteps()) {
+                PieceStep own = byId.remove(piece.getPieceStepId());
+                if (own == null) {
+                    throw new IllegalStateException(worker + " returned unknown or repeated piece "
+                            + piece.getPieceStepId());
+                }
+                batchPieces.add(own);
+            }
+            if (!isValidBatch(batchPieces)) {
+                throw new IllegalStateException(worker + " returned invalid batch " + batch.getBatchId());
+            }
+            batches.add(toBatch(batch.getBatchId(), batchPieces));
+        }
+        // 剩下的只能是预处理确认无法分批的PieceStep
+        if (result.getPresolve() != null) {
+            for (PresolveIssue issue : result.getPresolve().getIssues()) {
+                issue.getPieceStepIds().forEach(byId::remove);
+            }
+        }
+        if (!byId.isEmpty()) {
+            throw new IllegalStateException(worker + " left " + byId.size() + " of "
+                    + subproblem.pieceSteps().size() + " pieces unassigned");
+        }
+        List<PieceStep> assigned = batches.stream().flatMap(batch -> batch.getPieceSteps().stream()).toList();
+        int lowerBound = BatchLowerBound.of(assigned);
+        if (result.getLowerBound() != null) {
+            if (result.getLowerBound() > batches.size()) {
+                throw new IllegalStateException(worker + " reported lower bound " + result.getLowerBound()
+                        + " above its " + batches.size() + " batches");
+            }
+            lowerBound = Math.max(lowerBound, result.getLowerBound());
+        }
+        SolveStatus status = batches.size() <= lowerBound ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+        return GroupSolveResult.of(subproblem.temperature(), batches, status, lowerBound, result.getNodes())
+                .toBuilder().presolve(result.getPresolve()).build();
+    }
+
+    private static GroupSolveResult join(CompletableFuture<GroupSolveResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Subproblem {
+        private final String temperature;
+        private final List<PieceStep> pieceSteps;
+        private final long size;
+        private CompletableFuture<GroupSolveResult> result;
+
+        Subproblem(String temperature, List<PieceStep> pieceSteps, long size) {
+            this.temperature = temperature;
+            this.pieceSteps = pieceSteps;
+            this.size = size;
+        }
+
+        String temperature() {
+            return temperature;
+        }
+
+        List<PieceStep> pieceSteps() {
+            return pieceSteps;
+        }
+
+        long size() {
+            return size;
+        }
+    }
+
+    // 记录每个节点已分配未完成的估计规模，选择负载最小且未尝试过的节点
+    private final class Dispatcher {
+        private final List<String> workers;
+        private final BatchSolveOptions options;
+        private final long[] load;
+
+        Dispatcher(List<String> workers, BatchSolveOptions options) {
+            this.workers = workers;
+            this.options = options;
+            this.load = new long[workers.size()];
+        }
+
+        CompletableFuture<GroupSolveResult> submit(Subproblem subproblem) {
+            return submit(subproblem, new HashSet<>(), 0);
+        }
+
+        private CompletableFuture<GroupSolveResult> submit(Subproblem subproblem, Set<Integer> tried, int attempt) {
+            int worker = attempt <= solverProperties.getWorkerRetries() ? acquire(subproblem, tried) : -1;
+            if (worker < 0) {
+                if (!workers.isEmpty()) {
+                    System.err.println("No worker left for " + subproblem.temperature() + " ("
+                            + subproblem.pieceSteps().size() + " pieces), solving locally");
+                }
+                return CompletableFuture.supplyAsync(() -> solveLocally(subproblem, options), batchSolverExecutor);
+            }
+            String url = workers.get(worker);
+            return CompletableFuture
+                    .supplyAsync(() -> solveRemotely(url, subproblem, options), workerClientExecutor)
+                    .handle((result, error) -> {
+                        release(worker, subproblem);
+                        if (error == null) {
+                            return CompletableFuture.completedFuture(result);
+                        }
+                        System.err.println("Worker " + url + " failed on " + subproblem.temperature() + ": "
+                                + (error.getCause() != null ? error.getCause() : error));
+                        tried.add(worker);
+                        return submit(subproblem, tried, attempt + 1);
+                    })
+                    .thenCompose(Function.identity());
+        }
+
+        private synchronized int acquire(Subproblem subproblem, Set<Integer> tried) {
+            int best = -1;
+            for (int w = 0; w < workers.size(); w++) {
+                if (!tried.contains(w) && (best < 0 || load[w] < load[best])) {
+                    best = w;
+                }
+            }
+            if (best >= 0) {
+                load[best] += subproblem.size();
+            }
+            return best;
+        }
+
+        private synchronized void release(int worker, Subproblem subproblem) {
+            load[worker] -= subproblem.size();
+        }
+    }
+}
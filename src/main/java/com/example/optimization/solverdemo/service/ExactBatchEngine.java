@@ -0,0 +1,390 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 不依赖本地求解器的精确分批引擎(分支定界)。
+ * <p>
+ * 一个Batch满足厚度约束当且仅当: 至少两个PieceStep厚度>=0.7，且按厚度排序后相邻差值都<=0.3
+ * (按厚度降序摆放即可)。因此按厚度升序扫描PieceStep，每个PieceStep要么加入一个仍"打开"的Batch，
+ * 要么新开一个Batch; 当扫描到的厚度与某个Batch最后加入的厚度相差>0.3时，该Batch再也无法加入
+ * PieceStep，必须已经合法。搜索用数量、高度、重量、厚件数量下界剪枝，并用置换表去掉重复状态。
+ */
+@Component
+public class ExactBatchEngine implements BatchSolver {
+    public static final String NAME = "exact";
+
+    // 置换表容量上限，超过后清空
+    private static final int MAX_TRANSPOSITIONS = 2_000_000;
+
+    /**
+     * 求解单个温度组的最少Batch数量
+     *
+     * @param pieceSteps       同一温度组的PieceStep
+     * @param timeLimitSeconds 时间上限，null表示不限
+     */
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, Double timeLimitSeconds) {
+        long deadline = timeLimitSeconds == null
+                ? Long.MAX_VALUE
+                : System.nanoTime() + (long) (timeLimitSeconds * 1_000_000_000L);
+        return solve(pieceSteps, SolveContext.builder().deadline(deadline).build());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * 求解单个温度组的最少Batch数量; 若context中的初始解覆盖全部PieceStep，则只搜索比它更少的方案
+     */
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        PieceColumns sorted = PieceColumns.of(pieceSteps).sortedByThickness();
+
+        List<Batch> incumbent = context.getIncumbent();
+        boolean completeIncumbent = incumbent.stream().mapToInt(b -> b.getPieceSteps().size()).sum() == sorted.size();
+
+        Search search = new Search(sorted, context);
+        if (completeIncumbent && !incumbent.isEmpty()) {
+            search.best = Math.min(search.best, incumbent.size());
+        }
+        search.run();
+
+        List<Batch> batches = new ArrayList<>();
+        if (search.found) {
+            batches.addAll(search.bestBatches());
+        } else if (completeIncumbent) {
+            batches.addAll(incumbent);
+        }
+
+        boolean exhausted = !search.stopped || batches.size() == search.rootBound;
+        SolveStatus status;
+        if (!batches.isEmpty()) {
+            status = exhausted ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+        } else {
+            status = exhausted ? SolveStatus.INFEASIBLE : SolveStatus.NO_SOLUTION;
+        }
+        return GroupSolveResult.of(context.getTemperature(), batches, status, search.rootBound, search.nodes);
+    }
+
+    // 仍可加入PieceStep的Batch; lastIndex为最后加入(即最厚)的PieceStep下标
+    private record OpenBatch(int seq, int size, double height, double weight, int thick, int lastIndex) {
+    }
+
+    private static final class Search {
+        private static final double HEIGHT_CAPACITY = MAX_HEIGHT + CONVECTION_PLATE_HEIGHT;
+        private static final double WEIGHT_CAPACITY = MAX_WEIGHT + CONVECTION_PLATE_WEIGHT;
+
+        private final int n;
+        // 每个PieceStep占用的高度/重量(含一块对流板，Batch整体再退还一块)
+        private final double[] height;
+        private final double[] weight;
+        private final boolean[] thick;
+        // hi[i]: 第一个与PieceStep i厚度差值>0.3的下标
+        private final int[] hi;
+        // 与前一个PieceStep完全相同(厚度、宽度、重量)
+        private final boolean[] sameAsPrevious;
+        private final double[] suffixHeight;
+        private final double[] suffixWeight;
+        private final int[] suffixThick;
+        private final PieceColumns sorted;
+        private final SolveContext context;
+        private final int maxBatches;
+        private final int rootBound;
+
+        private final int[] assign;
+        private final int[] bestAssign;
+        private final Map<StateKey, Integer> transpositions = new HashMap<>();
+        private int best;
+        private boolean found;
+        private long nodes;
+        private boolean stopped;
+
+        Search(PieceColumns sorted, SolveContext context) {
+            this.n = sorted.size();
+            this.sorted = sorted;
+            this.context = context;
+            this.height = new double[n];
+            this.weight = new double[n];
+            this.thick = new boolean[n];
+            this.hi = new int[n];
+            this.sameAsPrevious = new boolean[n];
+            double[] thickness = new double[n];
+            for (int i = 0; i < n; i++) {
+                thickness[i] = sorted.thickness(i);
+                height[i] = sorted.width(i) + CONVECTION_PLATE_HEIGHT;
+                weight[i] = sorted.weight(i) + CONVECTION_PLATE_WEIGHT;
+                thick[i] = isThick(thickness[i]);
+                sameAsPrevious[i] = i > 0 && thickness[i] == thickness[i - 1]
+                        && height[i] == height[i - 1] && weight[i] == weight[i - 1];
+            }
+            for (int i = 0, h = 0; i < n; i++) {
+                h = Math.max(h, i);
+                while (h < n && isCompatible(thickness[i], thickness[h])) {
+                    h++;
+                }
+                hi[i] = h;
+            }
+            this.suffixHeight = new double[n + 1];
+            this.suffixWeight = new double[n + 1];
+            this.suffixThick = new int[n + 1];
+            for (int i = n - 1; i >= 0; i--) {
+                suffixHeight[i] = suffixHeight[i + 1] + height[i];
+                suffixWeight[i] = suffixWeight[i + 1] + weight[i];
+                suffixThick[i] = suffixThick[i + 1] + (thick[i] ? 1 : 0);
+            }
+            this.maxBatches = n / MIN_PIECES_PER_BATCH;
+            this.rootBound = Math.max(lowerBound(0, new OpenBatch[0], 0), BatchLowerBound.of(sorted));
+            this.assign = new int[n];
+            this.bestAssign = new int[n];
+            this.best = maxBatches + 1;
+        }
+
+        // 当前最好解对应的Batch，按厚度降序放入，前两个即为最厚的两个
+        List<Batch> bestBatches() {
+            int[] sizes = new int[best];
+            for (int i = 0; i < n; i++) {
+                sizes[bestAssign[i]]++;
+            }
+            int[][] grouped = new int[best][];
+            for (int b = 0; b < best; b++) {
+                grouped[b] = new int[sizes[b]];
+                sizes[b] = 0;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                grouped[bestAssign[i]][sizes[bestAssign[i]]++] = i;
+            }
+            List<Batch> batches = new ArrayList<>();
+            for (int b = 0; b < best; b++) {
+                batches.add(sorted.toBatch("Batch_" + b, grouped[b]));
+            }
+            return batches;
+        }
+
+        void run() {
+            if (rootBound > maxBatches || best <= rootBound) {
+                return;
+            }
+            dfs(0, new OpenBatch[0], 0, -1);
+        }
+
+        private void dfs(int pos, OpenBatch[] open, int opened, int previousSeq) {
+            if ((++nodes & 1023) == 0 && context.shouldStop()) {
+                stopped = true;
+            }
+            if (stopped) {
+                return;
+            }
+
+            // 关闭无法再加入PieceStep的Batch，它们必须已经合法
+            int expired = 0;
+            for (OpenBatch batch : open) {
+                if (pos == n || hi[batch.lastIndex()] <= pos) {
+                    if (batch.size() < MIN_PIECES_PER_BATCH || batch.thick() < 2) {
+                        return;
+                    }
+                    expired++;
+                }
+            }
+            if (pos == n) {
+                best = opened;
+                found = true;
+                System.arraycopy(assign, 0, bestAssign, 0, n);
+                if (context.getIncumbentListener() != null) {
+                    context.reportIncumbent(bestBatches());
+                }
+                if (best <= rootBound) {
+                    stopped = true;
+                }
+                return;
+            }
+            OpenBatch[] active = open;
+            if (expired > 0) {
+                active = new OpenBatch[open.length - expired];
+                int k = 0;
+                for (OpenBatch batch : open) {
+                    if (hi[batch.lastIndex()] > pos) {
+                        active[k++] = batch;
+                    }
+                }
+            }
+
+            if (lowerBound(pos, active, opened) >= best) {
+                return;
+            }
+            if (!sameAsPrevious[pos]) {
+                StateKey key = new StateKey(pos, active, hi);
+                Integer seen = transpositions.get(key);
+                if (seen != null && seen <= opened) {
+                    return;
+                }
+                if (transpositions.size() >= MAX_TRANSPOSITIONS) {
+                    transpositions.clear();
+                }
+                transpositions.put(key, opened);
+            }
+
+            // 优先加入最早到期的Batch，其次是最满的Batch
+            OpenBatch[] candidates = active.clone();
+            Arrays.sort(candidates, Comparator.comparingInt((OpenBatch b) -> hi[b.lastIndex()])
+                    .thenComparing(OpenBatch::size, Comparator.reverseOrder()));
+            for (int c = 0; c < candidates.length; c++) {
+                OpenBatch batch = candidates[c];
+                // 相同的PieceStep按Batch编号非递减分配，去掉交换对称
+                if (sameAsPrevious[pos] && batch.seq() < previousSeq) {
+                    continue;
+                }
+                if (batch.height() + height[pos] > HEIGHT_CAPACITY || batch.weight() + weight[pos] > WEIGHT_CAPACITY) {
+                    continue;
+                }
+                if (hasEquivalent(candidates, c, previousSeq, pos)) {
+                    continue;
+                }
+                OpenBatch joined = new OpenBatch(batch.seq(), batch.size() + 1, batch.height() + height[pos],
+                        batch.weight() + weight[pos], batch.thick() + (thick[pos] ? 1 : 0), pos);
+                boolean full = joined.size() == MAX_PIECES_PER_BATCH;
+                if (full && joined.thick() < 2) {
+                    continue;
+                }
+                OpenBatch[] next = new OpenBatch[full ? active.length - 1 : active.length];
+                int k = 0;
+                for (OpenBatch other : active) {
+                    if (other != batch) {
+                        next[k++] = other;
+                    }
+                }
+                if (!full) {
+                    next[k] = joined;
+                }
+                assign[pos] = batch.seq();
+                dfs(pos + 1, next, opened, batch.seq());
+                if (stopped) {
+                    return;
+                }
+            }
+
+            // 新开一个Batch
+            if (opened + 1 < best) {
+                OpenBatch created = new OpenBatch(opened, 1, height[pos], weight[pos], thick[pos] ? 1 : 0, pos);
+                OpenBatch[] next = Arrays.copyOf(active, active.length + 1);
+                next[active.length] = created;
+                assign[pos] = opened;
+                dfs(pos + 1, next, opened + 1, opened);
+            }
+        }
+
+        // 之前已尝试过状态完全相同的Batch，则跳过(受相同PieceStep编号规则限制的除外)
+        private boolean hasEquivalent(OpenBatch[] candidates, int c, int previousSeq, int pos) {
+            OpenBatch batch = candidates[c];
+            for (int e = 0; e < c; e++) {
+                OpenBatch other = candidates[e];
+                if (sameAsPrevious[pos] && other.seq() < previousSeq) {
+                    continue;
+                }
+                if (other.size() == batch.size() && other.thick() == batch.thick()
+                        && other.height() == batch.height() && other.weight() == batch.weight()
+                        && hi[other.lastIndex()] == hi[batch.lastIndex()]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // 已开Batch数 + 剩余PieceStep至少还需新开的Batch数; 不可行时返回 Integer.MAX_VALUE
+        private int lowerBound(int pos, OpenBatch[] active, int opened) {
+            int remaining = n - pos;
+            int capacity = 0;
+            int need = 0;
+            int thickNeed = 0;
+            double heightSlack = 0;
+            double weightSlack = 0;
+            int[] deadlines = new int[active.length];
+            int incomplete = 0;
+            for (OpenBatch batch : active) {
+                // 补足4个且补足两个厚件至少还需要的PieceStep数
+                int batchNeed = Math.max(MIN_PIECES_PER_BATCH - batch.size(), 2 - batch.thick());
+                if (batchNeed > MAX_PIECES_PER_BATCH - batch.size()) {
+                    return Integer.MAX_VALUE;
+                }
+                if (batchNeed > 0) {
+                    deadlines[incomplete++] = hi[batch.lastIndex()];
+                }
+                capacity += MAX_PIECES_PER_BATCH - batch.size();
+                need += Math.max(0, batchNeed);
+                thickNeed += Math.max(0, 2 - batch.thick());
+                heightSlack += HEIGHT_CAPACITY - batch.height();
+                weightSlack += WEIGHT_CAPACITY - batch.weight();
+            }
+            if (need > remaining || thickNeed > suffixThick[pos]) {
+                return Integer.MAX_VALUE;
+            }
+            // 每个未完成的Batch在到期前至少还要分到一个不同的PieceStep
+            Arrays.sort(deadlines, 0, incomplete);
+            for (int k = 0; k < incomplete; k++) {
+                if (deadlines[k] - pos < k + 1) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+            int byCount = ceilDiv(remaining - capacity, MAX_PIECES_PER_BATCH);
+            int byHeight = (int) Math.ceil((suffixHeight[pos] - heightSlack) / HEIGHT_CAPACITY - 1e-9);
+            int byWeight = (int) Math.ceil((suffixWeight[pos] - weightSlack) / WEIGHT_CAPACITY - 1e-9);
+            int extra = Math.max(0, Math.max(byCount, Math.max(byHeight, byWeight)));
+            // 每个新Batch需要两个厚件
+            if (thickNeed + 2 * extra > suffixThick[pos]) {
+                return Integer.MAX_VALUE;
+            }
+            return opened + extra;
+        }
+
+        private static int ceilDiv(int a, int b) {
+            return a <= 0 ? 0 : (a + b - 1) / b;
+        }
+    }
+
+    // 置换表键: 扫描位置 + 打开Batch状态的多重集(与Batch编号无关，最后加入的PieceStep只保留其到期位置)
+    private static final class StateKey {
+        private final int pos;
+        private final long[] state;
+        private final int hash;
+
+        StateKey(int pos, OpenBatch[] active, int[] hi) {
+            this.pos = pos;
+            long[][] rows = new long[active.length][];
+            for (int k = 0; k < active.length; k++) {
+                OpenBatch batch = active[k];
+                rows[k] = new long[]{
+                        ((long) hi[batch.lastIndex()] << 8) | ((long) batch.size() << 4) | batch.thick(),
+                        Double.doubleToLongBits(batch.height()),
+                        Double.doubleToLongBits(batch.weight())};
+            }
+            Arrays.sort(rows, (r1, r2) -> Arrays.compare(r1, r2));
+            this.state = new long[rows.length * 3];
+            for (int k = 0; k < rows.length; k++) {
+                System.arraycopy(rows[k], 0, state, k * 3, 3);
+            }
+            this.hash = 31 * pos + Arrays.hashCode(state);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateKey other)) {
+                return false;
+            }
+            return pos == other.pos && Arrays.equals(state, other.state);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
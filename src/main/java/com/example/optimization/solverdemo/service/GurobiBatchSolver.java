@@ -0,0 +1,201 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBCallback;
+import com.gurobi.gurobi.GRBEnv;
+import com.gurobi.gurobi.GRBException;
+import com.gurobi.gurobi.GRBModel;
+import com.gurobi.gurobi.GRBVar;
+import io.micrometer.observation.Observation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 基于Gurobi的求解器，使用与CPLEX紧凑模型相同的公式(见 {@link BatchFormulation#COMPACT})。
+ */
+@Component
+public class GurobiBatchSolver implements BatchSolver {
+    public static final String NAME = "gurobi";
+
+    private final SolverMetrics solverMetrics;
+    private final NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool;
+
+    @Autowired
+    public GurobiBatchSolver(SolverMetrics solverMetrics,
+                             NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool) {
+        this.solverMetrics = solverMetrics;
+        this.gurobiEnvironmentPool = gurobiEnvironmentPool;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        List<Batch> result = new ArrayList<>();
+        GroupSolveResult groupResult = null;
+        NativeEnvironmentPool<GRBEnv, GRBException>.Lease lease = null;
+        GRBModel model = null;
+        Runnable terminate = null;
+        // 当前阶段(建模、求解)的Observation
+        Observation phase = solverMetrics.start("solver.model.build", NAME, null);
+
+        try {
+            // 从池中借出Gurobi环境，模型每次新建并在结束时释放
+            lease = gurobiEnvironmentPool.lease(context);
+            if (lease == null) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            model = new GRBModel(lease.get());
+            if (context.getThreads() > 0) {
+                model.set(GRB.IntParam.Threads, context.getThreads());
+            }
+            if (context.hasDeadline()) {
+                model.set(GRB.DoubleParam.TimeLimit, context.remainingSeconds());
+            }
+            if (context.getMipGap() != null) {
+                model.set(GRB.DoubleParam.MIPGap, context.getMipGap());
+            }
+
+            PieceColumns columns = PieceColumns.of(pieceSteps);
+            int n = pieceSteps.size();
+            int maxBatches = BatchPresolve.maxBatches(columns);
+            CompactModel layout = new CompactModel(n, maxBatches);
+
+            // 决策变量: a[i][j] = 1 表示pieceSteps[i]被分配到第j个Batch; y[j] = 1 表示使用第j个Batch，目标系数为1;
+            // 后缀和变量s[i][j]。按CompactModel的布局一次性加入
+            int size = layout.size();
+            double[] lb = new double[size];
+            double[] ub = new double[size];
+            double[] obj = new double[size];
+            char[] types = new char[size];
+            for (int v = 0; v < size; v++) {
+                boolean binary = v < layout.binaries();
+                ub[v] = binary ? 1 : MAX_PIECES_PER_BATCH;
+                types[v] = binary ? GRB.BINARY : GRB.CONTINUOUS;
+            }
+            for (int j = 0; j < maxBatches; j++) {
+                obj[layout.y(j)] = 1;
+            }
+            GRBVar[] vars = model.addVars(lb, ub, obj, types, context.isModelNames() ? names(n, maxBatches) : null);
+
+            // 约束矩阵与CPLEX紧凑模型相同; 组合下界作为目标割: 找到达到下界的解时Gurobi立即证明最优并停止
+            SparseRows rows = layout.rows(columns);
+            int bound = BatchLowerBound.of(columns.sortedByThickness());
+            rows.ge(bound);
+            for (int j = 0; j < maxBatches; j++) {
+                rows.add(layout.y(j), 1);
+            }
+            rows.addTo(model, vars);
+
+            // 初始解作为MIP start，未设置Start的变量由Gurobi补全
+            Map<PieceStep, Integer> index = new IdentityHashMap<>();
+            for (int i = 0; i < n; i++) {
+                index.put(pieceSteps.get(i), i);
+            }
+            List<Batch> incumbent = context.getIncumbent();
+            List<GRBVar> start = new ArrayList<>();
+            for (int j = 0; j < incumbent.size() && j < maxBatches; j++) {
+                for (PieceStep piece : incumbent.get(j).getPieceSteps()) {
+                    start.add(vars[layout.a(index.get(piece), j)]);
+                }
+                start.add(vars[layout.y(j)]);
+            }
+            if (!start.isEmpty()) {
+                double[] ones = new double[start.size()];
+                Arrays.fill(ones, 1);
+                model.set(GRB.DoubleAttr.Start, start.toArray(new GRBVar[0]), ones);
+            }
+
+            // 需要时在每个新的整数解处回调，把解报告给context
+            if (context.getIncumbentListener() != null) {
+                model.setCallback(new GRBCallback() {
+                    @Override
+                    protected void callback() {
+                        if (where != GRB.CB_MIPSOL) {
+                            return;
+                        }
+                        try {
+                            context.reportIncumbent(layout.batches(getSolution(vars), pieceSteps));
+                        } catch (GRBException e) {
+                            System.err.println("Gurobi Error: " + e);
+                        }
+                    }
+                });
+            }
+
+            model.update();
+            solverMetrics.recordModel(NAME, BatchFormulation.COMPACT, model.get(GRB.IntAttr.NumVars),
+                    model.get(GRB.IntAttr.NumConstrs));
+            // 建模期间已取消或超过截止时间时不再求解
+            if (context.shouldStop()) {
+                return context.fallbackResult(pieceSteps.size());
+            }
+            phase.stop();
+            phase = solverMetrics.start("solver.model.solve", NAME, null);
+
+            // 取消时中止优化，Gurobi保留当前最好解
+            GRBModel running = model;
+            terminate = running::terminate;
+            context.onCancel(terminate);
+            model.optimize();
+
+            int status = model.get(GRB.IntAttr.Status);
+            long nodes = (long) model.get(GRB.DoubleAttr.NodeCount);
+            if (model.get(GRB.IntAttr.SolCount) > 0) {
+                result.addAll(layout.batches(model.get(GRB.DoubleAttr.X, vars), pieceSteps));
+                int lowerBound = Math.max(bound, (int) Math.ceil(model.get(GRB.DoubleAttr.ObjBound) - 1e-6));
+                boolean optimal = result.size() <= lowerBound;
+                groupResult = GroupSolveResult.of(context.getTemperature(), result,
+                        optimal ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE, lowerBound, nodes);
+            } else if (status == GRB.Status.INFEASIBLE) {
+                groupResult = GroupSolveResult.of(context.getTemperature(), result, SolveStatus.INFEASIBLE, null, nodes);
+            } else {
+                System.out.println("No solution found.");
+            }
+
+        } catch (GRBException e) {
+            phase.error(e);
+            System.err.println("Gurobi Error: " + e);
+        } finally {
+            phase.stop();
+            if (terminate != null) {
+                context.removeCancelListener(terminate);
+            }
+            if (model != null) {
+                model.dispose();
+            }
+            if (lease != null) {
+                lease.close();
+            }
+        }
+
+        return groupResult != null ? groupResult : context.fallbackResult(pieceSteps.size());
+    }
+
+    // 按CompactModel的布局为变量命名
+    private static String[] names(int n, int maxBatches) {
+        String[] names = new String[new CompactModel(n, maxBatches).size()];
+        String[] a = SparseRows.names("a", n, maxBatches);
+        String[] y = SparseRows.names("y", maxBatches);
+        String[] s = SparseRows.names("s", n, maxBatches);
+        System.arraycopy(a, 0, names, 0, a.length);
+        System.arraycopy(y, 0, names, a.length, y.length);
+        System.arraycopy(s, 0, names, a.length + y.length, s.length);
+        return names;
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 贪心启发式求解器，不依赖求解器本地库，速度快但不保证最优。
+ * 作为MIP初始解的来源，也可以在组合中兜底。
+ */
+@Component
+public class HeuristicBatchSolver implements BatchSolver {
+    public static final String NAME = "heuristic";
+    // 选取一个Batch时因超过高度或重量而跳过的PieceStep数量上限
+    private static final int MAX_SKIPPED = 8;
+    // 放置剩余PieceStep时在每个方向上考察的剩余PieceStep和Batch数量上限
+    private static final int REGROUP_SCAN = 16;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // 覆盖全部PieceStep时为可行解(达到组合下界时为最优)，否则返回已形成的Batch并标记为无解
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        List<Batch> batches = batchesFor(pieceSteps);
+        int covered = batches.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum();
+        int lowerBound = BatchLowerBound.of(pieceSteps);
+        SolveStatus status;
+        if (covered != pieceSteps.size() || batches.isEmpty()) {
+            status = SolveStatus.NO_SOLUTION;
+        } else {
+            status = batches.size() <= lowerBound ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+        }
+        return GroupSolveResult.of(context.getTemperature(), batches, status, lowerBound, 0);
+    }
+
+    /**
+     * 单个温度组的贪心分批，可能有PieceStep无法分配。
+     * <p>
+     * PieceStep按厚度排序后读入基本类型数组，"下一个未分配位置"用路径压缩的并查集维护。
+     * 每次从最薄的未分配PieceStep开始，按厚度升序取相邻差不超过MAX_THICKNESS_DIFF的未分配PieceStep，
+     * 薄PieceStep最多占MAX_PIECES_PER_BATCH - 2个位置，超过高度或重量的跳过; 不能形成Batch时该PieceStep
+     * 留到最后，再尝试放入只有4个PieceStep的Batch。
+     * Batch以最薄PieceStep的下标为键存放在TreeMap中(即按最薄厚度排序)，剩余PieceStep的插入和重组
+     * 每次只考察附近有限个Batch并以O(log n)重新定位变化的Batch，整体为O(n log n)。
+     */
+    public List<Batch> batchesFor(List<PieceStep> pieceSteps) {
+        int n = pieceSteps.size();
+        PieceColumns sorted = PieceColumns.of(pieceSteps).sortedByThickness();
+        double[] thickness = new double[n];
+        double[] width = new double[n];
+        double[] weight = new double[n];
+        int firstThick = n;
+        for (int i = 0; i < n; i++) {
+            thickness[i] = sorted.thickness(i);
+            width[i] = sorted.width(i);
+            weight[i] = sorted.weight(i);
+            if (firstThick == n && isThick(thickness[i])) {
+                firstThick = i;
+            }
+        }
+
+        // next[i]: i之后(含i)第一个未分配位置的并查集指针，next[n] = n为哨兵
+        int[] next = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            next[i] = i;
+        }
+        // 以最薄PieceStep的下标为键，PieceStep已按厚度排序，因此Batch按最薄厚度升序
+        TreeMap<Integer, int[]> groups = new TreeMap<>();
+        List<Integer> leftovers = new ArrayList<>();
+        int[] chosen = new int[MAX_PIECES_PER_BATCH];
+        for (int start = find(next, 0); start < n; start = find(next, start)) {
+            // 薄PieceStep太多导致凑不齐厚PieceStep时，减少薄PieceStep再试
+            int size = 0;
+            for (int thinQuota = MAX_PIECES_PER_BATCH - 2; size == 0 && thinQuota >= 1; thinQuota--) {
+                size = fill(start, chosen, next, thickness, width, weight, firstThick, thinQuota);
+                if (start >= firstThick) {
+                    break;
+                }
+            }
+            if (size > 0) {
+                int[] group = Arrays.copyOf(chosen, size);
+                for (int c : group) {
+                    next[c] = c + 1;
+                }
+                groups.put(group[0], group);
+            } else {
+                next[start] = start + 1;
+                leftovers.add(start);
+            }
+        }
+
+        // 无法单独形成Batch的PieceStep先尝试补入只有4个PieceStep的Batch(Batch按最薄厚度升序生成)，
+        // 再与其他剩余PieceStep及5个PieceStep的Batch让出的PieceStep组成新Batch
+        List<Integer> unplaced = new ArrayList<>();
+        for (int piece : leftovers) {
+            if (!insert(piece, groups, thickness, width, weight)) {
+                unplaced.add(piece);
+            }
+        }
+        int remaining = regroup(unplaced, groups, thickness, width, weight);
+        if (remaining > 0) {
+            System.out.println("Warning: " + remaining + " PieceSteps cannot be allocated due to thickness constraints.");
+        }
+
+        // 按厚度降序摆放，前两个位置即为最厚的两个
+        List<Batch> batches = new ArrayList<>(groups.size());
+        for (int[] group : groups.values()) {
+            int[] members = new int[group.length];
+            for (int k = 0; k < group.length; k++) {
+                members[k] = group[group.length - 1 - k];
+            }
+            batches.add(sorted.toBatch("Batch_" + (batches.size() + 1), members));
+        }
+        return batches;
+    }
+
+    // 从start开始按厚度升序选取一个Batch的PieceStep(升序写入chosen)，最多thinQuota个薄PieceStep; 返回数量，不能形成合法Batch时返回0
+    private static int fill(int start, int[] chosen, int[] next, double[] thickness, double[] width, double[] weight,
+                            int firstThick, int thinQuota) {
+        int n = thickness.length;
+        int size = 0;
+        int thick = 0;
+        double height = -CONVECTION_PLATE_HEIGHT;
+        double load = -CONVECTION_PLATE_WEIGHT;
+        int skipped = 0;
+        for (int c = start; c < n && size < MAX_PIECES_PER_BATCH; c = find(next, c + 1)) {
+            if (size > 0 && !isCompatible(thickness[chosen[size - 1]], thickness[c])) {
+                break;
+            }
+            boolean isThick = c >= firstThick;
+            if (!isThick && size - thick >= thinQuota) {
+                // 薄PieceStep已占满，直接跳到厚PieceStep
+                c = firstThick - 1;
+                continue;
+            }
+            if (height + width[c] + CONVECTION_PLATE_HEIGHT > MAX_HEIGHT
+                    || load + weight[c] + CONVECTION_PLATE_WEIGHT > MAX_WEIGHT) {
+                if (++skipped > MAX_SKIPPED) {
+                    break;
+                }
+                continue;
+            }
+            chosen[size++] = c;
+            height += width[c] + CONVECTION_PLATE_HEIGHT;
+            load += weight[c] + CONVECTION_PLATE_WEIGHT;
+            if (isThick) {
+                thick++;
+            }
+        }
+        return size >= MIN_PIECES_PER_BATCH && thick >= 2 ? size : 0;
+    }
+
+    /**
+     * 用剩余PieceStep组成新Batch: 候选为其他剩余PieceStep，以及附近5个PieceStep的Batch中移除后该Batch仍合法的PieceStep
+     * (每个Batch最多让出一个)，按厚度由近到远选取。返回仍无法分配的数量
+     */
+    private static int regroup(List<Integer> unplaced, TreeMap<Integer, int[]> groups, double[] thickness,
+                               double[] width, double[] weight) {
+        int count = unplaced.size();
+        // 下一个未放置的剩余PieceStep的并查集指针，已放置的直接跳过
+        int[] nextFree = new int[count + 1];
+        for (int k = 0; k <= count; k++) {
+            nextFree[k] = k;
+        }
+        int remaining = count;
+        // 每个5个PieceStep的Batch中可以让出的PieceStep(按位)，Batch变化时数组对象随之替换
+        Map<int[], Integer> donorMasks = new IdentityHashMap<>();
+        for (int u = find(nextFree, 0); u < count; u = find(nextFree, u + 1)) {
+            int piece = unplaced.get(u);
+            double lo = thickness[piece] - (MAX_PIECES_PER_BATCH - 1) * MAX_THICKNESS_DIFF;
+            double hi = thickness[piece] + (MAX_PIECES_PER_BATCH - 1) * MAX_THICKNESS_DIFF;
+
+            // 候选: {位置, 来源} 来源>=0为让出PieceStep的Batch的键，-1 - k为第k个剩余PieceStep
+            List<int[]> candidates = new ArrayList<>();
+            for (int k = find(nextFree, u + 1), seen = 0; k < count && seen < REGROUP_SCAN; k = find(nextFree, k + 1)) {
+                int other = unplaced.get(k);
+                if (thickness[other] > hi) {
+                    break;
+                }
+                candidates.add(new int[]{other, -1 - k});
+                seen++;
+            }
+            for (int[] group : near(groups, piece)) {
+                if (group.length != MAX_PIECES_PER_BATCH) {
+                    continue;
+                }
+                int mask = donorMasks.computeIfAbsent(group, key -> donorMask(key, thickness, width, weight));
+                for (int k = 0; k < group.length; k++) {
+                    if ((mask & (1 << k)) != 0 && thickness[group[k]] >= lo && thickness[group[k]] <= hi) {
+                        candidates.add(new int[]{group[k], group[0]});
+                    }
+                }
+            }
+            // 新Batch至少需要2个厚PieceStep
+            long thickCandidates = candidates.stream().filter(c -> isThick(thickness[c[0]])).count();
+            if (thickCandidates + (isThick(thickness[piece]) ? 1 : 0) < 2) {
+                continue;
+            }
+            candidates.sort(Comparator.comparingDouble(c -> Math.abs(thickness[c[0]] - thickness[piece])));
+
+            // 由近到远加入候选，直到组成合法Batch
+            int[] members = {piece};
+            List<int[]> used = new ArrayList<>();
+            for (int[] candidate : candidates) {
+                if (members.length == MAX_PIECES_PER_BATCH) {
+                    break;
+                }
+                if (candidate[1] >= 0 && used.stream().anyMatch(c -> c[1] == candidate[1])) {
+                    continue;
+                }
+                int[] extended = withSorted(members, candidate[0], thickness);
+                if (fits(extended, width, weight)) {
+                    members = extended;
+                    used.add(candidate);
+                    if (members.length >= MIN_PIECES_PER_BATCH && isValid(members, thickness, width, weight)) {
+                        break;
+                    }
+                }
+            }
+            if (members.length < MIN_PIECES_PER_BATCH || !isValid(members, thickness, width, weight)) {
+                continue;
+            }
+            // 让出PieceStep的Batch按新的最薄PieceStep重新放入，保持按最薄厚度排序
+            for (int[] candidate : used) {
+                if (candidate[1] >= 0) {
+                    int[] group = groups.remove(candidate[1]);
+                    for (int k = 0; k < group.length; k++) {
+                        if (group[k] == candidate[0]) {
+                            int[] rest = without(group, k);
+                            groups.put(rest[0], rest);
+                            break;
+                        }
+                    }
+                } else {
+                    int k = -1 - candidate[1];
+                    nextFree[k] = k + 1;
+                    remaining--;
+                }
+            }
+            nextFree[u] = u + 1;
+            remaining--;
+            groups.put(members[0], members);
+        }
+        return remaining;
+    }
+
+    private static int donorMask(int[] group, double[] thickness, double[] width, double[] weight) {
+        int mask = 0;
+        for (int k = 0; k < group.length; k++) {
+            if (isValid(without(group, k), thickness, width, weight)) {
+                mask |= 1 << k;
+            }
+        }
+        return mask;
+    }
+
+    // 最薄PieceStep与piece最接近的Batch: 两侧各最多REGROUP_SCAN个，按最薄厚度升序
+    private static List<int[]> near(TreeMap<Integer, int[]> groups, int piece) {
+        List<int[]> near = new ArrayList<>(2 * REGROUP_SCAN);
+        for (int[] group : groups.headMap(piece, false).descendingMap().values()) {
+            if (near.size() == REGROUP_SCAN) {
+                break;
+            }
+            near.add(group);
+        }
+        Collections.reverse(near);
+        int below = near.size();
+        for (int[] group : groups.tailMap(piece, true).values()) {
+            if (near.size() - below == REGROUP_SCAN) {
+                break;
+            }
+            near.add(group);
+        }
+        return near;
+    }
+
+    private static int[] without(int[] group, int k) {
+        int[] rest = new int[group.length - 1];
+        System.arraycopy(group, 0, rest, 0, k);
+        System.arraycopy(group, k + 1, rest, k, group.length - k - 1);
+        return rest;
+    }
+
+    // 按厚度升序插入
+    private static int[] withSorted(int[] group, int piece, double[] thickness) {
+        int[] extended = Arrays.copyOf(group, group.length + 1);
+        int k = group.length;
+        while (k > 0 && thickness[extended[k - 1]] > thickness[piece]) {
+            extended[k] = extended[k - 1];
+            k--;
+        }
+        extended[k] = piece;
+        return extended;
+    }
+
+    private static boolean fits(int[] group, double[] width, double[] weight) {
+        double height = (group.length - 1) * CONVECTION_PLATE_HEIGHT;
+        double load = (group.length - 1) * CONVECTION_PLATE_WEIGHT;
+        for (int piece : group) {
+            height += width[piece];
+            load += weight[piece];
+        }
+        return height <= MAX_HEIGHT && load <= MAX_WEIGHT;
+    }
+
+    // 把piece插入一个只有4个PieceStep且插入后仍合法的Batch
+    private static boolean insert(int piece, TreeMap<Integer, int[]> groups, double[] thickness, double[] width,
+                                  double[] weight) {
+        for (int[] group : near(groups, piece)) {
+            if (group.length != MIN_PIECES_PER_BATCH) {
+                continue;
+            }
+            int[] candidate = withSorted(group, piece, thickness);
+            if (isValid(candidate, thickness, width, weight)) {
+                // piece比原来最薄的还薄时键随之改变
+                groups.remove(group[0]);
+                groups.put(candidate[0], candidate);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 校验按厚度升序排列的一组PieceStep
+    private static boolean isValid(int[] group, double[] thickness, double[] width, double[] weight) {
+        double height = (group.length - 1) * CONVECTION_PLATE_HEIGHT;
+        double load = (group.length - 1) * CONVECTION_PLATE_WEIGHT;
+        int thick = 0;
+        for (int k = 0; k < group.length; k++) {
+            height += width[group[k]];
+            load += weight[group[k]];
+            if (isThick(thickness[group[k]])) {
+                thick++;
+            }
+            if (k > 0 && !isCompatible(thickness[group[k - 1]], thickness[group[k]])) {
+                return false;
+            }
+        }
+        return thick >= 2 && height <= MAX_HEIGHT && load <= MAX_WEIGHT;
+    }
+
+    private static int find(int[] next, int i) {
+        int root = i;
+        while (next[root] != root) {
+            root = next[root];
+        }
+        while (next[i] != root) {
+            int parent = next[i];
+            next[i] = root;
+            i = parent;
+        }
+        return root;
+    }
+}
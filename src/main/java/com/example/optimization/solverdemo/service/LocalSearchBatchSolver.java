@@ -0,0 +1,297 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 大邻域搜索(LNS)改进器，可以改进任意分批方案(启发式解、到达时间上限的MIP解等)。
+ * <p>
+ * 每一步在随机的厚度窗口内释放若干个Batch(优先包含只有4个PieceStep的Batch)，连同窗口内未分配的PieceStep
+ * 交给{@link ExactBatchEngine}在很短的时间内重新求解: Batch变少或分配了更多PieceStep时接受，
+ * Batch数量相同的不同方案也接受以便跳出局部最优。多线程时各线程用不同的随机种子独立搜索，
+ * 并随时采用共享的最好方案。每次改进都通过context报告，到达组合下界{@link BatchLowerBound}、截止时间或取消时结束。
+ */
+@Component
+public class LocalSearchBatchSolver implements BatchSolver {
+    public static final String NAME = "local-search";
+    // 单次修复的时间上限(毫秒)
+    private static final long REPAIR_MILLIS = 50;
+    // 单次最多释放的Batch数量
+    private static final int MAX_RELEASED = 6;
+    // 不用当前方案作为上界、寻找同样数量的其他方案的概率
+    private static final double SIDEWAYS_PROBABILITY = 0.3;
+
+    private final SolverProperties solverProperties;
+    private final Executor localSearchExecutor;
+    private final ExactBatchEngine exactBatchEngine;
+    private final HeuristicBatchSolver heuristicBatchSolver;
+
+    @Autowired
+    public LocalSearchBatchSolver(SolverProperties solverProperties,
+                                  @Qualifier("localSearchExecutor") Executor localSearchExecutor,
+                                  ExactBatchEngine exactBatchEngine,
+                                  HeuristicBatchSolver heuristicBatchSolver) {
+        this.solverProperties = solverProperties;
+        this.localSearchExecutor = localSearchExecutor;
+        this.exactBatchEngine = exactBatchEngine;
+        this.heuristicBatchSolver = heuristicBatchSolver;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // 从context中的完整初始解开始，没有时从启发式解开始
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        List<Batch> start = context.getIncumbent();
+        if (start.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() != pieceSteps.size()) {
+            start = heuristicBatchSolver.batchesFor(pieceSteps);
+        }
+        return improve(pieceSteps, start, null, context);
+    }
+
+    /**
+     * 在context的截止时间内改进plan; 不限时时运行solver.local-search-time。
+     * plan中不合法或不属于pieceSteps的Batch会被丢弃，其中的PieceStep视为未分配。
+     *
+     * @param lowerBound 已知的Batch数量下界，null表示只用组合下界
+     */
+    public GroupSolveResult improve(List<PieceStep> pieceSteps, List<Batch> plan, Integer lowerBound,
+                                    SolveContext context) {
+        int combinatorialBound = BatchLowerBound.of(pieceSteps);
+        int bound = lowerBound != null ? Math.max(lowerBound, combinatorialBound) : combinatorialBound;
+        long deadline = context.hasDeadline()
+                ? context.getDeadline()
+                : System.nanoTime() + solverProperties.getLocalSearchTime().toNanos();
+
+        Incumbent best = new Incumbent(Plan.of(pieceSteps, plan), context);
+        // 没有Batch时没有可以破坏和修复的窗口，直接返回初始方案
+        int workers = best.get().batches.isEmpty() ? 0 : Math.max(1, context.getThreads());
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        // 工作线程只在localSearchExecutor上运行且从不等待其他任务; 第一个在当前线程运行
+        for (int w = 1; w < workers; w++) {
+            long seed = w;
+            futures.add(CompletableFuture.supplyAsync(() -> search(best, bound, deadline, context, seed),
+                    localSearchExecutor));
+        }
+        long iterations = workers > 0 ? search(best, bound, deadline, context, 0) : 0;
+        for (CompletableFuture<Long> future : futures) {
+            iterations += future.join();
+        }
+
+        Plan result = best.get();
+        int batchCount = result.batches.size();
+        SolveStatus status;
+        if (!result.unassigned.isEmpty()) {
+            status = SolveStatus.NO_SOLUTION;
+        } else {
+            status = batchCount <= bound ? SolveStatus.OPTIMAL : SolveStatus.FEASIBLE;
+        }
+        return GroupSolveResult.of(context.getTemperature(), renumber(result.batches), status, bound, iterations);
+    }
+
+    // 单个工作线程的搜索循环，返回迭代次数
+    private long search(Incumbent best, int bound, long deadline, SolveContext context, long seed) {
+        Random random = new Random(seed);
+        Plan current = best.get();
+        long iterations = 0;
+        while (!context.shouldStop() && System.nanoTime() < deadline) {
+            Plan shared = best.get();
+            if (shared.isBetterThan(current)) {
+                current = shared;
+            }
+            if (current.unassigned.isEmpty() && current.batches.size() <= bound) {
+                break;
+            }
+            // 每一步都要释放至少一个Batch
+            if (current.batches.isEmpty()) {
+                break;
+            }
+            iterations++;
+
+            Plan candidate = step(current, random, deadline);
+            if (candidate != null) {
+                current = candidate;
+                best.offer(candidate);
+            }
+        }
+        return iterations;
+    }
+
+    // 破坏并修复一个厚度窗口; 不能接受时返回null
+    private Plan step(Plan current, Random random, long deadline) {
+        double pivot = pivot(current, random);
+        double radius = random.nextDouble() * MAX_THICKNESS_DIFF;
+        int limit = 2 + random.nextInt(MAX_RELEASED - 1);
+
+        // 与窗口相交的Batch按与pivot的距离排序，取最近的limit个
+        List<Batch> touching = new ArrayList<>();
+        for (Batch batch : current.batches) {
+            if (distance(batch, pivot) <= radius) {
+                touching.add(batch);
+            }
+        }
+        touching.sort(Comparator.comparingDouble(batch -> distance(batch, pivot)));
+        List<Batch> released = new ArrayList<>(touching.subList(0, Math.min(limit, touching.size())));
+        List<PieceStep> freed = new ArrayList<>();
+        for (PieceStep piece : current.unassigned) {
+            if (Math.abs(piece.getThickness() - pivot) <= radius + MAX_THICKNESS_DIFF) {
+                freed.add(piece);
+            }
+        }
+        if (released.isEmpty() || released.size() + freed.size() < 2) {
+            return null;
+        }
+
+        List<PieceStep> subPieces = new ArrayList<>(freed);
+        released.forEach(batch -> subPieces.addAll(batch.getPieceSteps()));
+        subPieces.sort(Comparator.comparing(PieceStep::getThickness));
+        boolean sideways = freed.isEmpty() && random.nextDouble() < SIDEWAYS_PROBABILITY;
+        SolveContext repairContext = SolveContext.builder()
+                .deadline(Math.min(deadline, System.nanoTime() + REPAIR_MILLIS * 1_000_000))
+                .incumbent(sideways ? List.of() : released)
+                .build();
+        GroupSolveResult repaired = exactBatchEngine.solve(subPieces, repairContext);
+        boolean feasible = repaired.getStatus() == SolveStatus.OPTIMAL || repaired.getStatus() == SolveStatus.FEASIBLE;
+        if (!feasible || repaired.getBatches().size() > released.size()
+                || repaired.getBatches().stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() != subPieces.size()) {
+            return null;
+        }
+        if (repaired.getBatches().equals(released)) {
+            return null;
+        }
+        return current.replace(released, repaired.getBatches(), freed);
+    }
+
+    // 窗口中心: 有未分配的PieceStep时一半概率选其中之一，否则优先选只有4个PieceStep的Batch
+    private static double pivot(Plan plan, Random random) {
+        if (!plan.unassigned.isEmpty() && (plan.batches.isEmpty() || random.nextBoolean())) {
+            return plan.unassigned.get(random.nextInt(plan.unassigned.size())).getThickness();
+        }
+        Batch batch = plan.batches.get(random.nextInt(plan.batches.size()));
+        if (random.nextBoolean()) {
+            for (int attempt = 0; attempt < 4 && batch.getPieceSteps().size() == MAX_PIECES_PER_BATCH; attempt++) {
+                batch = plan.batches.get(random.nextInt(plan.batches.size()));
+            }
+        }
+        List<PieceStep> pieces = batch.getPieceSteps();
+        return pieces.get(random.nextInt(pieces.size())).getThickness();
+    }
+
+    // Batch的厚度范围到pivot的距离
+    private static double distance(Batch batch, double pivot) {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (PieceStep piece : batch.getPieceSteps()) {
+            min = Math.min(min, piece.getThickness());
+            max = Math.max(max, piece.getThickness());
+        }
+        return pivot < min ? min - pivot : pivot > max ? pivot - max : 0;
+    }
+
+    private static List<Batch> renumber(List<Batch> batches) {
+        List<Batch> renumbered = new ArrayList<>();
+        for (Batch batch : batches) {
+            renumbered.add(toBatch("Batch_" + renumbered.size(), batch.getPieceSteps()));
+        }
+        return renumbered;
+    }
+
+    // 不可变的方案: Batch和未分配的PieceStep
+    private static final class Plan {
+        private final List<Batch> batches;
+        private final List<PieceStep> unassigned;
+
+        private Plan(List<Batch> batches, List<PieceStep> unassigned) {
+            this.batches = batches;
+            this.unassigned = unassigned;
+        }
+
+        // 只保留合法、互不重叠且完全属于pieceSteps的Batch
+        static Plan of(List<PieceStep> pieceSteps, List<Batch> plan) {
+            Set<PieceStep> free = Collections.newSetFromMap(new IdentityHashMap<>());
+            free.addAll(pieceSteps);
+            List<Batch> batches = new ArrayList<>();
+            for (Batch batch : plan) {
+                if (isValidBatch(batch.getPieceSteps()) && free.containsAll(batch.getPieceSteps())) {
+                    batch.getPieceSteps().forEach(free::remove);
+                    batches.add(batch);
+                }
+            }
+            List<PieceStep> unassigned = new ArrayList<>();
+            for (PieceStep piece : pieceSteps) {
+                if (free.contains(piece)) {
+                    unassigned.add(piece);
+                }
+            }
+            return new Plan(batches, unassigned);
+        }
+
+        Plan replace(List<Batch> released, List<Batch> repaired, List<PieceStep> placed) {
+            Set<Batch> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            removed.addAll(released);
+            List<Batch> batches = new ArrayList<>(this.batches.size());
+            for (Batch batch : this.batches) {
+                if (!removed.contains(batch)) {
+                    batches.add(batch);
+                }
+            }
+            batches.addAll(repaired);
+            Set<PieceStep> nowPlaced = Collections.newSetFromMap(new IdentityHashMap<>());
+            nowPlaced.addAll(placed);
+            List<PieceStep> unassigned = new ArrayList<>();
+            for (PieceStep piece : this.unassigned) {
+                if (!nowPlaced.contains(piece)) {
+                    unassigned.add(piece);
+                }
+            }
+            return new Plan(batches, unassigned);
+        }
+
+        // 未分配更少优先，其次Batch更少
+        boolean isBetterThan(Plan other) {
+            if (unassigned.size() != other.unassigned.size()) {
+                return unassigned.size() < other.unassigned.size();
+            }
+            return batches.size() < other.batches.size();
+        }
+    }
+
+    // 各工作线程共享的最好方案，改进时报告给context
+    private static final class Incumbent {
+        private final SolveContext context;
+        private Plan best;
+
+        Incumbent(Plan initial, SolveContext context) {
+            this.best = initial;
+            this.context = context;
+        }
+
+        synchronized Plan get() {
+            return best;
+        }
+
+        synchronized void offer(Plan plan) {
+            if (plan.isBetterThan(best)) {
+                best = plan;
+                if (plan.unassigned.isEmpty()) {
+                    context.reportIncumbent(renumber(plan.batches));
+                }
+            }
+        }
+    }
+}
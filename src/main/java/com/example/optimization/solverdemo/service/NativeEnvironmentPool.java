@@ -0,0 +1,216 @@
+package com.example.optimization.solverdemo.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地求解器环境(IloCplex、GRBEnv)的有界池。
+ * <p>
+ * lease() 先取得并发许可(同时运行的本地求解数量上限)，再取出一个空闲环境，取出前做健康检查，
+ * 检查失败的环境直接释放并新建; 没有空闲环境时新建。Lease关闭时重置环境并放回，重置失败、
+ * 调用方标记为失效或空闲环境已满时释放环境。许可和环境在任何异常路径上都会归还或释放。
+ *
+ * @param <T> 环境类型
+ * @param <E> 创建、重置、检查环境时抛出的异常类型
+ */
+public final class NativeEnvironmentPool<T, E extends Exception> implements AutoCloseable {
+    // 等待许可时检查取消和截止时间的间隔
+    private static final long POLL_MILLIS = 50;
+
+    @FunctionalInterface
+    public interface Factory<T, E extends Exception> {
+        T create() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+        void apply(T environment) throws E;
+    }
+
+    private final String name;
+    private final int maxIdle;
+    private final Factory<T, E> factory;
+    private final Operation<T, E> reset;
+    private final Operation<T, E> healthCheck;
+    private final Operation<T, E> dispose;
+    private final Semaphore permits;
+    private final Deque<T> idle = new ArrayDeque<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong disposed = new AtomicLong();
+    private boolean closed;
+
+    /**
+     * @param maxConcurrent 同时借出的环境数量上限，即同时运行的本地求解数量上限
+     * @param maxIdle       保留的空闲环境数量上限
+     */
+    public NativeEnvironmentPool(String name, int maxConcurrent, int maxIdle, Factory<T, E> factory,
+                                 Operation<T, E> reset, Operation<T, E> healthCheck, Operation<T, E> dispose) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.name = name;
+        this.maxIdle = maxIdle;
+        this.factory = factory;
+        this.reset = reset;
+        this.healthCheck = healthCheck;
+        this.dispose = dispose;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * 借出一个环境; context已取消，或等待许可期间超过截止时间时返回null。
+     * 已超过截止时间但有空闲许可时仍然借出，调用方在建模后检查截止时间。
+     * 创建环境失败时归还许可并抛出异常(包括本地库缺失时的LinkageError)。
+     */
+    public Lease lease(SolveContext context) throws E {
+        if (!acquire(context)) {
+            return null;
+        }
+        try {
+            return new Lease(take());
+        } catch (Exception | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long getCreatedCount() {
+        return created.get();
+    }
+
+    public long getDisposedCount() {
+        return disposed.get();
+    }
+
+    // 释放所有空闲环境，之后归还的环境直接释放
+    @Override
+    public void close() {
+        Deque<T> remaining;
+        synchronized (this) {
+            closed = true;
+            remaining = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        remaining.forEach(this::disposeQuietly);
+    }
+
+    private boolean acquire(SolveContext context) {
+        if (context.isCancelled()) {
+            return false;
+        }
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            while (!context.shouldStop()) {
+                if (permits.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 取出通过健康检查的空闲环境，没有时新建
+    private T take() throws E {
+        while (true) {
+            T environment;
+            synchronized (this) {
+                environment = idle.pollFirst();
+            }
+            if (environment == null) {
+                T fresh = factory.create();
+                created.incrementAndGet();
+                return fresh;
+            }
+            try {
+                healthCheck.apply(environment);
+                return environment;
+            } catch (Exception e) {
+                System.err.println("Discarding unhealthy " + name + " environment: " + e);
+                disposeQuietly(environment);
+            }
+        }
+    }
+
+    private void giveBack(T environment, boolean valid) {
+        try {
+            if (valid) {
+                try {
+                    reset.apply(environment);
+                } catch (Exception e) {
+                    System.err.println("Failed to reset " + name + " environment: " + e);
+                    valid = false;
+                }
+            }
+            if (valid) {
+                synchronized (this) {
+                    if (!closed && idle.size() < maxIdle) {
+                        idle.addFirst(environment);
+                        return;
+                    }
+                }
+            }
+            disposeQuietly(environment);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void disposeQuietly(T environment) {
+        try {
+            dispose.apply(environment);
+        } catch (Exception e) {
+            System.err.println("Failed to dispose " + name + " environment: " + e);
+        } finally {
+            disposed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 借出的环境，关闭时归还; 求解过程中环境出错时先调用invalidate，关闭时释放而不放回
+     */
+    public final class Lease implements AutoCloseable {
+        private final T environment;
+        private boolean valid = true;
+        private boolean returned;
+
+        private Lease(T environment) {
+            this.environment = environment;
+        }
+
+        public T get() {
+            return environment;
+        }
+
+        public void invalidate() {
+            valid = false;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                giveBack(environment, valid);
+            }
+        }
+    }
+}
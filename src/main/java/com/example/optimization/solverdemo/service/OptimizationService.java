@@ -1,21 +1,33 @@
 package com.example.optimization.solverdemo.service;
 
 import com.gurobi.gurobi.*;
+import ilog.concert.IloException;
 import ilog.concert.IloNumVar;
 import ilog.cplex.IloCplex;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 
 @Service
 public class OptimizationService {
+    private final NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool;
+    private final NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool;
+
+    @Autowired
+    public OptimizationService(NativeEnvironmentPool<IloCplex, IloException> cplexEnvironmentPool,
+                               NativeEnvironmentPool<GRBEnv, GRBException> gurobiEnvironmentPool) {
+        this.cplexEnvironmentPool = cplexEnvironmentPool;
+        this.gurobiEnvironmentPool = gurobiEnvironmentPool;
+    }
 
     public String solveWithCplex() {
         System.out.println("Attempting to solve with CPLEX...");
         String result = "CPLEX not fully configured or implemented yet.";
-        try {
-            // 1. Create CPLEX environment/model (placeholder)
-            IloCplex cplex = new IloCplex();
-            System.out.println("CPLEX environment created (simulation).");
+        // 1. Lease a CPLEX instance from the pool; it is returned (or released) even if modeling fails
+        try (NativeEnvironmentPool<IloCplex, IloException>.Lease lease =
+                     cplexEnvironmentPool.lease(SolveContext.builder().build())) {
+            IloCplex cplex = lease.get();
+            System.out.println("CPLEX environment leased (simulation).");
 
             // --- Add your CPLEX modeling and solving logic here ---
             // Create a minimal model: max x, subject to x <= 10
@@ -25,9 +37,6 @@ public class OptimizationService {
 
             result = "Successfully created CPLEX instance (basic implementation).";
 
-            // 4. Clean up
-            cplex.end(); // IMPORTANT! Release resources
-
         } catch (UnsatisfiedLinkError ule) {
             System.err.println("Native CPLEX library not found. Check java.library.path.");
             ule.printStackTrace();
@@ -44,26 +53,28 @@ public class OptimizationService {
     public String solveWithGurobi() {
         System.out.println("Attempting to solve with Gurobi...");
         String result = "Gurobi not fully configured or implemented yet.";
-        GRBEnv env = null; // Declare outside try for finally block
-        try {
-            // 1. Create Gurobi environment & model (placeholder)
-            env = new GRBEnv("gurobi_java_log.log"); // Optional log file
-            GRBModel model = new GRBModel(env);
-            System.out.println("Gurobi environment created (simulation).");
-            // Create a minimal model: max x, subject to x <= 10
-            GRBVar x = model.addVar(0.0, GRB.INFINITY, 0.0, GRB.CONTINUOUS, "x");
-            model.setObjective(new GRBLinExpr(), GRB.MAXIMIZE); // Maximize x
-            model.addConstr(x, GRB.LESS_EQUAL, 10.0, "c0");
-
-            model.optimize();
-            // --- Add your Gurobi modeling and solving logic here ---
-            // Example: Add variables (addVar), constraints (addConstr), objective (setObjective), then model.optimize()
+        GRBModel model = null; // Declare outside try for finally block
+        // 1. Lease a started Gurobi environment from the pool instead of creating one per call
+        try (NativeEnvironmentPool<GRBEnv, GRBException>.Lease lease =
+                     gurobiEnvironmentPool.lease(SolveContext.builder().build())) {
+            try {
+                model = new GRBModel(lease.get());
+                System.out.println("Gurobi environment leased (simulation).");
+                // Create a minimal model: max x, subject to x <= 10
+                GRBVar x = model.addVar(0.0, GRB.INFINITY, 0.0, GRB.CONTINUOUS, "x");
+                model.setObjective(new GRBLinExpr(), GRB.MAXIMIZE); // Maximize x
+                model.addConstr(x, GRB.LESS_EQUAL, 10.0, "c0");
 
-            result = "Successfully created Gurobi instance (basic implementation).";
+                model.optimize();
+                // --- Add your Gurobi modeling and solving logic here ---
+                // Example: Add variables (addVar), constraints (addConstr), objective (setObjective), then model.optimize()
 
-            // 4. Clean up
-            model.dispose(); // IMPORTANT!
-            env.dispose(); // IMPORTANT!
+                result = "Successfully created Gurobi instance (basic implementation).";
+            } finally { // Ensure the model is disposed before the environment goes back to the pool
+                if (model != null) {
+                    model.dispose();
+                }
+            }
 
         } catch (UnsatisfiedLinkError ule) {
             System.err.println("Native Gurobi library not found. Check java.library.path.");
@@ -73,16 +84,8 @@ public class OptimizationService {
             // Catch specific Gurobi exceptions like GRBException
             e.printStackTrace();
             result = "Error during Gurobi execution: " + e.getMessage();
-        } finally { // Ensure env is disposed even if model creation fails
-            if (env != null) {
-                try {
-                    env.dispose();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
         }
         System.out.println(result);
         return result;
     }
-}
\ No newline at end of file
+}
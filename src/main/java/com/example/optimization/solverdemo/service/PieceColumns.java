@@ -0,0 +1,245 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * PieceStep的列式存储: 重量、宽度、厚度各一个double数组，温度按首次出现顺序编号。
+ * <p>
+ * 每个请求只在入口处从PieceStep拆箱一次，之后按温度、厚度取出的子表直接复制数组，不再访问PieceStep。
+ * pieceSteps()返回的只读列表携带所属的列式存储，BatchSolver实现通过 of(List) 取回，
+ * 因此接口仍然传递List&lt;PieceStep&gt;，建模和搜索循环读取数组; PieceStep和Batch对象只在结果边界构造。
+ */
+public final class PieceColumns {
+    private final PieceStep[] pieces;
+    private final double[] weight;
+    private final double[] width;
+    private final double[] thickness;
+    private final int[] temperatureId;
+    // 温度编号到名称，同一请求的所有子表共享
+    private final List<String> temperatures;
+    private final List<PieceStep> view = new PieceList();
+
+    private PieceColumns(PieceStep[] pieces, double[] weight, double[] width, double[] thickness,
+                         int[] temperatureId, List<String> temperatures) {
+        this.pieces = pieces;
+        this.weight = weight;
+        this.width = width;
+        this.thickness = thickness;
+        this.temperatureId = temperatureId;
+        this.temperatures = temperatures;
+    }
+
+    /**
+     * 取回列表所属的列式存储; 普通列表则拆箱构造新的存储
+     */
+    public static PieceColumns of(List<PieceStep> pieceSteps) {
+        if (pieceSteps instanceof PieceColumns.PieceList list) {
+            return list.columns();
+        }
+        int n = pieceSteps.size();
+        PieceStep[] pieces = pieceSteps.toArray(new PieceStep[0]);
+        double[] weight = new double[n];
+        double[] width = new double[n];
+        double[] thickness = new double[n];
+        int[] temperatureId = new int[n];
+        List<String> temperatures = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            PieceStep piece = pieces[i];
+            weight[i] = required(piece, piece.getWeight(), "weight");
+            width[i] = required(piece, piece.getWidth(), "width");
+            thickness[i] = required(piece, piece.getThickness(), "thickness");
+            temperatureId[i] = ids.computeIfAbsent(piece.getTemperature(), temperature -> {
+                temperatures.add(temperature);
+                return temperatures.size() - 1;
+            });
+        }
+        return new PieceColumns(pieces, weight, width, thickness, temperatureId,
+                Collections.unmodifiableList(temperatures));
+    }
+
+    private static double required(PieceStep piece, Double value, String attribute) {
+        if (value == null) {
+            throw new IllegalArgumentException("PieceStep " + piece.getPieceStepId() + " has no " + attribute);
+        }
+        return value;
+    }
+
+    public int size() {
+        return pieces.length;
+    }
+
+    public PieceStep piece(int i) {
+        return pieces[i];
+    }
+
+    public double weight(int i) {
+        return weight[i];
+    }
+
+    public double width(int i) {
+        return width[i];
+    }
+
+    public double thickness(int i) {
+        return thickness[i];
+    }
+
+    public String temperature(int i) {
+        return temperatures.get(temperatureId[i]);
+    }
+
+    /**
+     * 以PieceStep列表的形式访问本存储(只读)，传给BatchSolver的列表应使用它
+     */
+    public List<PieceStep> pieceSteps() {
+        return view;
+    }
+
+    /**
+     * 按温度拆分，保留温度在输入中首次出现的顺序
+     */
+    public Map<String, PieceColumns> byTemperature() {
+        int[] counts = new int[temperatures.size()];
+        for (int id : temperatureId) {
+            counts[id]++;
+        }
+        int[][] indices = new int[temperatures.size()][];
+        for (int t = 0; t < indices.length; t++) {
+            indices[t] = new int[counts[t]];
+        }
+        int[] filled = new int[temperatures.size()];
+        for (int i = 0; i < pieces.length; i++) {
+            int id = temperatureId[i];
+            indices[id][filled[id]++] = i;
+        }
+        Map<String, PieceColumns> groups = new LinkedHashMap<>();
+        for (int t = 0; t < indices.length; t++) {
+            if (indices[t].length > 0) {
+                groups.put(temperatures.get(t), select(indices[t]));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * 按厚度升序(稳定)排列的存储; 已经有序时返回自身
+     */
+    public PieceColumns sortedByThickness() {
+        int n = pieces.length;
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = thickness[i - 1] <= thickness[i];
+        }
+        if (sorted) {
+            return this;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> thickness[i]));
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = order[i];
+        }
+        return select(indices);
+    }
+
+    /**
+     * 下标[from, to)的子表
+     */
+    public PieceColumns slice(int from, int to) {
+        return new PieceColumns(Arrays.copyOfRange(pieces, from, to), Arrays.copyOfRange(weight, from, to),
+                Arrays.copyOfRange(width, from, to), Arrays.copyOfRange(thickness, from, to),
+                Arrays.copyOfRange(temperatureId, from, to), temperatures);
+    }
+
+    /**
+     * 按给定下标顺序取出的子表
+     */
+    public PieceColumns select(int[] indices) {
+        int n = indices.length;
+        PieceStep[] subPieces = new PieceStep[n];
+        double[] subWeight = new double[n];
+        double[] subWidth = new double[n];
+        double[] subThickness = new double[n];
+        int[] subTemperatureId = new int[n];
+        for (int k = 0; k < n; k++) {
+            int i = indices[k];
+            subPieces[k] = pieces[i];
+            subWeight[k] = weight[i];
+            subWidth[k] = width[i];
+            subThickness[k] = thickness[i];
+            subTemperatureId[k] = temperatureId[i];
+        }
+        return new PieceColumns(subPieces, subWeight, subWidth, subThickness, subTemperatureId, temperatures);
+    }
+
+    /**
+     * 按给定摆放顺序校验下标members组成的Batch，规则同BatchRules.isValidBatch
+     */
+    public boolean isValidBatch(int[] members) {
+        int size = members.length;
+        if (size < MIN_PIECES_PER_BATCH || size > MAX_PIECES_PER_BATCH) {
+            return false;
+        }
+        double height = (size - 1) * CONVECTION_PLATE_HEIGHT;
+        double totalWeight = (size - 1) * CONVECTION_PLATE_WEIGHT;
+        for (int k = 0; k < size; k++) {
+            int i = members[k];
+            height += width[i];
+            totalWeight += weight[i];
+            if (k < 2 && !isThick(thickness[i])) {
+                return false;
+            }
+            if (k > 0 && !isCompatible(thickness[members[k - 1]], thickness[i])) {
+                return false;
+            }
+        }
+        return height <= MAX_HEIGHT && totalWeight <= MAX_WEIGHT;
+    }
+
+    /**
+     * 根据按摆放顺序给出的下标构造Batch，高度和重量计入对流板
+     */
+    public Batch toBatch(String batchId, int[] members) {
+        List<PieceStep> batchPieces = new ArrayList<>(members.length);
+        double batchHeight = (members.length - 1) * CONVECTION_PLATE_HEIGHT;
+        double batchWeight = (members.length - 1) * CONVECTION_PLATE_WEIGHT;
+        for (int i : members) {
+            batchPieces.add(pieces[i]);
+            batchHeight += width[i];
+            batchWeight += weight[i];
+        }
+        return Batch.builder()
+                .batchId(batchId)
+                .pieceSteps(batchPieces)
+                .height(batchHeight)
+                .weight(batchWeight)
+                .build();
+    }
+
+    // 携带所属存储的只读列表
+    private final class PieceList extends AbstractList<PieceStep> implements RandomAccess {
+
+        PieceColumns columns() {
+            return PieceColumns.this;
+        }
+
+        @Override
+        public PieceStep get(int index) {
+            return pieces[index];
+        }
+
+        @Override
+        public int size() {
+            return pieces.length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按厚度升序排列的温度组中，重量、宽度、厚度都相同的PieceStep合并成的类型。
+ * <p>
+ * 同一类型的PieceStep在所有约束中可以互换，模型只需决定每个Batch中各类型的件数，
+ * 再由{@link #expand(List)}按顺序分配具体的PieceStep。类型按厚度升序编号(同厚度时按首次出现顺序)。
+ */
+public final class PieceTypes {
+    private final PieceColumns pieces;
+    // members[t]: 类型t的PieceStep在pieces中的下标，升序
+    private final int[][] members;
+
+    private PieceTypes(PieceColumns pieces, int[][] members) {
+        this.pieces = pieces;
+        this.members = members;
+    }
+
+    // sorted须按厚度升序排列
+    public static PieceTypes of(PieceColumns sorted) {
+        Map<List<Double>, List<Integer>> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            List<Double> key = List.of(sorted.thickness(i), sorted.width(i), sorted.weight(i));
+            byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+        int[][] members = new int[byKey.size()][];
+        int t = 0;
+        for (List<Integer> indices : byKey.values()) {
+            members[t++] = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new PieceTypes(sorted, members);
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    public PieceColumns pieces() {
+        return pieces;
+    }
+
+    public int count(int type) {
+        return members[type].length;
+    }
+
+    public double thickness(int type) {
+        return pieces.thickness(members[type][0]);
+    }
+
+    public double width(int type) {
+        return pieces.width(members[type][0]);
+    }
+
+    public double weight(int type) {
+        return pieces.weight(members[type][0]);
+    }
+
+    // 每个PieceStep所属的类型
+    public int[] typeOf() {
+        int[] typeOf = new int[pieces.size()];
+        for (int t = 0; t < members.length; t++) {
+            for (int i : members[t]) {
+                typeOf[i] = t;
+            }
+        }
+        return typeOf;
+    }
+
+    /**
+     * 把每个Batch的类型展开为具体的PieceStep: batchTypes.get(b)列出第b个Batch中每一件的类型。
+     * 每个类型的PieceStep按下标顺序依次分配，Batch内按厚度降序摆放。
+     *
+     * @throws IllegalArgumentException 某个类型被使用的件数超过该类型的PieceStep数量
+     */
+    public List<Batch> expand(List<int[]> batchTypes) {
+        int[] next = new int[members.length];
+        List<Batch> batches = new ArrayList<>(batchTypes.size());
+        for (int[] types : batchTypes) {
+            int[] sortedTypes = types.clone();
+            Arrays.sort(sortedTypes);
+            int[] batchMembers = new int[sortedTypes.length];
+            for (int k = 0; k < sortedTypes.length; k++) {
+                int t = sortedTypes[sortedTypes.length - 1 - k];
+                if (next[t] >= members[t].length) {
+                    throw new IllegalArgumentException("Type " + t + " has only " + members[t].length + " pieces");
+                }
+                batchMembers[k] = members[t][next[t]++];
+            }
+            batches.add(pieces.toBatch("Batch_" + batches.size(), batchMembers));
+        }
+        return batches;
+    }
+}
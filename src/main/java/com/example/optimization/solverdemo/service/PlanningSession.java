@@ -0,0 +1,105 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PlanningSessionView;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增量规划会话的状态: 当前的PieceStep、各温度组的方案和无法分配的PieceStep。
+ * 调用方在对象锁内读写。
+ */
+final class PlanningSession {
+    private final String id;
+    private final BatchSolveOptions options;
+    private final Map<String, PieceStep> pieces = new LinkedHashMap<>();
+    // 按温度保存的当前方案，Batch列表可修改
+    private final Map<String, GroupSolveResult> groups = new LinkedHashMap<>();
+    private final Map<String, List<PieceStep>> unassigned = new LinkedHashMap<>();
+
+    private long version;
+    private int lastResolvedPieces;
+    private long nextBatchSeq = 1;
+    private volatile Instant lastAccess = Instant.now();
+
+    PlanningSession(String id, BatchSolveOptions options) {
+        this.id = id;
+        this.options = options;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    BatchSolveOptions getOptions() {
+        return options;
+    }
+
+    Map<String, PieceStep> getPieces() {
+        return pieces;
+    }
+
+    // 该温度组的当前方案，不存在时创建一个空方案
+    GroupSolveResult group(String temperature) {
+        return groups.computeIfAbsent(temperature,
+                t -> GroupSolveResult.of(t, new ArrayList<>(), SolveStatus.OPTIMAL, 0, 0));
+    }
+
+    void putGroup(GroupSolveResult group) {
+        groups.put(group.getTemperature(), group);
+    }
+
+    List<PieceStep> unassigned(String temperature) {
+        return unassigned.computeIfAbsent(temperature, t -> new ArrayList<>());
+    }
+
+    // 新Batch的id在会话内唯一，未变化的Batch保留原id
+    String nextBatchId() {
+        return "Batch_" + nextBatchSeq++;
+    }
+
+    void resolved(int pieceCount) {
+        lastResolvedPieces += pieceCount;
+    }
+
+    // 开始应用一次增量
+    void beginUpdate() {
+        version++;
+        lastResolvedPieces = 0;
+        touch();
+    }
+
+    void touch() {
+        lastAccess = Instant.now();
+    }
+
+    Instant getLastAccess() {
+        return lastAccess;
+    }
+
+    PlanningSessionView view() {
+        List<GroupSolveResult> groupViews = new ArrayList<>();
+        for (GroupSolveResult group : groups.values()) {
+            if (group.getBatches().isEmpty() && unassigned(group.getTemperature()).isEmpty()) {
+                continue;
+            }
+            groupViews.add(group.toBuilder().batches(new ArrayList<>(group.getBatches())).build());
+        }
+        List<PieceStep> unplaced = new ArrayList<>();
+        unassigned.values().forEach(unplaced::addAll);
+        return PlanningSessionView.builder()
+                .sessionId(id)
+                .version(version)
+                .pieceCount(pieces.size())
+                .groups(groupViews)
+                .unassigned(unplaced)
+                .lastResolvedPieces(lastResolvedPieces)
+                .build();
+    }
+}
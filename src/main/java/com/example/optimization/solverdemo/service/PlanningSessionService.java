@@ -0,0 +1,251 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceDelta;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PlanningSessionView;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 增量规划会话。
+ * <p>
+ * 会话保存当前的分批方案，每次增量只重新求解受影响的温度组中，厚度与变动PieceStep相近的部分:
+ * 新增的PieceStep、因移除而不再合法的Batch中剩余的PieceStep，以及厚度区间与它们相距
+ * {@link #NEIGHBOURHOOD_MARGIN}以内的Batch。其余Batch保持不变(包括Batch id)。
+ * 原方案中被释放的Batch和新PieceStep的启发式分批作为初始解; 局部求解失败时扩大到整个温度组。
+ */
+@Service
+public class PlanningSessionService {
+    // 厚度邻域的扩展宽度: 两个相邻Batch间隔一个Batch时仍可能交换PieceStep
+    static final double NEIGHBOURHOOD_MARGIN = 2 * MAX_THICKNESS_DIFF;
+
+    private final SolverProperties solverProperties;
+    private final BatchOptimizerService batchOptimizerService;
+    private final HeuristicBatchSolver heuristicBatchSolver;
+    private final Map<String, PlanningSession> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PlanningSessionService(SolverProperties solverProperties,
+                                  BatchOptimizerService batchOptimizerService,
+                                  HeuristicBatchSolver heuristicBatchSolver) {
+        this.solverProperties = solverProperties;
+        this.batchOptimizerService = batchOptimizerService;
+        this.heuristicBatchSolver = heuristicBatchSolver;
+    }
+
+    // 用初始PieceStep创建会话并完整求解一次
+    public PlanningSessionView create(List<PieceStep> pieceSteps, BatchSolveOptions options) {
+        checkNewIds(Map.of(), pieceSteps);
+
+        PlanningSession session = new PlanningSession(UUID.randomUUID().toString(), options);
+        synchronized (session) {
+            pieceSteps.forEach(piece -> session.getPieces().put(piece.getPieceStepId(), piece));
+            // 只拆箱、分组一次; 求解时按同一列式存储分组
+            PieceColumns columns = PieceColumns.of(pieceSteps);
+            Map<String, PieceColumns> byTemperature = columns.byTemperature();
+            for (GroupSolveResult group : batchOptimizerService.planBatches(columns.pieceSteps(), options).getGroups()) {
+                accept(session, group, List.of(), List.of(), byTemperature.get(group.getTemperature()).pieceSteps());
+            }
+            session.resolved(pieceSteps.size());
+            sessions.put(session.getId(), session);
+            return session.view();
+        }
+    }
+
+    public Optional<PlanningSessionView> get(String sessionId) {
+        PlanningSession session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            session.touch();
+            return Optional.of(session.view());
+        }
+    }
+
+    public boolean close(String sessionId) {
+        return sessions.remove(sessionId) != null;
+    }
+
+    /**
+     * 应用增量并局部重新求解; PieceStep id重复或要移除的id不存在时抛出IllegalArgumentException，会话不变
+     */
+    public Optional<PlanningSessionView> applyDelta(String sessionId, PieceDelta delta) {
+        PlanningSession session = sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            Map<String, PieceStep> pieces = session.getPieces();
+            checkNewIds(pieces, delta.getAdded());
+            for (String id : delta.getRemoved()) {
+                if (!pieces.containsKey(id)) {
+                    throw new IllegalArgumentException("Unknown pieceStepId: " + id);
+                }
+            }
+            session.beginUpdate();
+
+            // 每个受影响温度组中需要重新分配的PieceStep
+            Map<String, List<PieceStep>> freeByTemp = new LinkedHashMap<>();
+            for (String id : new LinkedHashSet<>(delta.getRemoved())) {
+                PieceStep removed = pieces.remove(id);
+                List<PieceStep> free = freeByTemp.computeIfAbsent(removed.getTemperature(), t -> new ArrayList<>());
+                if (!session.unassigned(removed.getTemperature()).remove(removed)) {
+                    free.addAll(removeFromBatch(session.group(removed.getTemperature()), removed));
+                }
+            }
+            for (PieceStep added : delta.getAdded()) {
+                pieces.put(added.getPieceStepId(), added);
+                freeByTemp.computeIfAbsent(added.getTemperature(), t -> new ArrayList<>()).add(added);
+            }
+
+            for (Map.Entry<String, List<PieceStep>> entry : freeByTemp.entrySet()) {
+                List<PieceStep> free = entry.getValue();
+                // 之前无法分配的PieceStep再尝试一次
+                List<PieceStep> unassigned = session.unassigned(entry.getKey());
+                free.addAll(unassigned);
+                unassigned.clear();
+                reoptimize(session, entry.getKey(), free);
+            }
+            return Optional.of(session.view());
+        }
+    }
+
+    // 从所在Batch中移除PieceStep; Batch因此不再合法时解散，返回需要重新分配的PieceStep
+    private static List<PieceStep> removeFromBatch(GroupSolveResult group, PieceStep removed) {
+        List<Batch> batches = group.getBatches();
+        for (int b = 0; b < batches.size(); b++) {
+            Batch batch = batches.get(b);
+            if (!batch.getPieceSteps().contains(removed)) {
+                continue;
+            }
+            List<PieceStep> remaining = new ArrayList<>(batch.getPieceSteps());
+            remaining.remove(removed);
+            remaining.sort(Comparator.comparing(PieceStep::getThickness).reversed());
+            if (isValidBatch(remaining)) {
+                batches.set(b, toBatch(batch.getBatchId(), remaining));
+                return List.of();
+            }
+            batches.remove(b);
+            return remaining;
+        }
+        return List.of();
+    }
+
+    // 在free的厚度邻域内重新求解，失败时扩大到整个温度组
+    private void reoptimize(PlanningSession session, String temperature, List<PieceStep> free) {
+        if (free.isEmpty()) {
+            return;
+        }
+        List<Batch> current = session.group(temperature).getBatches();
+        double lo = free.stream().mapToDouble(PieceStep::getThickness).min().getAsDouble() - NEIGHBOURHOOD_MARGIN;
+        double hi = free.stream().mapToDouble(PieceStep::getThickness).max().getAsDouble() + NEIGHBOURHOOD_MARGIN;
+
+        List<Batch> released = new ArrayList<>();
+        List<Batch> fixed = new ArrayList<>();
+        for (Batch batch : current) {
+            DoubleSummaryStatistics range = batch.getPieceSteps().stream()
+                    .mapToDouble(PieceStep::getThickness).summaryStatistics();
+            if (range.getMax() >= lo && range.getMin() <= hi) {
+                released.add(batch);
+            } else {
+                fixed.add(batch);
+            }
+        }
+
+        GroupSolveResult local = solveLocal(session, free, released);
+        if (!isComplete(local, free, released) && !fixed.isEmpty()) {
+            released = new ArrayList<>(current);
+            fixed = new ArrayList<>();
+            local = solveLocal(session, free, released);
+        }
+        accept(session, local, fixed, released, free);
+    }
+
+    // 以被释放的Batch和free的启发式分批为初始解，求解free加被释放Batch中的PieceStep
+    private GroupSolveResult solveLocal(PlanningSession session, List<PieceStep> free, List<Batch> released) {
+        List<PieceStep> subPieces = new ArrayList<>(free);
+        released.forEach(batch -> subPieces.addAll(batch.getPieceSteps()));
+        session.resolved(subPieces.size());
+
+        List<Batch> incumbent = new ArrayList<>(released);
+        List<Batch> freeBatches = heuristicBatchSolver.batchesFor(free);
+        if (freeBatches.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() == free.size()) {
+            incumbent.addAll(freeBatches);
+        }
+        BatchSolveOptions options = session.getOptions().toBuilder()
+                .incumbent(incumbent)
+                .parallel(false)
+                .build();
+        return batchOptimizerService.planBatches(subPieces, options).getGroups().get(0);
+    }
+
+    private static boolean isComplete(GroupSolveResult result, List<PieceStep> free, List<Batch> released) {
+        if (result.getStatus() != SolveStatus.OPTIMAL && result.getStatus() != SolveStatus.FEASIBLE) {
+            return false;
+        }
+        int expected = free.size() + released.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum();
+        return result.getBatches().stream().mapToInt(batch -> batch.getPieceSteps().size()).sum() == expected;
+    }
+
+    /**
+     * 合并求解结果: 求解成功时方案为fixed加新的Batch(与原Batch完全相同的保留原id)，
+     * 只有整个温度组都重新求解时才沿用求解器的状态和下界; 失败时保留原Batch，free记为无法分配
+     */
+    private static void accept(PlanningSession session, GroupSolveResult local, List<Batch> fixed,
+                               List<Batch> released, List<PieceStep> free) {
+        String temperature = local.getTemperature();
+        List<Batch> batches = new ArrayList<>(fixed);
+        GroupSolveResult group;
+        if (isComplete(local, free, released)) {
+            Map<Set<String>, String> previousIds = new HashMap<>();
+            for (Batch batch : released) {
+                previousIds.put(idsOf(batch), batch.getBatchId());
+            }
+            for (Batch batch : local.getBatches()) {
+                String id = previousIds.get(idsOf(batch));
+                batches.add(toBatch(id != null ? id : session.nextBatchId(), new ArrayList<>(batch.getPieceSteps())));
+            }
+            group = fixed.isEmpty()
+                    ? local.toBuilder().batches(batches).build()
+                    : GroupSolveResult.of(temperature, batches, SolveStatus.FEASIBLE, null, local.getNodes());
+        } else {
+            batches.addAll(released);
+            session.unassigned(temperature).addAll(free);
+            group = GroupSolveResult.of(temperature, batches, local.getStatus(), null, local.getNodes());
+        }
+        session.putGroup(group);
+    }
+
+    private static Set<String> idsOf(Batch batch) {
+        return batch.getPieceSteps().stream().map(PieceStep::getPieceStepId).collect(Collectors.toSet());
+    }
+
+    private static void checkNewIds(Map<String, PieceStep> existing, List<PieceStep> added) {
+        Set<String> seen = new HashSet<>();
+        for (PieceStep piece : added) {
+            if (existing.containsKey(piece.getPieceStepId()) || !seen.add(piece.getPieceStepId())) {
+                throw new IllegalArgumentException("Duplicate pieceStepId: " + piece.getPieceStepId());
+            }
+        }
+    }
+
+    // 定期清理空闲超过超时时间的会话
+    @Scheduled(fixedDelayString = "${solver.session-eviction-interval:PT1M}")
+    void evictIdle() {
+        Instant cutoff = Instant.now().minus(solverProperties.getSessionIdleTimeout());
+        sessions.values().removeIf(session -> session.getLastAccess().isBefore(cutoff));
+    }
+}
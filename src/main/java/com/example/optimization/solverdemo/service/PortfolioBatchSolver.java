@@ -0,0 +1,147 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 组合求解器: 在同一个温度组上并发运行多个求解器。
+ * <p>
+ * 第一个证明最优(或证明无解)的成员胜出并取消其余成员; 否则等到截止时间，
+ * 取消仍在运行的成员，在已返回的结果中选Batch最少的方案，并用所有成员中最好的下界判断是否最优。
+ * 各成员使用独立的取消状态，外部取消会传递给所有成员。
+ */
+public class PortfolioBatchSolver implements BatchSolver {
+    public static final String NAME = "portfolio";
+    // 截止时间后等待成员自行返回的时间(秒)
+    private static final long DEADLINE_GRACE_SECONDS = 5;
+    // 取消后等待成员返回当前最好解的时间(秒)
+    private static final long CANCEL_GRACE_SECONDS = 1;
+
+    private final List<BatchSolver> members;
+    private final Executor executor;
+
+    public PortfolioBatchSolver(List<BatchSolver> members, Executor executor) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Portfolio needs at least one solver");
+        }
+        this.members = members;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+        // 将求解器线程平均分给各成员
+        int totalThreads = context.getThreads() > 0 ? context.getThreads() : Runtime.getRuntime().availableProcessors();
+        int memberThreads = Math.max(1, totalThreads / members.size());
+
+        CompletableFuture<GroupSolveResult> winner = new CompletableFuture<>();
+        List<SolveContext> children = new ArrayList<>();
+        List<CompletableFuture<GroupSolveResult>> futures = new ArrayList<>();
+        for (BatchSolver member : members) {
+            SolveContext child = context.child();
+            child.setThreads(memberThreads);
+            children.add(child);
+            // 成员只读取PieceStep列表，直接共用同一个列表
+            CompletableFuture<GroupSolveResult> future = CompletableFuture.supplyAsync(
+                    () -> solveMember(member, pieceSteps, child), executor);
+            future.thenAccept(result -> {
+                if (result.getStatus() == SolveStatus.OPTIMAL || result.getStatus() == SolveStatus.INFEASIBLE) {
+                    winner.complete(result);
+                }
+            });
+            futures.add(future);
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        all.thenRun(() -> winner.complete(null));
+
+        try {
+            GroupSolveResult proven = await(winner, context);
+            if (proven != null) {
+                return proven;
+            }
+        } finally {
+            // 胜者已产生或已到截止时间，取消其余成员并从任务上下文中移除
+            children.forEach(SolveContext::cancel);
+            children.forEach(SolveContext::close);
+        }
+
+        try {
+            all.get(CANCEL_GRACE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // 未返回的成员不参与比较
+        }
+        return bestOf(pieceSteps, context, futures);
+    }
+
+    // 等待第一个证明的结果; 所有成员都结束但没有证明时返回null
+    private static GroupSolveResult await(CompletableFuture<GroupSolveResult> winner, SolveContext context) {
+        try {
+            if (!context.hasDeadline()) {
+                return winner.get();
+            }
+            return winner.get(TimeUnit.SECONDS.toNanos(DEADLINE_GRACE_SECONDS) + context.getDeadline() - System.nanoTime(),
+                    TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    // 某个成员失败(如缺少求解器本地库)时按无解处理，不影响其他成员
+    private static GroupSolveResult solveMember(BatchSolver member, List<PieceStep> pieceSteps, SolveContext context) {
+        try {
+            return member.solve(pieceSteps, context);
+        } catch (RuntimeException | LinkageError e) {
+            System.err.println("Solver " + member.getName() + " failed: " + e);
+            return GroupSolveResult.of(context.getTemperature(), new ArrayList<>(), SolveStatus.NO_SOLUTION, null, 0);
+        }
+    }
+
+    // 在已返回的结果中选Batch最少的可行解，下界取组合下界和所有成员中最大的
+    private static GroupSolveResult bestOf(List<PieceStep> pieceSteps, SolveContext context,
+                                           List<CompletableFuture<GroupSolveResult>> futures) {
+        GroupSolveResult best = null;
+        Integer lowerBound = BatchLowerBound.of(pieceSteps);
+        long nodes = 0;
+        for (CompletableFuture<GroupSolveResult> future : futures) {
+            GroupSolveResult result = future.getNow(null);
+            if (result == null) {
+                continue;
+            }
+            nodes += result.getNodes();
+            if (result.getLowerBound() != null && (lowerBound == null || result.getLowerBound() > lowerBound)) {
+                lowerBound = result.getLowerBound();
+            }
+            boolean feasible = result.getStatus() == SolveStatus.OPTIMAL || result.getStatus() == SolveStatus.FEASIBLE;
+            if (feasible && (best == null || result.getBatches().size() < best.getBatches().size())) {
+                best = result;
+            }
+        }
+        if (best == null) {
+            return context.fallbackResult(pieceSteps.size());
+        }
+
+        SolveStatus status = lowerBound != null && best.getBatches().size() <= lowerBound
+                ? SolveStatus.OPTIMAL
+                : SolveStatus.FEASIBLE;
+        return GroupSolveResult.of(context.getTemperature(), best.getBatches(), status, lowerBound, nodes);
+    }
+}
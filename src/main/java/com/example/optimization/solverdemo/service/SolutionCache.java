@@ -0,0 +1,151 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolutionCacheStats;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.example.optimization.solverdemo.service.BatchRules.*;
+
+/**
+ * 温度组求解结果的缓存。
+ * <p>
+ * 键为求解器名称、温度组PieceStep多重集合(重量、宽度、厚度)与约束参数的规范指纹，与pieceStepId、温度和输入顺序无关;
+ * 不同求解器的结果互不命中，指定求解器的请求(如对比测试)总是得到该求解器自己的结果。
+ * 值按规范顺序下标保存Batch结构，命中时映射回新请求的PieceStep。属性完全相同的PieceStep可以互换，
+ * 因此映射得到的方案与原方案等价。按LRU淘汰，容量为 solver.cache-size。
+ */
+@Component
+public class SolutionCache {
+    // 规范顺序: 厚度、宽度、重量
+    private static final Comparator<PieceStep> CANONICAL_ORDER = Comparator
+            .comparing(PieceStep::getThickness)
+            .thenComparing(PieceStep::getWidth)
+            .thenComparing(PieceStep::getWeight);
+
+    private final Cache<HashCode, CachedPlan> cache;
+
+    @Autowired
+    public SolutionCache(SolverProperties solverProperties) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(solverProperties.getCacheSize())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 查找solver对相同实例的结果并映射到pieceSteps上; temperature用于结果中的温度
+     */
+    public Optional<GroupSolveResult> lookup(String solver, String temperature, List<PieceStep> pieceSteps) {
+        List<PieceStep> canonical = canonical(pieceSteps);
+        CachedPlan plan = cache.getIfPresent(fingerprint(solver, canonical));
+        if (plan == null) {
+            return Optional.empty();
+        }
+        List<Batch> batches = new ArrayList<>();
+        for (int b = 0; b < plan.batches().size(); b++) {
+            List<PieceStep> batchPieces = new ArrayList<>();
+            for (int i : plan.batches().get(b)) {
+                batchPieces.add(canonical.get(i));
+            }
+            batches.add(toBatch("Batch_" + b, batchPieces));
+        }
+        return Optional.of(new GroupSolveResult(temperature, batches, plan.status(), plan.lowerBound(), plan.gap(),
+                plan.nodes(), null));
+    }
+
+    /**
+     * 保存结果; 只保存有方案或已证明无解的结果，已有结果更好时保留已有结果
+     */
+    public void store(String solver, List<PieceStep> pieceSteps, GroupSolveResult result) {
+        boolean hasPlan = result.getStatus() == SolveStatus.OPTIMAL || result.getStatus() == SolveStatus.FEASIBLE;
+        if (!hasPlan && result.getStatus() != SolveStatus.INFEASIBLE) {
+            return;
+        }
+        List<PieceStep> canonical = canonical(pieceSteps);
+        Map<PieceStep, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < canonical.size(); i++) {
+            index.put(canonical.get(i), i);
+        }
+        List<int[]> batches = new ArrayList<>();
+        for (Batch batch : result.getBatches()) {
+            int[] positions = new int[batch.getPieceSteps().size()];
+            for (int k = 0; k < positions.length; k++) {
+                Integer i = index.get(batch.getPieceSteps().get(k));
+                if (i == null) {
+                    // 结果中的PieceStep不是本组的对象，无法建立映射
+                    return;
+                }
+                positions[k] = i;
+            }
+            batches.add(positions);
+        }
+        CachedPlan plan = new CachedPlan(batches, result.getStatus(), result.getLowerBound(), result.getGap(),
+                result.getNodes());
+        cache.asMap().merge(fingerprint(solver, canonical), plan, (old, updated) -> updated.isBetterThan(old) ? updated : old);
+    }
+
+    public SolutionCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new SolutionCacheStats(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                cache.size());
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private static List<PieceStep> canonical(List<PieceStep> pieceSteps) {
+        List<PieceStep> canonical = new ArrayList<>(pieceSteps);
+        canonical.sort(CANONICAL_ORDER);
+        return canonical;
+    }
+
+    // 求解器名称和约束参数在前，随后按规范顺序写入每个PieceStep的重量、宽度、厚度
+    private static HashCode fingerprint(String solver, List<PieceStep> canonical) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(solver, StandardCharsets.UTF_8)
+                .putInt(MAX_HEIGHT)
+                .putInt(MAX_WEIGHT)
+                .putInt(CONVECTION_PLATE_HEIGHT)
+                .putInt(CONVECTION_PLATE_WEIGHT)
+                .putDouble(MIN_THICKNESS_FIRST_TWO)
+                .putDouble(MAX_THICKNESS_DIFF)
+                .putInt(MIN_PIECES_PER_BATCH)
+                .putInt(MAX_PIECES_PER_BATCH)
+                .putInt(canonical.size());
+        for (PieceStep piece : canonical) {
+            hasher.putDouble(piece.getWeight())
+                    .putDouble(piece.getWidth())
+                    .putDouble(piece.getThickness());
+        }
+        return hasher.hash();
+    }
+
+    // Batch结构按规范顺序下标保存
+    private record CachedPlan(List<int[]> batches, SolveStatus status, Integer lowerBound, Double gap, long nodes) {
+
+        // 已证明的结果优先，其次Batch更少
+        boolean isBetterThan(CachedPlan other) {
+            boolean proven = status == SolveStatus.OPTIMAL || status == SolveStatus.INFEASIBLE;
+            boolean otherProven = other.status == SolveStatus.OPTIMAL || other.status == SolveStatus.INFEASIBLE;
+            if (proven != otherProven) {
+                return proven;
+            }
+            return !otherProven && batches.size() < other.batches.size();
+        }
+    }
+}
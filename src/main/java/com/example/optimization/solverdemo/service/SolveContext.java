@@ -0,0 +1,140 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 单个温度组求解时的运行参数。
+ * <p>
+ * {@link #child()}派生的子上下文在父上下文中注册了取消回调，用完后须{@link #close()}，
+ * 否则长期存在的父上下文会一直引用子上下文及其初始解。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SolveContext implements AutoCloseable {
+    private String temperature;
+    // 求解器线程数，0表示使用求解器默认值
+    private int threads;
+    // System.nanoTime()下的截止时间，Long.MAX_VALUE表示不限
+    @Builder.Default
+    private long deadline = Long.MAX_VALUE;
+    // 相对MIP gap上限，null表示使用求解器默认值
+    private Double mipGap;
+    // 初始解(只包含该温度组的合法Batch，可以不覆盖全部PieceStep)
+    @Builder.Default
+    private List<Batch> incumbent = List.of();
+    // 求解器找到更好的解时的回调，null表示不需要
+    private Consumer<GroupSolveResult> incumbentListener;
+    // CPLEX求解器使用的模型
+    @Builder.Default
+    private BatchFormulation formulation = BatchFormulation.POSITIONAL;
+    // 位置模型是否添加对称性破除约束(见CplexBatchSolver)，默认不添加
+    private boolean symmetryBreaking;
+    // 是否为模型变量命名，仅在导出、调试模型时需要
+    private boolean modelNames;
+
+    // 取消标志与回调; toBuilder()得到的副本共享同一个取消状态
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private AtomicBoolean cancelled = new AtomicBoolean();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Builder.Default
+    private List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+    // 子上下文结束时从父上下文移除取消回调; 不是子上下文时为null
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Runnable detach;
+
+    public boolean hasDeadline() {
+        return deadline != Long.MAX_VALUE;
+    }
+
+    // 剩余时间(秒)，不限时返回null
+    public Double remainingSeconds() {
+        return hasDeadline() ? Math.max(0, (deadline - System.nanoTime()) / 1e9) : null;
+    }
+
+    // 已取消或已超过截止时间
+    public boolean shouldStop() {
+        return isCancelled() || System.nanoTime() >= deadline;
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    // 请求取消，求解器应尽快返回当前最好解
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            cancelListeners.forEach(Runnable::run);
+        }
+    }
+
+    // 注册取消回调(如IloCplex.Aborter.abort、GRBModel.terminate); 已取消时立即执行
+    public void onCancel(Runnable listener) {
+        cancelListeners.add(listener);
+        if (isCancelled()) {
+            listener.run();
+        }
+    }
+
+    public void removeCancelListener(Runnable listener) {
+        cancelListeners.remove(listener);
+    }
+
+    // 派生一个独立取消状态的子上下文，父上下文取消时子上下文随之取消; 用完后须调用close()
+    public SolveContext child() {
+        SolveContext child = toBuilder()
+                .cancelled(new AtomicBoolean())
+                .cancelListeners(new CopyOnWriteArrayList<>())
+                .build();
+        Runnable cancelChild = child::cancel;
+        onCancel(cancelChild);
+        child.detach = () -> removeCancelListener(cancelChild);
+        return child;
+    }
+
+    // 子上下文用完: 从父上下文移除取消回调，父上下文不再引用它; 可重复调用，对非子上下文无作用
+    @Override
+    public void close() {
+        Runnable detach = this.detach;
+        if (detach != null) {
+            this.detach = null;
+            detach.run();
+        }
+    }
+
+    // 报告求解过程中找到的可行解; 调用方负责判断是否比之前的解更好
+    public void reportIncumbent(List<Batch> batches) {
+        if (incumbentListener != null && !batches.isEmpty()) {
+            incumbentListener.accept(GroupSolveResult.of(temperature, batches, SolveStatus.FEASIBLE, null, 0));
+        }
+    }
+
+    // 没有求得解时的结果: 初始解覆盖全部PieceStep时退回初始解
+    public GroupSolveResult fallbackResult(int pieceCount) {
+        int covered = incumbent.stream().mapToInt(batch -> batch.getPieceSteps().size()).sum();
+        if (!incumbent.isEmpty() && covered == pieceCount) {
+            return GroupSolveResult.of(temperature, incumbent, SolveStatus.FEASIBLE, null, 0);
+        }
+        return GroupSolveResult.of(temperature, new ArrayList<>(), SolveStatus.NO_SOLUTION, null, 0);
+    }
+}
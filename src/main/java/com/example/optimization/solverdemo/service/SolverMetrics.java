@@ -0,0 +1,109 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 求解过程的指标。
+ * <p>
+ * 各阶段用Observation记录: solver.request(整个请求)、solver.group(单个温度组)、
+ * solver.model.build / solver.model.solve(MIP建模与求解)，由Actuator转换为同名的计时器，
+ * 标签为求解器名称和结果状态。应用未引入tracing桥接和导出器，Observation不产生trace span。
+ * 模型规模和每个温度组的结果记录为分布摘要，
+ * solver.group.results按来源(solver、cache、fallback、presolve)计数，fallback占比即启发式初始解未被改进就返回的比例。
+ */
+@Component
+public class SolverMetrics {
+    // 温度组结果的来源
+    public static final String SOURCE_SOLVER = "solver";
+    public static final String SOURCE_CACHE = "cache";
+    public static final String SOURCE_FALLBACK = "fallback";
+    public static final String SOURCE_PRESOLVE = "presolve";
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    @Autowired
+    public SolverMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    // 不接入Actuator时使用(测试、基准): 指标只保存在内存中
+    public SolverMetrics() {
+        this(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    /**
+     * 在名为name的Observation中执行body，status从结果中取出作为标签; parent为null时使用当前线程的Observation
+     */
+    public <T> T observe(String name, String solver, Observation parent, Supplier<T> body,
+                         Function<T, ?> status) {
+        Observation observation = start(name, solver, parent);
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = body.get();
+            observation.lowCardinalityKeyValue("status", String.valueOf(status.apply(result)));
+            return result;
+        } catch (RuntimeException | Error e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    /**
+     * 开始一个阶段，调用方负责stop; 用于包含受检异常的代码(CPLEX、Gurobi建模)
+     */
+    public Observation start(String name, String solver, Observation parent) {
+        return Observation.createNotStarted(name, observationRegistry)
+                .parentObservation(parent != null ? parent : observationRegistry.getCurrentObservation())
+                .lowCardinalityKeyValue("solver", solver)
+                .start();
+    }
+
+    public Observation currentObservation() {
+        return observationRegistry.getCurrentObservation();
+    }
+
+    // MIP模型规模
+    public void recordModel(String solver, BatchFormulation formulation, int variables, int constraints) {
+        summary("solver.model.variables", solver, "formulation", formulation.name()).record(variables);
+        summary("solver.model.constraints", solver, "formulation", formulation.name()).record(constraints);
+    }
+
+    // 单个温度组的结果
+    public void recordGroup(String solver, String source, int pieceCount, GroupSolveResult result) {
+        meterRegistry.counter("solver.group.results",
+                "solver", solver, "status", result.getStatus().name(), "source", source).increment();
+        summary("solver.group.pieces", solver, "source", source).record(pieceCount);
+        summary("solver.group.batches", solver, "source", source).record(result.getBatches().size());
+        summary("solver.group.nodes", solver, "source", source).record(result.getNodes());
+        if (result.getGap() != null) {
+            // gap在[0, 1]内，默认直方图桶不适用，按固定阈值统计
+            DistributionSummary.builder("solver.group.gap")
+                    .tag("solver", solver)
+                    .tag("source", source)
+                    .serviceLevelObjectives(0.01, 0.05, 0.1, 0.2, 0.5)
+                    .register(meterRegistry)
+                    .record(result.getGap());
+        }
+    }
+
+    private DistributionSummary summary(String name, String solver, String tag, String value) {
+        return DistributionSummary.builder(name)
+                .tag("solver", solver)
+                .tag(tag, value)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.optimization.solverdemo.service;
+
+import com.gurobi.gurobi.GRB;
+import com.gurobi.gurobi.GRBConstr;
+import com.gurobi.gurobi.GRBException;
+import com.gurobi.gurobi.GRBLinExpr;
+import com.gurobi.gurobi.GRBModel;
+import com.gurobi.gurobi.GRBVar;
+import ilog.concert.IloException;
+import ilog.concert.IloLPMatrix;
+import ilog.concert.IloNumVar;
+import ilog.cplex.IloCplex;
+
+import java.util.Arrays;
+
+/**
+ * 按行压缩(CSR)存储的线性约束: lower <= sum(values * vars[columns]) <= upper。
+ * <p>
+ * 建模时系数只写入基本类型数组，列用变量数组中的下标表示，不为每行创建表达式对象;
+ * 全部约束写完后通过{@link #addTo(IloCplex, IloNumVar[])}或{@link #addTo(GRBModel, GRBVar[])}一次性加入求解器。
+ * 一侧无界的行用{@link #le}、{@link #ge}添加，{@link #eq}添加等式。
+ */
+public final class SparseRows {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private double[] lower;
+    private double[] upper;
+    // rowStart[r] ~ rowStart[r+1]: 第r行的非零元在columns/values中的范围
+    private int[] rowStart;
+    private int[] columns;
+    private double[] values;
+    private int rows;
+    private int nonZeros;
+
+    public SparseRows(int expectedRows, int expectedNonZeros) {
+        lower = new double[Math.max(expectedRows, 1)];
+        upper = new double[lower.length];
+        rowStart = new int[lower.length + 1];
+        columns = new int[Math.max(expectedNonZeros, 1)];
+        values = new double[columns.length];
+    }
+
+    // 开始新的一行 sum <= rhs，之后用add写入系数
+    public SparseRows le(double rhs) {
+        return row(-INFINITY, rhs);
+    }
+
+    // 开始新的一行 sum >= rhs
+    public SparseRows ge(double rhs) {
+        return row(rhs, INFINITY);
+    }
+
+    // 开始新的一行 sum = rhs
+    public SparseRows eq(double rhs) {
+        return row(rhs, rhs);
+    }
+
+    // 开始新的一行 lower <= sum <= upper
+    public SparseRows row(double lower, double upper) {
+        if (rows == this.lower.length) {
+            int capacity = rows * 2;
+            this.lower = Arrays.copyOf(this.lower, capacity);
+            this.upper = Arrays.copyOf(this.upper, capacity);
+            rowStart = Arrays.copyOf(rowStart, capacity + 1);
+        }
+        this.lower[rows] = lower;
+        this.upper[rows] = upper;
+        rows++;
+        rowStart[rows] = nonZeros;
+        return this;
+    }
+
+    // 当前行加入一项 value * vars[column]
+    public SparseRows add(int column, double value) {
+        if (rows == 0) {
+            throw new IllegalStateException("No row started");
+        }
+        if (nonZeros == columns.length) {
+            columns = Arrays.copyOf(columns, nonZeros * 2);
+            values = Arrays.copyOf(values, nonZeros * 2);
+        }
+        columns[nonZeros] = column;
+        values[nonZeros] = value;
+        nonZeros++;
+        rowStart[rows] = nonZeros;
+        return this;
+    }
+
+    /**
+     * 按下标生成变量名(仅在导出、调试模型时需要): prefix_d1_d2...，最后一维变化最快，
+     * 与按相同维度展开的变量数组一一对应
+     */
+    public static String[] names(String prefix, int... dims) {
+        int total = 1;
+        for (int dim : dims) {
+            total *= dim;
+        }
+        String[] names = new String[total];
+        int[] index = new int[dims.length];
+        StringBuilder name = new StringBuilder();
+        for (int f = 0; f < total; f++) {
+            name.setLength(0);
+            name.append(prefix);
+            for (int d : index) {
+                name.append('_').append(d);
+            }
+            names[f] = name.toString();
+            for (int d = dims.length - 1; d >= 0 && ++index[d] == dims[d]; d--) {
+                index[d] = 0;
+            }
+        }
+        return names;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int nonZeros() {
+        return nonZeros;
+    }
+
+    /**
+     * 第r行的只读副本，用于检查或导出已写入的约束
+     */
+    public Row row(int r) {
+        if (r < 0 || r >= rows) {
+            throw new IndexOutOfBoundsException("Row " + r + " of " + rows);
+        }
+        return new Row(lower[r], upper[r], Arrays.copyOfRange(columns, rowStart[r], rowStart[r + 1]),
+                Arrays.copyOfRange(values, rowStart[r], rowStart[r + 1]));
+    }
+
+    /**
+     * 一行约束 lower <= sum(values[e] * vars[columns[e]]) <= upper，无界一侧为±Infinity
+     */
+    public record Row(double lower, double upper, int[] columns, double[] values) {
+    }
+
+    /**
+     * 以一个IloLPMatrix加入CPLEX模型: vars全部作为矩阵的列，约束一次性作为矩阵的行加入
+     */
+    public IloLPMatrix addTo(IloCplex cplex, IloNumVar[] vars) throws IloException {
+        IloLPMatrix matrix = cplex.addLPMatrix();
+        matrix.addCols(vars);
+        if (rows == 0) {
+            return matrix;
+        }
+        int[][] rowColumns = new int[rows][];
+        double[][] rowValues = new double[rows][];
+        for (int r = 0; r < rows; r++) {
+            rowColumns[r] = Arrays.copyOfRange(columns, rowStart[r], rowStart[r + 1]);
+            rowValues[r] = Arrays.copyOfRange(values, rowStart[r], rowStart[r + 1]);
+        }
+        // CPLEX以±Double.MAX_VALUE表示无界
+        double[] rowLower = new double[rows];
+        double[] rowUpper = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            rowLower[r] = lower[r] == -INFINITY ? -Double.MAX_VALUE : lower[r];
+            rowUpper[r] = upper[r] == INFINITY ? Double.MAX_VALUE : upper[r];
+        }
+        matrix.addRows(rowLower, rowUpper, rowColumns, rowValues);
+        return matrix;
+    }
+
+    /**
+     * 通过一次addConstrs加入Gurobi模型; 两侧都有界且不相等的行拆成两个约束
+     */
+    public GRBConstr[] addTo(GRBModel model, GRBVar[] vars) throws GRBException {
+        // 每个非零元对应的变量，各行的表达式取其中一段
+        GRBVar[] rowVars = new GRBVar[nonZeros];
+        for (int e = 0; e < nonZeros; e++) {
+            rowVars[e] = vars[columns[e]];
+        }
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            count += lower[r] == upper[r] ? 1 : (upper[r] != INFINITY ? 1 : 0) + (lower[r] != -INFINITY ? 1 : 0);
+        }
+        GRBLinExpr[] exprs = new GRBLinExpr[count];
+        char[] senses = new char[count];
+        double[] rhs = new double[count];
+        int c = 0;
+        for (int r = 0; r < rows; r++) {
+            GRBLinExpr expr = new GRBLinExpr();
+            expr.addTerms(values, rowVars, rowStart[r], rowStart[r + 1] - rowStart[r]);
+            if (lower[r] == upper[r]) {
+                exprs[c] = expr;
+                senses[c] = GRB.EQUAL;
+                rhs[c++] = upper[r];
+                continue;
+            }
+            if (upper[r] != INFINITY) {
+                exprs[c] = expr;
+                senses[c] = GRB.LESS_EQUAL;
+                rhs[c++] = upper[r];
+            }
+            if (lower[r] != -INFINITY) {
+                exprs[c] = expr;
+                senses[c] = GRB.GREATER_EQUAL;
+                rhs[c++] = lower[r];
+            }
+        }
+        return model.addConstrs(exprs, senses, rhs, null);
+    }
+}
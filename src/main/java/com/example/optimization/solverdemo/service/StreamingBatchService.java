@@ -0,0 +1,176 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * 流式分批: 逐个读取PieceStep，按温度分组，每个温度组求解完成后立即写出一行结果(NDJSON)。
+ * <p>
+ * 输入可以是NDJSON(每行一个PieceStep)或JSON数组，按块读取，不需要完整的请求体。
+ * grouped为true时调用方保证同一温度的PieceStep在输入中连续，温度变化时上一组立即开始求解;
+ * 否则在输入结束后求解各组。并行时同时求解的组数不超过solver.parallelism，
+ * 达到上限时暂停读取，因此内存中只保留正在读取和尚未写出的温度组。
+ * 结果行按完成顺序写出，每行是一个{@link GroupSolveResult}; 输入有误时写出一行 {"error": ...} 并结束。
+ */
+@Service
+public class StreamingBatchService {
+    private final SolverProperties solverProperties;
+    private final Executor batchSolverExecutor;
+    private final BatchOptimizerService batchOptimizerService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public StreamingBatchService(SolverProperties solverProperties,
+                                 @Qualifier("batchSolverExecutor") Executor batchSolverExecutor,
+                                 BatchOptimizerService batchOptimizerService,
+                                 ObjectMapper objectMapper) {
+        this.solverProperties = solverProperties;
+        this.batchSolverExecutor = batchSolverExecutor;
+        this.batchOptimizerService = batchOptimizerService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 从in读取PieceStep并把各温度组的结果写到out; 写出失败(如客户端断开)时取消正在求解的温度组。
+     *
+     * @param grouped 输入是否已按温度连续排列
+     */
+    public void plan(InputStream in, OutputStream out, BatchSolveOptions options, boolean grouped) throws IOException {
+        SolveContext parent = SolveContext.builder().build();
+        // 串行时在当前线程求解，读取在求解期间暂停
+        Executor executor = options.isParallel() ? batchSolverExecutor : Runnable::run;
+        int maxPending = options.isParallel() ? Math.max(1, solverProperties.getParallelism()) : 1;
+        ResultWriter writer = new ResultWriter(out, new ExecutorCompletionService<>(executor), maxPending);
+
+        boolean completed = false;
+        try {
+            Map<String, List<PieceStep>> open = new LinkedHashMap<>();
+            Set<String> finished = new HashSet<>();
+            String error = null;
+            try (MappingIterator<PieceStep> pieces = objectMapper.readerFor(PieceStep.class).readValues(in)) {
+                while (pieces.hasNextValue()) {
+                    PieceStep piece = pieces.nextValue();
+                    String temperature = piece.getTemperature();
+                    if (finished.contains(temperature)) {
+                        throw new IllegalArgumentException("PieceSteps of temperature " + temperature
+                                + " are not contiguous in grouped input");
+                    }
+                    // 温度变化: 上一组已完整，开始求解
+                    if (grouped && !open.isEmpty() && !open.containsKey(temperature)) {
+                        Map.Entry<String, List<PieceStep>> previous = open.entrySet().iterator().next();
+                        open.clear();
+                        finished.add(previous.getKey());
+                        writer.submit(() -> batchOptimizerService.planGroup(previous.getKey(), previous.getValue(),
+                                options, parent));
+                    }
+                    open.computeIfAbsent(temperature, t -> new ArrayList<>()).add(piece);
+                }
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+
+            if (error != null) {
+                // 已提交的温度组不再需要
+                parent.cancel();
+                writer.drain();
+                writer.write(Map.of("error", error));
+            } else {
+                for (Map.Entry<String, List<PieceStep>> group : open.entrySet()) {
+                    writer.submit(() -> batchOptimizerService.planGroup(group.getKey(), group.getValue(),
+                            options, parent));
+                }
+                open.clear();
+                writer.drain();
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                parent.cancel();
+            }
+        }
+    }
+
+    // 已提交但未写出的温度组; 只在读取线程中使用
+    private final class ResultWriter {
+        private final OutputStream out;
+        private final CompletionService<GroupSolveResult> completion;
+        private final int maxPending;
+        private int pending;
+
+        ResultWriter(OutputStream out, CompletionService<GroupSolveResult> completion, int maxPending) {
+            this.out = out;
+            this.completion = completion;
+            this.maxPending = maxPending;
+        }
+
+        // 提交一个温度组，写出已完成的结果; 未完成的组达到上限时等待
+        void submit(Callable<GroupSolveResult> group) throws IOException {
+            completion.submit(group);
+            pending++;
+            Future<GroupSolveResult> done;
+            while ((done = completion.poll()) != null) {
+                writeResult(done);
+            }
+            while (pending >= maxPending) {
+                writeResult(take());
+            }
+        }
+
+        // 等待并写出所有未完成的组
+        void drain() throws IOException {
+            while (pending > 0) {
+                writeResult(take());
+            }
+        }
+
+        void write(Object line) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush();
+        }
+
+        private Future<GroupSolveResult> take() throws IOException {
+            try {
+                return completion.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for temperature groups", e);
+            }
+        }
+
+        private void writeResult(Future<GroupSolveResult> done) throws IOException {
+            pending--;
+            GroupSolveResult result;
+            try {
+                result = done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for temperature groups", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            write(result);
+        }
+    }
+}
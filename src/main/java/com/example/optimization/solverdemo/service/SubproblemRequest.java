@@ -0,0 +1,22 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 协调节点发给工作节点的子问题: 一个温度组或其中厚度上互不相关的一部分
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubproblemRequest {
+    private String temperature;
+    private List<PieceStep> pieceSteps;
+    private BatchSolveOptions options;
+}
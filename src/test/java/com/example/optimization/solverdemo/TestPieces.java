@@ -0,0 +1,62 @@
+package com.example.optimization.solverdemo;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+
+/**
+ * 测试共用的PieceStep: 默认重量10、宽度800、温度T1。
+ * 其他属性通过{@link #piece(String)}返回的builder按名称设置，避免多个double参数按位置传错
+ */
+public final class TestPieces {
+    public static final String TEMPERATURE = "T1";
+    public static final double WEIGHT = 10.0;
+    public static final double WIDTH = 800.0;
+
+    private TestPieces() {
+    }
+
+    // 只指定厚度，其余取默认值
+    public static PieceStep piece(String id, double thickness) {
+        return piece(id).thickness(thickness).build();
+    }
+
+    // 例如 piece("P1").thickness(0.8).width(1200).build()
+    public static Builder piece(String id) {
+        return new Builder(id);
+    }
+
+    public static final class Builder {
+        private final PieceStep.PieceStepBuilder builder;
+
+        private Builder(String id) {
+            builder = PieceStep.builder()
+                    .pieceStepId(id)
+                    .weight(WEIGHT)
+                    .width(WIDTH)
+                    .temperature(TEMPERATURE);
+        }
+
+        public Builder thickness(double thickness) {
+            builder.thickness(thickness);
+            return this;
+        }
+
+        public Builder width(double width) {
+            builder.width(width);
+            return this;
+        }
+
+        public Builder weight(double weight) {
+            builder.weight(weight);
+            return this;
+        }
+
+        public Builder temperature(String temperature) {
+            builder.temperature(temperature);
+            return this;
+        }
+
+        public PieceStep build() {
+            return builder.build();
+        }
+    }
+}
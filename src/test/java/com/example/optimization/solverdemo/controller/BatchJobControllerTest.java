@@ -0,0 +1,118 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.BatchJobStatus;
+import com.example.optimization.solverdemo.entity.BatchJobView;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void runsSubmittedJobToCompletion() throws Exception {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("P" + i, 0.6 + 0.05 * i));
+        }
+
+        BatchJobView submitted = submit(pieces, "exact");
+        assertNotNull(submitted.getJobId());
+
+        BatchJobView finished = awaitFinished(submitted.getJobId());
+        assertEquals(BatchJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(1, finished.getGroups().size());
+        assertEquals(SolveStatus.OPTIMAL, finished.getGroups().get(0).getStatus());
+        assertEquals(2, finished.getGroups().get(0).getBatches().size());
+    }
+
+    @Test
+    void cancelledJobKeepsBestPlanFound() throws Exception {
+        Random random = new Random(7);
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double thickness = Math.round((0.5 + random.nextDouble() * 1.0) * 20) / 20.0;
+            double width = 600 + random.nextInt(9) * 100;
+            double weight = 8 + random.nextInt(20);
+            pieces.add(piece("P" + i).thickness(thickness).width(width).weight(weight).build());
+        }
+
+        BatchJobView submitted = submit(pieces, "exact");
+        // 等到求解器报告第一个可行解后再取消
+        BatchJobView running = view(submitted.getJobId());
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (running.getGroups().isEmpty() && !running.getStatus().isFinished()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            running = view(submitted.getJobId());
+        }
+        mockMvc.perform(post("/api/batches/jobs/{jobId}/cancel", submitted.getJobId()))
+                .andExpect(status().isOk());
+
+        BatchJobView finished = awaitFinished(submitted.getJobId());
+        assertTrue(finished.getStatus() == BatchJobStatus.CANCELLED
+                || finished.getStatus() == BatchJobStatus.COMPLETED);
+        assertFalse(finished.getGroups().get(0).getBatches().isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownJobsAndSolvers() throws Exception {
+        mockMvc.perform(get("/api/batches/jobs/{jobId}", "missing"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/batches/jobs").param("solver", "missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private BatchJobView submit(List<PieceStep> pieces, String solver) throws Exception {
+        String body = mockMvc.perform(post("/api/batches/jobs").param("solver", solver)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(pieces)))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, BatchJobView.class);
+    }
+
+    private BatchJobView awaitFinished(String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            BatchJobView view = view(jobId);
+            if (view.getStatus().isFinished()) {
+                return view;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private BatchJobView view(String jobId) throws Exception {
+        String body = mockMvc.perform(get("/api/batches/jobs/{jobId}", jobId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, BatchJobView.class);
+    }
+}
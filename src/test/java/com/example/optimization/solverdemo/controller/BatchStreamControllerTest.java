@@ -0,0 +1,94 @@
+package com.example.optimization.solverdemo.controller;
+
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void streamsOneLinePerTemperatureGroupForNdjsonAndArrayInput() throws Exception {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (String temperature : List.of("S1", "S2")) {
+            for (int i = 0; i < 10; i++) {
+                pieces.add(piece(temperature + "-" + i).temperature(temperature).thickness(0.6 + 0.05 * i).build());
+            }
+        }
+        StringBuilder ndjson = new StringBuilder();
+        for (PieceStep piece : pieces) {
+            ndjson.append(objectMapper.writeValueAsString(piece)).append('\n');
+        }
+
+        List<String> ndjsonLines = stream(MediaType.APPLICATION_NDJSON, ndjson.toString(), true);
+        List<String> arrayLines = stream(MediaType.APPLICATION_JSON, objectMapper.writeValueAsString(pieces), false);
+
+        for (List<String> lines : List.of(ndjsonLines, arrayLines)) {
+            assertEquals(2, lines.size());
+            List<String> temperatures = new ArrayList<>();
+            for (String line : lines) {
+                GroupSolveResult group = objectMapper.readValue(line, GroupSolveResult.class);
+                temperatures.add(group.getTemperature());
+                assertEquals(SolveStatus.OPTIMAL, group.getStatus());
+                assertEquals(2, group.getBatches().size());
+            }
+            assertEquals(List.of("S1", "S2"), temperatures);
+        }
+    }
+
+    @Test
+    void reportsInputErrorsInStreamAndRejectsUnknownSolver() throws Exception {
+        String interleaved = objectMapper.writeValueAsString(piece("A").temperature("S1").thickness(0.7).build()) + "\n"
+                + objectMapper.writeValueAsString(piece("B").temperature("S2").thickness(0.7).build()) + "\n"
+                + objectMapper.writeValueAsString(piece("C").temperature("S1").thickness(0.7).build()) + "\n";
+        List<String> lines = stream(MediaType.APPLICATION_NDJSON, interleaved, true);
+
+        JsonNode last = objectMapper.readTree(lines.get(lines.size() - 1));
+        assertTrue(last.get("error").asText().contains("S1"));
+
+        mockMvc.perform(post("/api/batches/stream").param("solver", "missing")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(""))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> stream(MediaType contentType, String body, boolean grouped) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/batches/stream")
+                        .param("solver", "exact")
+                        .param("grouped", String.valueOf(grouped))
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return content.lines().filter(line -> !line.isBlank()).toList();
+    }
+}
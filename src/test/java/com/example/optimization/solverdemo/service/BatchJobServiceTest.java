@@ -0,0 +1,83 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.BatchJobStatus;
+import com.example.optimization.solverdemo.entity.BatchJobView;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BatchJobServiceTest {
+
+    @Autowired
+    private BatchOptimizerService batchOptimizerService;
+
+    @Test
+    void evictsFinishedJobsWithoutNewSubmissions() throws InterruptedException {
+        SolverProperties properties = new SolverProperties();
+        properties.setJobRetention(Duration.ZERO);
+        // 任务在提交线程中同步执行
+        BatchJobService service = new BatchJobService(properties, Runnable::run, Runnable::run, batchOptimizerService);
+
+        BatchJobView submitted = service.submit(pieces(), BatchSolveOptions.builder().solver("exact").build());
+        assertEquals(BatchJobStatus.COMPLETED, service.get(submitted.getJobId()).orElseThrow().getStatus());
+
+        Thread.sleep(5);
+        service.evictExpired();
+        assertTrue(service.get(submitted.getJobId()).isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownPortfolioMembersBeforeQueueing() {
+        List<Runnable> queued = new ArrayList<>();
+        BatchJobService service = new BatchJobService(new SolverProperties(), queued::add, Runnable::run,
+                batchOptimizerService);
+        BatchSolveOptions options = BatchSolveOptions.builder()
+                .solver(PortfolioBatchSolver.NAME)
+                .portfolio(List.of(ExactBatchEngine.NAME, "missing"))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(pieces(), options));
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void incumbentEventsDoNotRunOnSolverThread() throws InterruptedException {
+        // 事件线程池不执行任何任务: 求解器回调不能因推送而阻塞
+        List<Runnable> pending = new CopyOnWriteArrayList<>();
+        Executor stalled = pending::add;
+        BatchJobService service = new BatchJobService(new SolverProperties(),
+                task -> CompletableFuture.runAsync(task), stalled, batchOptimizerService);
+
+        BatchJobView submitted = service.submit(pieces(), BatchSolveOptions.builder().solver("exact").build());
+        service.subscribe(submitted.getJobId()).orElseThrow();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!service.get(submitted.getJobId()).orElseThrow().getStatus().isFinished()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(BatchJobStatus.COMPLETED, service.get(submitted.getJobId()).orElseThrow().getStatus());
+        assertFalse(pending.isEmpty());
+    }
+
+    private static List<PieceStep> pieces() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("P" + i, 0.6 + 0.05 * i));
+        }
+        return pieces;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLowerBoundTest {
+
+    @Test
+    void sumsBoundsOfThicknessComponents() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pieces.add(piece("A" + i).thickness(0.7 + 0.1 * i).width(810.0).weight(11.0).build());
+            pieces.add(piece("B" + i).thickness(2.0 + 0.1 * i).width(810.0).weight(11.0).build());
+        }
+        // 两部分之间的厚度间隔无法跨越，下界按部分分别计算: 1 + 1
+        assertEquals(2, BatchLowerBound.of(pieces));
+
+        pieces.add(piece("C").thickness(5.0).width(810.0).weight(11.0).build());
+        assertEquals(3, BatchLowerBound.of(pieces));
+    }
+
+    @Test
+    void usesThinHeightAndWeightBounds() {
+        // 10个薄PieceStep每个Batch最多3个: ceil(10/3)=4 > ceil(12/5)=3
+        List<PieceStep> thin = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            thin.add(piece("T" + i).thickness(0.5 + 0.01 * i).width(810.0).weight(11.0).build());
+        }
+        thin.add(piece("K1").thickness(0.7).width(810.0).weight(11.0).build());
+        thin.add(piece("K2").thickness(0.7).width(810.0).weight(11.0).build());
+        assertEquals(4, BatchLowerBound.of(thin));
+
+        // 5个PieceStep数量上只需1个Batch，但高度 5*(1500+70) > 5500+70
+        List<PieceStep> wide = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            wide.add(piece("W" + i).thickness(0.8).width(1500.0).weight(11.0).build());
+        }
+        assertEquals(2, BatchLowerBound.of(wide));
+
+        // 重量 5*(30+1) > 120+1
+        List<PieceStep> heavy = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            heavy.add(piece("H" + i).thickness(0.8).width(810.0).weight(30.0).build());
+        }
+        assertEquals(2, BatchLowerBound.of(heavy));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import ilog.concert.IloException;
+import ilog.cplex.IloCplex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+class BatchOptimizerServiceTest {
+
+    @Autowired
+    private BatchOptimizerService batchOptimizerService;
+
+    @Test
+    void compactModelBatchesSeparatedThicknessClusters() {
+        assumeTrue(cplexAvailable(), "CPLEX native library not available");
+        // 0.8与1.5相差超过0.3，且0.8的窗口(0.8, 1.1]内没有其他PieceStep: 厚度窗口约束不能因此禁止1.5的PieceStep
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pieces.add(piece("A" + i, 0.8));
+            pieces.add(piece("B" + i, 1.5));
+        }
+
+        List<Batch> batches = batchOptimizerService.generateOptimalBatches(pieces, BatchFormulation.COMPACT);
+
+        assertEquals(4, batches.size());
+        for (Batch batch : batches) {
+            assertEquals(4, batch.getPieceSteps().size());
+            assertEquals(1, batch.getPieceSteps().stream().map(PieceStep::getThickness).distinct().count());
+        }
+    }
+
+    private static boolean cplexAvailable() {
+        try {
+            new IloCplex().end();
+            return true;
+        } catch (IloException | UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+}
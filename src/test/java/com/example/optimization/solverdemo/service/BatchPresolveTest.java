@@ -0,0 +1,97 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PresolveIssue;
+import com.example.optimization.solverdemo.entity.PresolveReason;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPresolveTest {
+
+    @Test
+    void reportsUnplaceablePiecesAndFixesSingleBatchParts() {
+        List<PieceStep> pieces = new ArrayList<>();
+        // 厚度0.8的部分: 10件可正常分批，另有1件过宽
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("A" + i, 0.8));
+        }
+        pieces.add(piece("WIDE").thickness(0.8).width(5000).build());
+        // 厚度0.2: 没有厚度相容的PieceStep
+        pieces.add(piece("THIN", 0.2));
+        // 厚度1.5: 6件无法拆成4~5件的Batch
+        for (int i = 0; i < 6; i++) {
+            pieces.add(piece("C" + i, 1.5));
+        }
+        // 厚度2.5: 5件只能组成一个Batch
+        for (int i = 0; i < 5; i++) {
+            pieces.add(piece("D" + i, 2.5));
+        }
+
+        BatchPresolve presolve = BatchPresolve.of(PieceColumns.of(pieces).sortedByThickness());
+
+        assertFalse(presolve.isFeasible());
+        List<PresolveIssue> issues = presolve.report().getIssues();
+        assertEquals(List.of(PresolveReason.TOO_WIDE, PresolveReason.TOO_FEW_PIECES, PresolveReason.PIECE_COUNT),
+                issues.stream().map(PresolveIssue::getReason).toList());
+        assertEquals(List.of("WIDE"), issues.get(0).getPieceStepIds());
+        assertEquals(List.of("THIN"), issues.get(1).getPieceStepIds());
+        assertEquals(6, issues.get(2).getPieceStepIds().size());
+
+        assertEquals(1, presolve.fixed().size());
+        assertEquals(5, presolve.fixed().get(0).getPieceSteps().size());
+        assertEquals(10, presolve.reduced().size());
+        assertEquals(2, presolve.report().getMaxBatches());
+        assertEquals(2, presolve.report().getLowerBound());
+
+        GroupSolveResult infeasible = presolve.infeasible("T1");
+        assertEquals(SolveStatus.INFEASIBLE, infeasible.getStatus());
+        assertSame(presolve.report(), infeasible.getPresolve());
+    }
+
+    @Test
+    void completesReducedResultWithFixedBatches() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pieces.add(piece("A" + i, 0.8));
+        }
+        for (int i = 0; i < 4; i++) {
+            pieces.add(piece("D" + i, 2.5));
+        }
+        BatchPresolve presolve = BatchPresolve.of(PieceColumns.of(pieces).sortedByThickness());
+        assertTrue(presolve.isFeasible());
+
+        List<Batch> reduced = List.of(
+                BatchRules.toBatch("Batch_0", presolve.reduced().subList(0, 4)),
+                BatchRules.toBatch("Batch_1", presolve.reduced().subList(4, 8)));
+        GroupSolveResult result = presolve.complete(
+                GroupSolveResult.of("T1", reduced, SolveStatus.OPTIMAL, 2, 0));
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        assertEquals(3, result.getLowerBound());
+        assertEquals(List.of("Batch_0", "Batch_1", "Batch_2"), result.getBatches().stream().map(Batch::getBatchId).toList());
+        assertEquals("D3", result.getBatches().get(0).getPieceSteps().get(0).getPieceStepId());
+        assertNotNull(result.getPresolve());
+    }
+
+    @Test
+    void boundsBatchesByPiecesAndThickPiecesPerPart() {
+        List<PieceStep> pieces = new ArrayList<>();
+        // 12件中只有4件厚度>=0.7，最多2个Batch
+        for (int i = 0; i < 12; i++) {
+            pieces.add(piece("A" + i, i < 8 ? 0.5 : 0.7));
+        }
+        // 另一部分9件，最多2个Batch
+        for (int i = 0; i < 9; i++) {
+            pieces.add(piece("B" + i, 2.0));
+        }
+        assertEquals(4, BatchPresolve.maxBatches(PieceColumns.of(pieces)));
+    }
+}
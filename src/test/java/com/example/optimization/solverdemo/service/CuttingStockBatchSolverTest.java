@@ -0,0 +1,62 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuttingStockBatchSolverTest {
+
+    @Test
+    void aggregatesIdenticalPiecesAndEnumeratesValidPatterns() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pieces.add(piece("A" + i, 0.8));
+        }
+        for (int i = 0; i < 3; i++) {
+            pieces.add(piece("B" + i, 0.6));
+        }
+        pieces.add(piece("C", 0.2));
+        PieceTypes types = PieceTypes.of(PieceColumns.of(pieces).sortedByThickness());
+
+        assertEquals(3, types.size());
+        assertEquals(List.of(1, 3, 12), List.of(types.count(0), types.count(1), types.count(2)));
+
+        // 厚度0.2与0.6不兼容，C不能出现在任何模式中; 其余模式: 4~5件，至少两件0.8
+        List<int[]> patterns = CuttingStockBatchSolver.patterns(types, CuttingStockBatchSolver.MAX_PATTERNS);
+        assertEquals(7, patterns.size());
+        for (int[] pattern : patterns) {
+            List<Batch> batch = types.expand(List.of(pattern));
+            assertTrue(types.pieces().isValidBatch(batch.get(0).getPieceSteps().stream()
+                    .mapToInt(piece -> types.pieces().pieceSteps().indexOf(piece)).toArray()));
+        }
+        assertNull(CuttingStockBatchSolver.patterns(types, 3));
+    }
+
+    @Test
+    void expandsTypeCountsToDistinctPieces() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("A" + i, i < 4 ? 0.6 : 0.8));
+        }
+        PieceTypes types = PieceTypes.of(PieceColumns.of(pieces).sortedByThickness());
+
+        List<Batch> batches = types.expand(List.of(new int[]{0, 0, 1, 1, 1}, new int[]{1, 0, 1, 0, 1}));
+
+        Set<String> ids = new HashSet<>();
+        for (Batch batch : batches) {
+            assertEquals(0.8, batch.getPieceSteps().get(0).getThickness());
+            assertEquals(0.6, batch.getPieceSteps().get(4).getThickness());
+            batch.getPieceSteps().forEach(piece -> ids.add(piece.getPieceStepId()));
+        }
+        assertEquals(10, ids.size());
+        assertThrows(IllegalArgumentException.class, () -> types.expand(List.of(new int[]{0, 0, 0, 0, 0})));
+    }
+}
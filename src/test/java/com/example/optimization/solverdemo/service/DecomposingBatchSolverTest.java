@@ -0,0 +1,82 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecomposingBatchSolverTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExactBatchEngine exactBatchEngine = new ExactBatchEngine();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void splitsAtThicknessGapsAndAddsLowerBounds() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pieces.add(piece("A" + i, 0.8 + 0.01 * i));
+            pieces.add(piece("B" + i, 1.5 + 0.01 * i));
+        }
+        pieces.sort(Comparator.comparing(PieceStep::getThickness));
+        assertEquals(2, DecomposingBatchSolver.components(pieces).size());
+
+        GroupSolveResult result = new DecomposingBatchSolver(exactBatchEngine, executor, 0)
+                .solve(pieces, SolveContext.builder().temperature("T1").build());
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        // 每部分12个PieceStep至少3个Batch
+        assertEquals(6, result.getBatches().size());
+        assertEquals(6, result.getLowerBound());
+        assertValidCover(result, pieces.size());
+    }
+
+    @Test
+    void repairsWindowThatIsInfeasibleOnItsOwn() {
+        // 第一个窗口只有6个厚PieceStep，无法单独分完14个薄PieceStep
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            pieces.add(piece("N" + i, 0.5 + 0.01 * i));
+        }
+        for (int i = 0; i < 26; i++) {
+            pieces.add(piece("K" + i, 0.7 + 0.01 * i));
+        }
+        List<GroupSolveResult> incumbents = Collections.synchronizedList(new ArrayList<>());
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .incumbentListener(incumbents::add)
+                .build();
+
+        GroupSolveResult result = new DecomposingBatchSolver(exactBatchEngine, executor, 20).solve(pieces, context);
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        assertEquals(8, result.getBatches().size());
+        assertValidCover(result, pieces.size());
+        // 第一个窗口没有可行解，不能报告只覆盖部分PieceStep的方案
+        assertTrue(incumbents.isEmpty());
+    }
+
+    private static void assertValidCover(GroupSolveResult result, int pieceCount) {
+        Set<String> seen = new HashSet<>();
+        Set<String> batchIds = new HashSet<>();
+        for (Batch batch : result.getBatches()) {
+            assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch.toString());
+            assertTrue(batchIds.add(batch.getBatchId()));
+            batch.getPieceSteps().forEach(piece -> assertTrue(seen.add(piece.getPieceStepId())));
+        }
+        assertEquals(pieceCount, seen.size());
+    }
+}
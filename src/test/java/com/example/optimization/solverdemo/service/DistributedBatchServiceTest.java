@@ -0,0 +1,152 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.BatchPlanResult;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DistributedBatchServiceTest {
+
+    @Autowired
+    private DistributedBatchService distributedBatchService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void solvesGroupsOnWorkersAndRetriesAroundDeadWorker() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (String temperature : List.of("D1", "D2", "D3")) {
+            for (int i = 0; i < 10; i++) {
+                pieces.add(piece(temperature + "-" + i).temperature(temperature).thickness(0.6 + 0.05 * i).build());
+            }
+        }
+        // 本应用同时作为协调节点和工作节点; localhost:1 无法连接，子问题应改发到其他节点
+        List<String> workers = List.of("http://localhost:" + port, "http://127.0.0.1:" + port, "http://localhost:1");
+        BatchSolveOptions options = BatchSolveOptions.builder().solver("exact").useCache(false).build();
+
+        BatchPlanResult result = distributedBatchService.planBatches(pieces, options, workers);
+
+        assertEquals(List.of("D1", "D2", "D3"), result.getGroups().stream().map(GroupSolveResult::getTemperature).toList());
+        Set<PieceStep> returned = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GroupSolveResult group : result.getGroups()) {
+            assertEquals(SolveStatus.OPTIMAL, group.getStatus());
+            assertEquals(2, group.getBatches().size());
+            for (Batch batch : group.getBatches()) {
+                returned.addAll(batch.getPieceSteps());
+            }
+        }
+        // 工作节点返回的PieceStep映射回请求中的对象
+        Set<PieceStep> requested = Collections.newSetFromMap(new IdentityHashMap<>());
+        requested.addAll(pieces);
+        assertEquals(requested, returned);
+    }
+
+    @Test
+    void retriesIncompleteWorkerResultsAndFallsBackLocally() throws IOException {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("D1-" + i).temperature("D1").thickness(0.6 + 0.05 * i).build());
+        }
+        // 三个节点分别返回: NO_SOLUTION且没有Batch; 重复的PieceStep; 只覆盖部分PieceStep的Batch
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer noSolution = fakeWorker(requests, "{\"temperature\":\"D1\",\"batches\":[],\"status\":\"NO_SOLUTION\"}");
+        HttpServer repeated = fakeWorker(requests, "{\"temperature\":\"D1\",\"status\":\"FEASIBLE\",\"batches\":["
+                + "{\"batchId\":\"Batch_0\",\"pieceSteps\":[{\"pieceStepId\":\"D1-0\"},{\"pieceStepId\":\"D1-0\"}]}]}");
+        HttpServer partial = fakeWorker(requests, "{\"temperature\":\"D1\",\"status\":\"FEASIBLE\",\"batches\":["
+                + "{\"batchId\":\"Batch_0\",\"pieceSteps\":[{\"pieceStepId\":\"D1-9\"},{\"pieceStepId\":\"D1-8\"},"
+                + "{\"pieceStepId\":\"D1-7\"},{\"pieceStepId\":\"D1-6\"}]}]}");
+        try {
+            List<String> workers = List.of("http://localhost:" + noSolution.getAddress().getPort(),
+                    "http://localhost:" + repeated.getAddress().getPort(),
+                    "http://localhost:" + partial.getAddress().getPort());
+            BatchSolveOptions options = BatchSolveOptions.builder().solver("exact").useCache(false).build();
+
+            BatchPlanResult result = distributedBatchService.planBatches(pieces, options, workers);
+
+            assertEquals(3, requests.get());
+            GroupSolveResult group = result.getGroups().get(0);
+            assertEquals(SolveStatus.OPTIMAL, group.getStatus());
+            assertEquals(10, group.getBatches().stream().mapToInt(batch -> batch.getPieceSteps().size()).sum());
+        } finally {
+            noSolution.stop(0);
+            repeated.stop(0);
+            partial.stop(0);
+        }
+    }
+
+    @Test
+    void rejectsInvalidBatchesAndInconsistentBounds() throws IOException {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("D1-" + i).temperature("D1").thickness(0.6 + 0.05 * i).build());
+        }
+        String thick = "{\"batchId\":\"Batch_1\",\"pieceSteps\":[{\"pieceStepId\":\"D1-9\"},{\"pieceStepId\":\"D1-8\"},"
+                + "{\"pieceStepId\":\"D1-7\"},{\"pieceStepId\":\"D1-6\"},{\"pieceStepId\":\"D1-5\"}]}";
+        // 两个节点分别返回: 薄件放在前两个位置的Batch; 合法的Batch但下界超过Batch数量
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer invalid = fakeWorker(requests, "{\"temperature\":\"D1\",\"status\":\"OPTIMAL\",\"lowerBound\":2,\"batches\":["
+                + "{\"batchId\":\"Batch_0\",\"pieceSteps\":[{\"pieceStepId\":\"D1-0\"},{\"pieceStepId\":\"D1-1\"},"
+                + "{\"pieceStepId\":\"D1-2\"},{\"pieceStepId\":\"D1-3\"},{\"pieceStepId\":\"D1-4\"}]}," + thick + "]}");
+        HttpServer inflated = fakeWorker(requests, "{\"temperature\":\"D1\",\"status\":\"OPTIMAL\",\"lowerBound\":3,\"batches\":["
+                + "{\"batchId\":\"Batch_0\",\"pieceSteps\":[{\"pieceStepId\":\"D1-4\"},{\"pieceStepId\":\"D1-3\"},"
+                + "{\"pieceStepId\":\"D1-2\"},{\"pieceStepId\":\"D1-1\"},{\"pieceStepId\":\"D1-0\"}]}," + thick + "]}");
+        try {
+            List<String> workers = List.of("http://localhost:" + invalid.getAddress().getPort(),
+                    "http://localhost:" + inflated.getAddress().getPort());
+            BatchSolveOptions options = BatchSolveOptions.builder().solver("exact").useCache(false).build();
+
+            BatchPlanResult result = distributedBatchService.planBatches(pieces, options, workers);
+
+            assertEquals(2, requests.get());
+            GroupSolveResult group = result.getGroups().get(0);
+            assertEquals(SolveStatus.OPTIMAL, group.getStatus());
+            assertEquals(2, group.getLowerBound());
+            group.getBatches().forEach(batch -> assertTrue(BatchRules.isValidBatch(batch.getPieceSteps())));
+        } finally {
+            invalid.stop(0);
+            inflated.stop(0);
+        }
+    }
+
+    @Test
+    void estimatesModelSizeByFormulation() {
+        assertEquals(10 * 3 * 5, DistributedBatchService.estimatedSize(10, BatchFormulation.POSITIONAL));
+        assertEquals(10 * 3, DistributedBatchService.estimatedSize(10, BatchFormulation.COMPACT));
+        assertEquals(10, DistributedBatchService.estimatedSize(10, BatchFormulation.SET_PARTITIONING));
+    }
+
+    // 对子问题请求总是返回body的工作节点
+    private static HttpServer fakeWorker(AtomicInteger requests, String body) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(DistributedBatchService.SUBPROBLEM_PATH, exchange -> {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
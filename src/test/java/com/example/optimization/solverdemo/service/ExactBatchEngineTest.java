@@ -0,0 +1,154 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactBatchEngineTest {
+
+    private final ExactBatchEngine engine = new ExactBatchEngine();
+
+    @Test
+    void packsTenPiecesIntoTwoBatches() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("P" + i, 0.6 + 0.05 * i));
+        }
+
+        GroupSolveResult result = engine.solve(pieces, SolveContext.builder().build());
+
+        assertTrue(result.isOptimal());
+        assertEquals(2, result.getBatches().size());
+        assertValidCover(pieces, result.getBatches());
+    }
+
+    @Test
+    void provesInfeasibilityWithoutThickPieces() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pieces.add(piece("P" + i, 0.5));
+        }
+
+        GroupSolveResult result = engine.solve(pieces, SolveContext.builder().build());
+
+        assertEquals(SolveStatus.INFEASIBLE, result.getStatus());
+        assertTrue(result.getBatches().isEmpty());
+    }
+
+    @Test
+    void matchesBruteForceOnSmallGroups() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int n = 4 + random.nextInt(7);
+            List<PieceStep> pieces = randomPieces(random, n);
+
+            GroupSolveResult result = engine.solve(pieces, SolveContext.builder().build());
+            int expected = bruteForce(pieces, new boolean[n], n);
+
+            assertEquals(expected == Integer.MAX_VALUE ? SolveStatus.INFEASIBLE : SolveStatus.OPTIMAL, result.getStatus());
+            assertEquals(expected == Integer.MAX_VALUE ? 0 : expected, result.getBatches().size(), pieces::toString);
+            if (!result.getBatches().isEmpty()) {
+                assertValidCover(pieces, result.getBatches());
+            }
+        }
+    }
+
+    @Test
+    void solvesSeveralHundredPiecesToTheLowerBound() {
+        List<PieceStep> pieces = randomPieces(new Random(7), 500, 5, 13);
+
+        GroupSolveResult result = engine.solve(pieces, 30.0);
+
+        assertTrue(result.isOptimal());
+        assertEquals(result.getLowerBound(), result.getBatches().size());
+        assertValidCover(pieces, result.getBatches());
+    }
+
+    @Test
+    void returnsBestPlanFoundWithinTimeLimit() {
+        List<PieceStep> pieces = randomPieces(new Random(7), 300);
+
+        GroupSolveResult result = engine.solve(pieces, 1.0);
+
+        assertFalse(result.getBatches().isEmpty());
+        assertTrue(result.getBatches().size() >= result.getLowerBound());
+        assertValidCover(pieces, result.getBatches());
+    }
+
+    private static List<PieceStep> randomPieces(Random random, int n) {
+        return randomPieces(random, n, 9, 20);
+    }
+
+    // 宽度取值600..600+100*(widthSteps-1)，重量取值8..8+weightSteps-1
+    private static List<PieceStep> randomPieces(Random random, int n, int widthSteps, int weightSteps) {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double thickness = Math.round((0.5 + random.nextDouble() * 1.0) * 20) / 20.0;
+            double width = 600 + random.nextInt(widthSteps) * 100;
+            double weight = 8 + random.nextInt(weightSteps);
+            pieces.add(piece("P" + i).thickness(thickness).width(width).weight(weight).build());
+        }
+        return pieces;
+    }
+
+    private static void assertValidCover(List<PieceStep> pieces, List<Batch> batches) {
+        Set<String> seen = new HashSet<>();
+        for (Batch batch : batches) {
+            assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch::toString);
+            for (PieceStep piece : batch.getPieceSteps()) {
+                assertTrue(seen.add(piece.getPieceStepId()));
+            }
+        }
+        assertEquals(pieces.size(), seen.size());
+    }
+
+    // 枚举包含最小未分配下标的所有子集，按厚度降序摆放校验
+    private static int bruteForce(List<PieceStep> pieces, boolean[] used, int left) {
+        if (left == 0) {
+            return 0;
+        }
+        int first = 0;
+        while (used[first]) {
+            first++;
+        }
+        int best = Integer.MAX_VALUE;
+        List<Integer> rest = new ArrayList<>();
+        for (int i = first + 1; i < pieces.size(); i++) {
+            if (!used[i]) {
+                rest.add(i);
+            }
+        }
+        for (int mask = 0; mask < (1 << rest.size()); mask++) {
+            int size = Integer.bitCount(mask) + 1;
+            if (size < BatchRules.MIN_PIECES_PER_BATCH || size > BatchRules.MAX_PIECES_PER_BATCH) {
+                continue;
+            }
+            List<Integer> members = new ArrayList<>(List.of(first));
+            for (int b = 0; b < rest.size(); b++) {
+                if ((mask & (1 << b)) != 0) {
+                    members.add(rest.get(b));
+                }
+            }
+            List<PieceStep> batch = new ArrayList<>();
+            members.forEach(i -> batch.add(pieces.get(i)));
+            batch.sort(Comparator.comparing(PieceStep::getThickness).reversed());
+            if (!BatchRules.isValidBatch(batch)) {
+                continue;
+            }
+            members.forEach(i -> used[i] = true);
+            int sub = bruteForce(pieces, used, left - size);
+            members.forEach(i -> used[i] = false);
+            if (sub != Integer.MAX_VALUE) {
+                best = Math.min(best, sub + 1);
+            }
+        }
+        return best;
+    }
+}
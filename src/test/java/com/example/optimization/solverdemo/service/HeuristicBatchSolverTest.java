@@ -0,0 +1,200 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeuristicBatchSolverTest {
+
+    private final HeuristicBatchSolver heuristicBatchSolver = new HeuristicBatchSolver();
+
+    @Test
+    void batchesThinPiecesBelowThickOnes() {
+        // 原贪心算法无法分批的实例
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("P" + i, 0.6 + 0.05 * i));
+        }
+
+        List<Batch> batches = heuristicBatchSolver.batchesFor(pieces);
+
+        assertEquals(2, batches.size());
+        assertEquals(10, assertValid(batches));
+    }
+
+    @Test
+    void usesScarceThickPiecesForAsManyBatchesAsPossible() {
+        // 6个厚PieceStep最多支撑3个Batch
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            pieces.add(piece("N" + i, 0.5 + 0.01 * i));
+        }
+        for (int i = 0; i < 6; i++) {
+            pieces.add(piece("K" + i, 0.7 + 0.01 * i));
+        }
+
+        List<Batch> batches = heuristicBatchSolver.batchesFor(pieces);
+
+        assertEquals(3, batches.size());
+        assertEquals(15, assertValid(batches));
+    }
+
+    @Test
+    void keepsBatchOrderAfterDonorGivesUpThinnestPiece() {
+        // 剩余PieceStep组成新Batch时，一个5个PieceStep的Batch让出了最薄的PieceStep，最薄厚度超过了其后的Batch;
+        // Batch须重新按最薄厚度排序(输出顺序即内部顺序)，后续插入的二分查找才不会错过位置
+        double[][] data = {
+                {1.04, 1000}, {0.56, 1400}, {1.02, 700}, {0.79, 1600}, {0.49, 800}, {0.84, 1300}, {0.76, 700},
+                {0.56, 1200}, {0.54, 1800}, {0.8, 1100}, {0.41, 2000}, {0.76, 700}, {0.71, 2100}, {0.97, 1400}};
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < data.length; i++) {
+            pieces.add(piece("P" + i).thickness(data[i][0]).width(data[i][1]).build());
+        }
+
+        List<Batch> batches = heuristicBatchSolver.batchesFor(pieces);
+
+        assertValid(batches);
+        double previous = 0;
+        for (Batch batch : batches) {
+            List<PieceStep> batchPieces = batch.getPieceSteps();
+            double thinnest = batchPieces.get(batchPieces.size() - 1).getThickness();
+            assertTrue(thinnest >= previous, "Batches out of order at " + batch.getBatchId());
+            previous = thinnest;
+        }
+    }
+
+    @Test
+    void coversRandomInstanceWithValidBatches() {
+        Random random = new Random(7);
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double thickness = Math.round((0.5 + random.nextDouble() * 1.0) * 20) / 20.0;
+            double width = 600 + random.nextInt(9) * 100;
+            double weight = 8 + random.nextInt(20);
+            pieces.add(piece("P" + i).thickness(thickness).width(width).weight(weight).build());
+        }
+
+        List<Batch> batches = heuristicBatchSolver.batchesFor(pieces);
+
+        assertEquals(300, assertValid(batches));
+    }
+
+    @Test
+    void neverDoesWorseThanLegacyGreedyOnSeededGroups() {
+        // 300个随机温度组: 覆盖的PieceStep不少于原贪心算法的合法Batch，覆盖相同时Batch不多于原算法
+        int better = 0;
+        for (int seed = 0; seed < 300; seed++) {
+            Random random = new Random(seed);
+            int n = 10 + random.nextInt(90);
+            List<PieceStep> pieces = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                double thickness = Math.round((0.4 + random.nextDouble() * 1.0) * 20) / 20.0;
+                double width = 600 + random.nextInt(9) * 100;
+                double weight = 8 + random.nextInt(20);
+                pieces.add(piece("P" + i).thickness(thickness).width(width).weight(weight).build());
+            }
+
+            List<Batch> batches = heuristicBatchSolver.batchesFor(pieces);
+            int covered = assertValid(batches);
+            List<List<PieceStep>> legacy = legacyBatchesFor(pieces).stream()
+                    .filter(BatchRules::isValidBatch)
+                    .toList();
+            int legacyCovered = legacy.stream().mapToInt(List::size).sum();
+
+            assertTrue(covered >= legacyCovered, "seed " + seed);
+            if (covered == legacyCovered) {
+                assertTrue(batches.size() <= legacy.size(), "seed " + seed);
+            }
+            if (covered > legacyCovered || batches.size() < legacy.size()) {
+                better++;
+            }
+        }
+        assertTrue(better > 0);
+    }
+
+    // 原贪心算法: 每个Batch先取两个最薄的厚PieceStep，再依次加入与上一个厚度最接近的PieceStep
+    private static List<List<PieceStep>> legacyBatchesFor(List<PieceStep> pieceSteps) {
+        List<PieceStep> sorted = new ArrayList<>(pieceSteps);
+        sorted.sort(Comparator.comparing(PieceStep::getThickness));
+        List<PieceStep> thick = new ArrayList<>(sorted.stream().filter(p -> BatchRules.isThick(p.getThickness())).toList());
+        List<PieceStep> thin = new ArrayList<>(sorted.stream().filter(p -> !BatchRules.isThick(p.getThickness())).toList());
+        List<List<PieceStep>> batches = new ArrayList<>();
+        int failedAttempts = 0;
+        while (!thick.isEmpty() || !thin.isEmpty()) {
+            List<PieceStep> current = new ArrayList<>();
+            double height = 0;
+            double weight = 0;
+            for (int i = 0; i < 2 && !thick.isEmpty(); i++) {
+                PieceStep piece = thick.remove(0);
+                current.add(piece);
+                height += piece.getWidth() + (i == 0 ? BatchRules.CONVECTION_PLATE_HEIGHT : 0);
+                weight += piece.getWeight() + (i == 0 ? BatchRules.CONVECTION_PLATE_WEIGHT : 0);
+            }
+            if (current.size() < 2 && thick.isEmpty()) {
+                // 剩余的薄PieceStep尽量补入最后一个Batch
+                if (!batches.isEmpty()) {
+                    List<PieceStep> last = batches.get(batches.size() - 1);
+                    while (!thin.isEmpty() && last.size() < BatchRules.MAX_PIECES_PER_BATCH) {
+                        PieceStep piece = thin.remove(0);
+                        if (Math.abs(last.get(last.size() - 1).getThickness() - piece.getThickness())
+                                <= BatchRules.MAX_THICKNESS_DIFF) {
+                            last.add(piece);
+                        }
+                    }
+                }
+                break;
+            }
+            List<PieceStep> available = new ArrayList<>(thin);
+            available.addAll(thick);
+            while (current.size() < BatchRules.MAX_PIECES_PER_BATCH && !available.isEmpty()) {
+                PieceStep lastPiece = current.get(current.size() - 1);
+                PieceStep next = available.stream()
+                        .filter(p -> Math.abs(p.getThickness() - lastPiece.getThickness()) <= BatchRules.MAX_THICKNESS_DIFF)
+                        .min(Comparator.comparingDouble(p -> Math.abs(p.getThickness() - lastPiece.getThickness())))
+                        .orElse(null);
+                if (next == null) {
+                    break;
+                }
+                double newHeight = height + next.getWidth() + BatchRules.CONVECTION_PLATE_HEIGHT;
+                double newWeight = weight + next.getWeight() + BatchRules.CONVECTION_PLATE_WEIGHT;
+                if (newHeight > BatchRules.MAX_HEIGHT || newWeight > BatchRules.MAX_WEIGHT) {
+                    break;
+                }
+                current.add(next);
+                height = newHeight;
+                weight = newWeight;
+                available.remove(next);
+                if (!thick.remove(next)) {
+                    thin.remove(next);
+                }
+            }
+            if (current.size() >= BatchRules.MIN_PIECES_PER_BATCH) {
+                batches.add(current);
+                failedAttempts = 0;
+            } else {
+                for (PieceStep piece : current) {
+                    (BatchRules.isThick(piece.getThickness()) ? thick : thin).add(piece);
+                }
+                if (batches.isEmpty() || ++failedAttempts > thick.size()) {
+                    break;
+                }
+            }
+        }
+        return batches;
+    }
+
+    // 校验每个Batch合法且PieceStep不重复，返回覆盖的PieceStep数量
+    private static int assertValid(List<Batch> batches) {
+        Set<String> seen = new HashSet<>();
+        for (Batch batch : batches) {
+            assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch.toString());
+            batch.getPieceSteps().forEach(piece -> assertTrue(seen.add(piece.getPieceStepId())));
+        }
+        return seen.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchBatchSolverTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HeuristicBatchSolver heuristicBatchSolver = new HeuristicBatchSolver();
+    private final LocalSearchBatchSolver localSearchBatchSolver = new LocalSearchBatchSolver(
+            new SolverProperties(), executor, new ExactBatchEngine(), heuristicBatchSolver);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mergesUnderfilledBatchesAndReportsImprovements() {
+        // 初始方案为10个只有4个PieceStep的Batch，最优为8个
+        List<PieceStep> pieces = new ArrayList<>();
+        List<Batch> plan = new ArrayList<>();
+        for (int b = 0; b < 10; b++) {
+            List<PieceStep> batchPieces = new ArrayList<>();
+            for (int k = 3; k >= 0; k--) {
+                PieceStep piece = piece("P" + b + "_" + k, 0.8 + 0.04 * b + 0.01 * k);
+                batchPieces.add(piece);
+                pieces.add(piece);
+            }
+            plan.add(BatchRules.toBatch("Batch_" + b, batchPieces));
+        }
+        List<GroupSolveResult> incumbents = Collections.synchronizedList(new ArrayList<>());
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .deadline(System.nanoTime() + 10_000_000_000L)
+                .incumbentListener(incumbents::add)
+                .build();
+
+        GroupSolveResult result = localSearchBatchSolver.improve(pieces, plan, null, context);
+
+        assertEquals(SolveStatus.OPTIMAL, result.getStatus());
+        assertEquals(8, result.getBatches().size());
+        assertEquals(40, assertValid(result.getBatches()));
+        assertFalse(incumbents.isEmpty());
+        assertEquals(8, incumbents.get(incumbents.size() - 1).getBatches().size());
+    }
+
+    @Test
+    void neverReturnsWorsePlanThanStart() {
+        Random random = new Random(7);
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double thickness = Math.round((0.5 + random.nextDouble() * 1.0) * 20) / 20.0;
+            double width = 600 + random.nextInt(9) * 100;
+            double weight = 8 + random.nextInt(20);
+            pieces.add(piece("P" + i).thickness(thickness).width(width).weight(weight).build());
+        }
+        List<Batch> start = heuristicBatchSolver.batchesFor(pieces);
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .threads(2)
+                .deadline(System.nanoTime() + 1_000_000_000L)
+                .build();
+
+        GroupSolveResult result = localSearchBatchSolver.improve(pieces, start, null, context);
+
+        assertTrue(result.getBatches().size() <= start.size());
+        assertEquals(300, assertValid(result.getBatches()));
+        assertEquals(60, result.getLowerBound());
+    }
+
+    @Test
+    void returnsImmediatelyWithoutBatchesToRepair() {
+        // 3个PieceStep凑不成Batch，初始方案为空
+        List<PieceStep> pieces = List.of(piece("P0", 0.8), piece("P1", 0.9), piece("P2", 1.0));
+        SolveContext context = SolveContext.builder()
+                .temperature("T1")
+                .threads(2)
+                .deadline(System.nanoTime() + 10_000_000_000L)
+                .build();
+
+        long start = System.nanoTime();
+        GroupSolveResult result = localSearchBatchSolver.improve(pieces, List.of(), null, context);
+
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(SolveStatus.NO_SOLUTION, result.getStatus());
+        assertTrue(result.getBatches().isEmpty());
+        assertEquals(0, result.getNodes());
+    }
+
+    // 校验每个Batch合法且PieceStep不重复，返回覆盖的PieceStep数量
+    private static int assertValid(List<Batch> batches) {
+        Set<String> seen = new HashSet<>();
+        for (Batch batch : batches) {
+            assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch.toString());
+            batch.getPieceSteps().forEach(piece -> assertTrue(seen.add(piece.getPieceStepId())));
+        }
+        return seen.size();
+    }
+}
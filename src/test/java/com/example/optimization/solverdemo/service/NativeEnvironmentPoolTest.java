@@ -0,0 +1,123 @@
+package com.example.optimization.solverdemo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeEnvironmentPoolTest {
+
+    // 测试用环境: 记录是否已释放，healthy=false时健康检查失败
+    private static final class FakeEnvironment {
+        final int id;
+        boolean healthy = true;
+        boolean disposed;
+        int resets;
+
+        FakeEnvironment(int id) {
+            this.id = id;
+        }
+    }
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final List<FakeEnvironment> environments = new ArrayList<>();
+
+    private NativeEnvironmentPool<FakeEnvironment, Exception> pool(int maxConcurrent, int maxIdle) {
+        return new NativeEnvironmentPool<>("fake", maxConcurrent, maxIdle,
+                () -> {
+                    FakeEnvironment environment = new FakeEnvironment(sequence.incrementAndGet());
+                    environments.add(environment);
+                    return environment;
+                },
+                environment -> {
+                    if (!environment.healthy) {
+                        throw new IllegalStateException("broken");
+                    }
+                    environment.resets++;
+                },
+                environment -> {
+                    if (!environment.healthy) {
+                        throw new IllegalStateException("broken");
+                    }
+                },
+                environment -> environment.disposed = true);
+    }
+
+    @Test
+    void reusesResetEnvironmentsAndDiscardsUnhealthyOnes() throws Exception {
+        NativeEnvironmentPool<FakeEnvironment, Exception> pool = pool(2, 2);
+        SolveContext context = SolveContext.builder().build();
+
+        FakeEnvironment first;
+        try (NativeEnvironmentPool<FakeEnvironment, Exception>.Lease lease = pool.lease(context)) {
+            first = lease.get();
+        }
+        assertEquals(1, first.resets);
+        try (NativeEnvironmentPool<FakeEnvironment, Exception>.Lease lease = pool.lease(context)) {
+            assertSame(first, lease.get());
+        }
+        assertEquals(2, first.resets);
+
+        // 空闲期间损坏，下次借出前被健康检查发现并释放
+        first.healthy = false;
+        try (NativeEnvironmentPool<FakeEnvironment, Exception>.Lease lease = pool.lease(context)) {
+            assertNotSame(first, lease.get());
+            // 调用方标记失效的环境归还时直接释放
+            lease.invalidate();
+        }
+        assertTrue(first.disposed);
+        assertTrue(environments.get(1).disposed);
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(2, pool.getDisposedCount());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2, pool.getAvailablePermits());
+
+        pool.close();
+    }
+
+    @Test
+    void leasesFreePermitPastDeadlineButNotWhenCancelled() throws Exception {
+        NativeEnvironmentPool<FakeEnvironment, Exception> pool = pool(1, 1);
+
+        // 截止时间已过但没有取消: 有空闲许可时仍然借出，调用方可以建模后再检查截止时间
+        SolveContext expired = SolveContext.builder().deadline(System.nanoTime()).build();
+        try (NativeEnvironmentPool<FakeEnvironment, Exception>.Lease lease = pool.lease(expired)) {
+            assertNotNull(lease);
+        }
+        SolveContext cancelled = SolveContext.builder().build();
+        cancelled.cancel();
+        assertNull(pool.lease(cancelled));
+        assertEquals(1, pool.getAvailablePermits());
+
+        pool.close();
+    }
+
+    @Test
+    void limitsConcurrentLeasesAndReleasesPermitOnFailure() throws Exception {
+        NativeEnvironmentPool<FakeEnvironment, Exception> pool = pool(1, 1);
+
+        NativeEnvironmentPool<FakeEnvironment, Exception>.Lease held = pool.lease(SolveContext.builder().build());
+        // 唯一的许可被占用，超过截止时间后返回null
+        SolveContext shortDeadline = SolveContext.builder().deadline(System.nanoTime() + 100_000_000L).build();
+        assertNull(pool.lease(shortDeadline));
+        held.close();
+        held.close();
+        assertEquals(1, pool.getAvailablePermits());
+
+        NativeEnvironmentPool<FakeEnvironment, Exception> failing = new NativeEnvironmentPool<>("failing", 1, 1,
+                () -> {
+                    throw new UnsatisfiedLinkError("no native library");
+                }, environment -> {
+                }, environment -> {
+                }, environment -> {
+                });
+        assertThrows(UnsatisfiedLinkError.class, () -> failing.lease(SolveContext.builder().build()));
+        assertEquals(1, failing.getAvailablePermits());
+
+        pool.close();
+        assertTrue(environments.get(0).disposed);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PieceColumnsTest {
+
+    @Test
+    void groupsByTemperatureInFirstAppearanceOrderAndSortsStably() {
+        List<PieceStep> pieces = List.of(
+                piece("A").temperature("T2").thickness(1.0).build(),
+                piece("B").temperature("T1").thickness(0.9).build(),
+                piece("C").temperature("T2").thickness(0.8).build(),
+                piece("D").temperature("T2").thickness(1.0).build(),
+                piece("E").temperature("T1").thickness(0.7).build());
+
+        Map<String, PieceColumns> groups = PieceColumns.of(pieces).byTemperature();
+
+        assertEquals(List.of("T2", "T1"), new ArrayList<>(groups.keySet()));
+        PieceColumns t2 = groups.get("T2").sortedByThickness();
+        assertEquals(List.of("C", "A", "D"), t2.pieceSteps().stream().map(PieceStep::getPieceStepId).toList());
+        assertEquals(0.8, t2.thickness(0));
+        assertEquals("T2", t2.temperature(2));
+        // 列表视图携带原存储，已排序时不再复制
+        assertSame(t2, PieceColumns.of(t2.pieceSteps()));
+        assertSame(t2, t2.sortedByThickness());
+    }
+
+    @Test
+    void buildsBatchesConsistentWithBatchRules() {
+        List<PieceStep> pieces = List.of(
+                piece("A", 0.6), piece("B", 0.7), piece("C", 0.8),
+                piece("D", 0.9), piece("E", 1.3));
+        PieceColumns columns = PieceColumns.of(pieces);
+
+        int[] valid = {3, 2, 1, 0};
+        Batch batch = columns.toBatch("Batch_1", valid);
+        assertTrue(columns.isValidBatch(valid));
+        assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()));
+        assertEquals(BatchRules.toBatch("Batch_1", batch.getPieceSteps()), batch);
+
+        // 前两个位置有薄件、相邻厚度差超过0.3
+        assertFalse(columns.isValidBatch(new int[]{0, 1, 2, 3}));
+        assertFalse(columns.isValidBatch(new int[]{4, 3, 2, 1}));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceDelta;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.PlanningSessionView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PlanningSessionServiceTest {
+
+    @Autowired
+    private PlanningSessionService planningSessionService;
+
+    @Autowired
+    private BatchOptimizerService batchOptimizerService;
+
+    @Autowired
+    private HeuristicBatchSolver heuristicBatchSolver;
+
+    private final BatchSolveOptions options = BatchSolveOptions.builder().solver(ExactBatchEngine.NAME).build();
+
+    @Test
+    void resolvesOnlyTheThicknessNeighbourhoodOfAddedPieces() {
+        PlanningSessionView created = planningSessionService.create(twoClusters(), options);
+        Map<String, Set<String>> farBatches = batchesAbove(created, 1.5);
+        assertEquals(2, farBatches.size());
+
+        List<PieceStep> added = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            added.add(piece("N" + i, 0.8 + 0.02 * i));
+        }
+        PlanningSessionView updated = planningSessionService
+                .applyDelta(created.getSessionId(), PieceDelta.builder().added(added).build())
+                .orElseThrow();
+
+        assertEquals(24, updated.getPieceCount());
+        assertEquals(14, updated.getLastResolvedPieces());
+        assertEquals(farBatches, batchesAbove(updated, 1.5));
+        assertValidCover(updated, 24);
+    }
+
+    @Test
+    void dissolvesBatchesThatBecomeInvalidAfterRemoval() {
+        PlanningSessionView created = planningSessionService.create(twoClusters(), options);
+        Batch batch = created.getGroups().get(0).getBatches().get(0);
+
+        // 移除一个后仍合法，不需要重新求解
+        PlanningSessionView first = planningSessionService.applyDelta(created.getSessionId(), PieceDelta.builder()
+                .removed(List.of(batch.getPieceSteps().get(4).getPieceStepId()))
+                .build()).orElseThrow();
+        assertEquals(0, first.getLastResolvedPieces());
+        assertValidCover(first, 19);
+
+        // 再移除一个后只剩3个，解散后与邻近的Batch一起重新分配
+        PlanningSessionView second = planningSessionService.applyDelta(created.getSessionId(), PieceDelta.builder()
+                .removed(List.of(batch.getPieceSteps().get(0).getPieceStepId()))
+                .build()).orElseThrow();
+        assertTrue(second.getLastResolvedPieces() > 0);
+        assertValidCover(second, 18);
+    }
+
+    @Test
+    void rejectsDuplicateAndUnknownIds() {
+        PlanningSessionView created = planningSessionService.create(twoClusters(), options);
+        String sessionId = created.getSessionId();
+
+        assertThrows(IllegalArgumentException.class, () -> planningSessionService.applyDelta(sessionId,
+                PieceDelta.builder().added(List.of(piece("A0", 0.8))).build()));
+        assertThrows(IllegalArgumentException.class, () -> planningSessionService.applyDelta(sessionId,
+                PieceDelta.builder().removed(List.of("missing")).build()));
+        assertEquals(20, planningSessionService.get(sessionId).orElseThrow().getPieceCount());
+    }
+
+    // 厚度相距超过邻域宽度的两簇，每簇10个PieceStep
+    @Test
+    void evictsIdleSessionsWithoutNewSessions() throws InterruptedException {
+        SolverProperties properties = new SolverProperties();
+        properties.setSessionIdleTimeout(Duration.ZERO);
+        PlanningSessionService service = new PlanningSessionService(properties, batchOptimizerService,
+                heuristicBatchSolver);
+
+        PlanningSessionView created = service.create(twoClusters(), options);
+        assertTrue(service.get(created.getSessionId()).isPresent());
+
+        Thread.sleep(5);
+        service.evictIdle();
+        assertTrue(service.get(created.getSessionId()).isEmpty());
+    }
+
+    private static List<PieceStep> twoClusters() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(piece("A" + i, 0.75 + 0.02 * i));
+            pieces.add(piece("B" + i, 1.6 + 0.02 * i));
+        }
+        return pieces;
+    }
+
+    private static Map<String, Set<String>> batchesAbove(PlanningSessionView view, double thickness) {
+        Map<String, Set<String>> batches = new HashMap<>();
+        for (GroupSolveResult group : view.getGroups()) {
+            for (Batch batch : group.getBatches()) {
+                if (batch.getPieceSteps().get(0).getThickness() > thickness) {
+                    batches.put(batch.getBatchId(), batch.getPieceSteps().stream()
+                            .map(PieceStep::getPieceStepId).collect(Collectors.toSet()));
+                }
+            }
+        }
+        return batches;
+    }
+
+    private static void assertValidCover(PlanningSessionView view, int pieceCount) {
+        assertTrue(view.getUnassigned().isEmpty());
+        Set<String> seen = new HashSet<>();
+        for (GroupSolveResult group : view.getGroups()) {
+            for (Batch batch : group.getBatches()) {
+                assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch.toString());
+                for (PieceStep piece : batch.getPieceSteps()) {
+                    assertTrue(seen.add(piece.getPieceStepId()));
+                }
+            }
+        }
+        assertEquals(pieceCount, seen.size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioBatchSolverTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void firstProvenResultWinsAndCancelsOthers() throws InterruptedException {
+        List<PieceStep> pieces = pieces(10);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        BatchSolver stalling = new BatchSolver() {
+            @Override
+            public String getName() {
+                return "stalling";
+            }
+
+            @Override
+            public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+                while (!context.isCancelled()) {
+                    Thread.onSpinWait();
+                }
+                cancelled.countDown();
+                return context.fallbackResult(pieceSteps.size());
+            }
+        };
+        BatchSolver failing = new BatchSolver() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+                throw new UnsatisfiedLinkError("no native library");
+            }
+        };
+        PortfolioBatchSolver portfolio = new PortfolioBatchSolver(
+                List.of(stalling, failing, new ExactBatchEngine()), executor);
+
+        GroupSolveResult result = portfolio.solve(pieces, SolveContext.builder().temperature("T").build());
+
+        assertTrue(result.isOptimal());
+        assertEquals(2, result.getBatches().size());
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void returnsBestPlanAtDeadlineWithoutProof() {
+        List<PieceStep> pieces = pieces(20);
+        // 每4个相邻PieceStep组成一个Batch: 5个Batch，而组合下界为ceil(20/5)=4
+        BatchSolver fours = new BatchSolver() {
+            @Override
+            public String getName() {
+                return "fours";
+            }
+
+            @Override
+            public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+                PieceColumns columns = PieceColumns.of(pieceSteps);
+                List<Batch> batches = new ArrayList<>();
+                for (int i = 0; i < columns.size(); i += 4) {
+                    batches.add(columns.toBatch("B" + i, new int[]{i, i + 1, i + 2, i + 3}));
+                }
+                return GroupSolveResult.of(context.getTemperature(), batches, SolveStatus.FEASIBLE, null, 0);
+            }
+        };
+        PortfolioBatchSolver portfolio = new PortfolioBatchSolver(List.of(fours), executor);
+
+        SolveContext context = SolveContext.builder()
+                .temperature("T")
+                .deadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(1))
+                .build();
+        GroupSolveResult result = portfolio.solve(pieces, context);
+
+        assertEquals(SolveStatus.FEASIBLE, result.getStatus());
+        assertEquals(5, result.getBatches().size());
+        assertEquals(4, result.getLowerBound());
+        assertEquals(0.2, result.getGap(), 1e-9);
+    }
+
+    @Test
+    void externalCancellationReachesMembers() {
+        List<PieceStep> pieces = pieces(10);
+        BatchSolver stalling = new BatchSolver() {
+            @Override
+            public String getName() {
+                return "stalling";
+            }
+
+            @Override
+            public GroupSolveResult solve(List<PieceStep> pieceSteps, SolveContext context) {
+                while (!context.isCancelled()) {
+                    Thread.onSpinWait();
+                }
+                return context.fallbackResult(pieceSteps.size());
+            }
+        };
+        PortfolioBatchSolver portfolio = new PortfolioBatchSolver(List.of(stalling), executor);
+        SolveContext context = SolveContext.builder().temperature("T").build();
+        executor.execute(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            context.cancel();
+        });
+
+        GroupSolveResult result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> portfolio.solve(pieces, context));
+
+        assertEquals(SolveStatus.NO_SOLUTION, result.getStatus());
+    }
+
+    private static List<PieceStep> pieces(int n) {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            pieces.add(piece("P" + i).temperature("T").thickness(0.6 + 0.05 * i).build());
+        }
+        return pieces;
+    }
+}
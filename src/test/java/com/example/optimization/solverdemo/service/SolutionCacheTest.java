@@ -0,0 +1,97 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.config.SolverProperties;
+import com.example.optimization.solverdemo.entity.Batch;
+import com.example.optimization.solverdemo.entity.GroupSolveResult;
+import com.example.optimization.solverdemo.entity.PieceStep;
+import com.example.optimization.solverdemo.entity.SolveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+
+    private final SolutionCache cache = new SolutionCache(new SolverProperties());
+    private final ExactBatchEngine exactBatchEngine = new ExactBatchEngine();
+
+    @Test
+    void mapsCachedBatchesOntoRenamedAndShuffledPieces() {
+        List<PieceStep> first = pieces("A", "T1");
+        GroupSolveResult solved = exactBatchEngine.solve(sorted(first), SolveContext.builder().temperature("T1").build());
+        assertEquals(SolveStatus.OPTIMAL, solved.getStatus());
+        cache.store(ExactBatchEngine.NAME, first, solved);
+
+        List<PieceStep> second = pieces("B", "T2");
+        Collections.shuffle(second, new Random(3));
+        GroupSolveResult hit = cache.lookup(ExactBatchEngine.NAME, "T2", second).orElseThrow();
+
+        assertEquals("T2", hit.getTemperature());
+        assertEquals(SolveStatus.OPTIMAL, hit.getStatus());
+        assertEquals(solved.getBatches().size(), hit.getBatches().size());
+        Set<PieceStep> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Batch batch : hit.getBatches()) {
+            assertTrue(BatchRules.isValidBatch(batch.getPieceSteps()), batch.toString());
+            for (PieceStep piece : batch.getPieceSteps()) {
+                assertTrue(second.stream().anyMatch(p -> p == piece));
+                assertTrue(seen.add(piece));
+            }
+        }
+        assertEquals(second.size(), seen.size());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    void missesWhenAnyAttributeDiffers() {
+        List<PieceStep> first = pieces("A", "T1");
+        cache.store(ExactBatchEngine.NAME, first,
+                exactBatchEngine.solve(sorted(first), SolveContext.builder().temperature("T1").build()));
+
+        List<PieceStep> changed = pieces("A", "T1");
+        changed.get(3).setWeight(changed.get(3).getWeight() + 1);
+        assertTrue(cache.lookup(ExactBatchEngine.NAME, "T1", changed).isEmpty());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void missesForOtherSolver() {
+        List<PieceStep> first = pieces("A", "T1");
+        cache.store(ExactBatchEngine.NAME, first,
+                exactBatchEngine.solve(sorted(first), SolveContext.builder().temperature("T1").build()));
+
+        assertTrue(cache.lookup(LocalSearchBatchSolver.NAME, "T1", first).isEmpty());
+        assertTrue(cache.lookup(ExactBatchEngine.NAME, "T1", first).isPresent());
+    }
+
+    @Test
+    void keepsProvenResultOverLaterFeasibleOne() {
+        List<PieceStep> first = pieces("A", "T1");
+        GroupSolveResult solved = exactBatchEngine.solve(sorted(first), SolveContext.builder().temperature("T1").build());
+        cache.store(ExactBatchEngine.NAME, first, solved);
+        cache.store(ExactBatchEngine.NAME, first, solved.toBuilder().status(SolveStatus.FEASIBLE).build());
+
+        assertEquals(SolveStatus.OPTIMAL, cache.lookup(ExactBatchEngine.NAME, "T1", first).orElseThrow().getStatus());
+    }
+
+    private static List<PieceStep> sorted(List<PieceStep> pieces) {
+        List<PieceStep> sorted = new ArrayList<>(pieces);
+        sorted.sort(Comparator.comparing(PieceStep::getThickness));
+        return sorted;
+    }
+
+    // 含重复属性的12个PieceStep
+    private static List<PieceStep> pieces(String prefix, String temperature) {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pieces.add(piece(prefix + i)
+                    .temperature(temperature)
+                    .thickness(0.8 + 0.05 * (i / 2))
+                    .width(800.0 + 100 * (i % 2))
+                    .weight(10.0 + i % 3)
+                    .build());
+        }
+        return pieces;
+    }
+}
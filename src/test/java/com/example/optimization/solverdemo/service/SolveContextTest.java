@@ -0,0 +1,34 @@
+package com.example.optimization.solverdemo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolveContextTest {
+
+    @Test
+    void childFollowsParentCancellationUntilClosed() {
+        SolveContext parent = SolveContext.builder().build();
+        SolveContext open = parent.child();
+        SolveContext closed = parent.child();
+        closed.close();
+        closed.close();
+
+        parent.cancel();
+
+        assertTrue(open.isCancelled());
+        // 已关闭的子上下文不再被父上下文引用
+        assertFalse(closed.isCancelled());
+    }
+
+    @Test
+    void cancellingChildLeavesParentRunning() {
+        SolveContext parent = SolveContext.builder().build();
+        try (SolveContext child = parent.child()) {
+            child.cancel();
+            assertTrue(child.shouldStop());
+        }
+        assertFalse(parent.isCancelled());
+        parent.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SolverMetricsTest {
+
+    @Autowired
+    private BatchOptimizerService batchOptimizerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordsRequestGroupAndCacheMetrics() {
+        List<PieceStep> pieces = new ArrayList<>();
+        // 每组10个PieceStep，不会被预处理直接确定
+        for (int i = 0; i < 20; i++) {
+            pieces.add(piece("M" + i)
+                    .temperature(i < 10 ? "M1" : "M2")
+                    .thickness(0.75 + 0.01 * i)
+                    .width(810.0)
+                    .weight(11.0)
+                    .build());
+        }
+        BatchSolveOptions options = BatchSolveOptions.builder().solver(ExactBatchEngine.NAME).build();
+
+        // 测试间共享同一个MeterRegistry，比较前后差值
+        double requests = requestCount();
+        double cacheHits = meterRegistry.counter("solver.group.results", "solver", ExactBatchEngine.NAME,
+                "status", "OPTIMAL", "source", SolverMetrics.SOURCE_CACHE).count();
+
+        batchOptimizerService.planBatches(pieces, options);
+        batchOptimizerService.planBatches(pieces, options);
+
+        assertEquals(requests + 2, requestCount());
+        assertTrue(meterRegistry.get("solver.group").tag("solver", ExactBatchEngine.NAME)
+                .timers().stream().mapToLong(timer -> timer.count()).sum() >= 4);
+        // 第二次请求的两个温度组都命中缓存
+        assertEquals(cacheHits + 2, meterRegistry.counter("solver.group.results", "solver", ExactBatchEngine.NAME,
+                "status", "OPTIMAL", "source", SolverMetrics.SOURCE_CACHE).count());
+        assertTrue(meterRegistry.get("solver.group.batches").tag("solver", ExactBatchEngine.NAME)
+                .summaries().stream().mapToLong(summary -> summary.count()).sum() >= 4);
+    }
+
+    private double requestCount() {
+        return meterRegistry.timer("solver.request", "error", "none", "solver", ExactBatchEngine.NAME,
+                "status", "OPTIMAL").count();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.optimization.solverdemo.service;
+
+import com.example.optimization.solverdemo.entity.PieceStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.optimization.solverdemo.TestPieces.piece;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseRowsTest {
+
+    @Test
+    void storesRowsInCompressedFormAndGrows() {
+        SparseRows rows = new SparseRows(1, 1);
+        rows.eq(1).add(0, 1).add(2, 1);
+        rows.le(4).add(1, 2).add(2, 3);
+        rows.ge(1).add(0, 1);
+
+        assertEquals(3, rows.rows());
+        assertEquals(5, rows.nonZeros());
+        assertEquals(5, activity(rows, 1, new double[]{0, 1, 1}));
+        assertEquals(-1, firstViolated(rows, new double[]{1, 0, 0}, 1e-9));
+        assertEquals(1, firstViolated(rows, new double[]{0, 1, 1}, 1e-9));
+        assertEquals(0, firstViolated(rows, new double[]{1, 0, 1}, 1e-9));
+        assertEquals(Double.NEGATIVE_INFINITY, rows.row(1).lower());
+        assertArrayEquals(new int[]{1, 2}, rows.row(1).columns());
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.row(3));
+        assertThrows(IllegalStateException.class, () -> new SparseRows(1, 1).add(0, 1));
+    }
+
+    @Test
+    void namesVariablesInLayoutOrder() {
+        assertArrayEquals(new String[]{"x_0_0", "x_0_1", "x_1_0", "x_1_1", "x_2_0", "x_2_1"},
+                SparseRows.names("x", 3, 2));
+    }
+
+    @Test
+    void compactRowsAcceptValidAssignmentAndRejectThicknessGap() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pieces.add(piece("P" + i, i < 4 ? 0.7 : 1.2));
+        }
+        PieceColumns columns = PieceColumns.of(pieces).sortedByThickness();
+        CompactModel model = new CompactModel(8, 2);
+        SparseRows rows = model.rows(columns);
+
+        assertEquals(-1, firstViolated(rows, assignment(model, new int[]{0, 0, 0, 0, 1, 1, 1, 1}), 1e-9));
+        // 厚度0.7与1.2的间隙超过0.3，不能在同一个Batch中
+        assertNotEquals(-1, firstViolated(rows, assignment(model, new int[]{0, 0, 0, 1, 0, 1, 1, 1}), 1e-9));
+    }
+
+    @Test
+    void compactWindowRowAllowsThickerClusterBeyondEmptyWindow() {
+        List<PieceStep> pieces = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            pieces.add(piece("A" + i, 0.8));
+            pieces.add(piece("B" + i, 1.5));
+        }
+        PieceColumns columns = PieceColumns.of(pieces).sortedByThickness();
+        CompactModel model = new CompactModel(8, 2);
+        SparseRows rows = model.rows(columns);
+
+        // (0.8, 1.1]内没有PieceStep: 窗口行为 5*a + s[hi] <= 5，不能禁止1.5的四件组成另一个Batch
+        assertEquals(-1, firstViolated(rows, assignment(model, new int[]{0, 0, 0, 0, 1, 1, 1, 1}), 1e-9));
+    }
+
+    // 第r行在给定变量取值下的左端值
+    private static double activity(SparseRows rows, int r, double[] x) {
+        SparseRows.Row row = rows.row(r);
+        double sum = 0;
+        for (int e = 0; e < row.columns().length; e++) {
+            sum += row.values()[e] * x[row.columns()[e]];
+        }
+        return sum;
+    }
+
+    // 第一个在给定取值下不满足的行，全部满足时返回-1
+    private static int firstViolated(SparseRows rows, double[] x, double tolerance) {
+        for (int r = 0; r < rows.rows(); r++) {
+            double activity = activity(rows, r, x);
+            SparseRows.Row row = rows.row(r);
+            if (activity < row.lower() - tolerance || activity > row.upper() + tolerance) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    // batchOf[i]: 第i个PieceStep所在的Batch; 同时计算y与后缀和s
+    private static double[] assignment(CompactModel model, int[] batchOf) {
+        double[] values = new double[model.size()];
+        for (int i = 0; i < model.pieces(); i++) {
+            values[model.a(i, batchOf[i])] = 1;
+            values[model.y(batchOf[i])] = 1;
+        }
+        for (int j = 0; j < model.batches(); j++) {
+            double suffix = 0;
+            for (int i = model.pieces() - 1; i >= 0; i--) {
+                suffix += values[model.a(i, j)];
+                values[model.s(i, j)] = suffix;
+            }
+        }
+        return values;
+    }
+}